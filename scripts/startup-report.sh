@@ -0,0 +1,66 @@
+#!/usr/bin/env bash
+# Time to first request, before and after the fast-startup build: launches the application RUNS times per
+# variant, measures from launch until URL first answers 200 and prints the median with the first-request time
+# the application logs itself.
+#
+#   baseline  java -jar on the plain build
+#   fast      extracted jar with Spring AOT (-Pfast-startup) and a CDS archive from a training run
+#
+# Needs the database the active profile points at (e.g. `make dev`, or SPRING_DATASOURCE_URL) and
+# OPENWEATHERMAP_API_KEY. SPRING_PROFILES_ACTIVE is also the profile the AOT build is made for.
+set -euo pipefail
+
+RUNS=${RUNS:-5}
+URL=${URL:-http://localhost:8080/actuator/health}
+export SPRING_PROFILES_ACTIVE=${SPRING_PROFILES_ACTIVE:-docker}
+WORK=${WORK:-${TMPDIR:-/tmp}/weather-startup-report}
+mkdir -p "$WORK"
+
+# Milliseconds from launching "$@" until $URL answers 200; the application is stopped afterwards
+time_to_first_request() {
+  local log=$1; shift
+  local start end
+  start=$(date +%s%N)
+  "$@" >"$log" 2>&1 &
+  local pid=$!
+  until curl -sf -o /dev/null "$URL"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "Application exited before answering, see $log" >&2
+      exit 1
+    fi
+    sleep 0.02
+  done
+  end=$(date +%s%N)
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo $(((end - start) / 1000000))
+}
+
+median() {
+  sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+measure() {
+  local name=$1; shift
+  local times=()
+  for run in $(seq "$RUNS"); do
+    times+=("$(time_to_first_request "$WORK/$name-$run.log" "$@")")
+  done
+  local logged
+  logged=$(grep -ho 'answered [0-9]* ms after JVM start' "$WORK/$name-"*.log | awk '{ print $2 }' | median)
+  printf '%-9s median %6d ms to first request (%s ms logged by the application), runs: %s\n' \
+    "$name" "$(printf '%s\n' "${times[@]}" | median)" "$logged" "${times[*]}"
+}
+
+./mvnw -q -B clean package -DskipTests
+cp target/*.jar "$WORK/baseline.jar"
+
+./mvnw -q -B clean package -DskipTests -Pfast-startup -Daot.profile="$SPRING_PROFILES_ACTIVE"
+rm -rf "$WORK/fast"
+java -Djarmode=tools -jar target/*.jar extract --destination "$WORK/fast"
+FAST_JAR=$(ls "$WORK"/fast/*.jar)
+java -XX:ArchiveClassesAtExit="$WORK/fast/app.jsa" -Dspring.context.exit=onRefresh -Dspring.aot.enabled=true \
+  -jar "$FAST_JAR" >"$WORK/training.log" 2>&1
+
+measure baseline java -jar "$WORK/baseline.jar"
+measure fast java -XX:SharedArchiveFile="$WORK/fast/app.jsa" -Dspring.aot.enabled=true -jar "$FAST_JAR"
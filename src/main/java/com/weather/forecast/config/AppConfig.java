@@ -1,7 +1,13 @@
 package com.weather.forecast.config;
 
+import com.weather.forecast.jfr.OwmFetchRecorder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
@@ -9,6 +15,64 @@ public class AppConfig {
 
     @Bean
     public RestTemplate restTemplate() {
-        return new RestTemplate();
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(new OwmFetchRecorder());
+        return restTemplate;
     }
-}
\ No newline at end of file
+
+    /**
+     * Executor for blocking OpenWeatherMap calls made off the request thread.
+     * Uses one virtual thread per task when {@code spring.threads.virtual.enabled=true}, otherwise a fixed pool;
+     * either way at most {@code weather.upstream.max-concurrency} calls are in flight. Tasks carry the caller's
+     * observation, so their spans join the request's trace.
+     */
+    @Bean
+    public AsyncTaskExecutor upstreamExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                              @Value("${weather.upstream.max-concurrency:16}") int maxConcurrency) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("upstream-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(maxConcurrency);
+            executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("upstream-");
+        executor.setCorePoolSize(maxConcurrency);
+        executor.setMaxPoolSize(maxConcurrency);
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor for background refreshes of stale data served while it is revalidated. Kept apart from
+     * {@link #upstreamExecutor} because a refresh waits on calls made there; the bounded queue sheds refreshes
+     * (the next stale read tries again) rather than letting them pile up behind a slow upstream.
+     */
+    @Bean
+    public AsyncTaskExecutor revalidationExecutor(@Value("${weather.stale-while-revalidate.max-concurrency:4}") int maxConcurrency,
+                                                  @Value("${weather.stale-while-revalidate.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("revalidate-");
+        executor.setCorePoolSize(maxConcurrency);
+        executor.setMaxPoolSize(maxConcurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor for the pieces of a page that are loaded at the same time, one virtual thread per task: they
+     * mostly wait on the database or upstream, as the request thread would otherwise. Tasks carry the caller's
+     * observation and {@link ServerTiming}.
+     */
+    @Bean
+    public AsyncTaskExecutor pageExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("page-");
+        executor.setVirtualThreads(true);
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        return executor;
+    }
+}
@@ -0,0 +1,69 @@
+package com.weather.forecast.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Binary encodings for API responses, picked by the {@code Accept} header: {@code application/cbor},
+ * {@code application/x-jackson-smile} and {@code application/x-protobuf}. JSON stays the default.
+ */
+@Configuration
+public class ContentNegotiationConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+    private final int minCompressSize;
+    private final long maxEncodedResponses;
+
+    public ContentNegotiationConfig(ObjectMapper objectMapper,
+                                    @Value("${weather.response-cache.min-compress-size:1024}") int minCompressSize,
+                                    @Value("${weather.response-cache.max-entries:1000}") long maxEncodedResponses) {
+        this.objectMapper = objectMapper;
+        this.minCompressSize = minCompressSize;
+        this.maxEncodedResponses = maxEncodedResponses;
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(binaryMapper(builder, new CBORFactory()));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(binaryMapper(builder, new SmileFactory()));
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Ahead of Jackson, which still handles JSON for every other response type
+        converters.add(0, new PreEncodedJsonHttpMessageConverter(objectMapper, minCompressSize, maxEncodedResponses));
+        // Appended after JSON so a request without an Accept header still gets JSON
+        converters.add(new WeatherProtobufHttpMessageConverter());
+    }
+
+    /**
+     * The application's Jackson settings, except that times are written as epoch milliseconds: an ISO-8601
+     * string is most of what a binary format saves. Readers must disable
+     * {@link DeserializationFeature#READ_DATE_TIMESTAMPS_AS_NANOSECONDS} to read them back, as this mapper does.
+     */
+    public static ObjectMapper binaryMapper(Jackson2ObjectMapperBuilder builder, JsonFactory factory) {
+        return builder.factory(factory)
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .featuresToDisable(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS,
+                        DeserializationFeature.READ_DATE_TIMESTAMPS_AS_NANOSECONDS)
+                .build();
+    }
+}
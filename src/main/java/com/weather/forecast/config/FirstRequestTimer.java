@@ -0,0 +1,57 @@
+package com.weather.forecast.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Records how long after JVM start the first request was answered, the cold-start cost a new instance adds to
+ * a deploy or scale-out: logged once and published as the {@code application.first-request.time} gauge, next to
+ * Spring Boot's {@code application.started.time} and {@code application.ready.time}.
+ */
+public class FirstRequestTimer extends OncePerRequestFilter {
+
+    static final String METRIC = "application.first-request.time";
+
+    private static final Logger logger = LoggerFactory.getLogger(FirstRequestTimer.class);
+
+    private final MeterRegistry meterRegistry;
+    private final long jvmStartMillis;
+    private final AtomicBoolean served = new AtomicBoolean();
+
+    public FirstRequestTimer(MeterRegistry meterRegistry) {
+        this(meterRegistry, ManagementFactory.getRuntimeMXBean().getStartTime());
+    }
+
+    FirstRequestTimer(MeterRegistry meterRegistry, long jvmStartMillis) {
+        this.meterRegistry = meterRegistry;
+        this.jvmStartMillis = jvmStartMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (!served.get() && served.compareAndSet(false, true)) {
+                long millis = System.currentTimeMillis() - jvmStartMillis;
+                logger.info("First request ({} {}) answered {} ms after JVM start", request.getMethod(), request.getRequestURI(), millis);
+                TimeGauge.builder(METRIC, () -> millis, TimeUnit.MILLISECONDS)
+                        .description("Time from JVM start until the first request was answered")
+                        .register(meterRegistry);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.weather.forecast.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.UUID;
+
+/** Identifies this instance among the nodes sharing the database. */
+@Component
+public class NodeIdentity {
+
+    private final String id;
+
+    public NodeIdentity(@Value("${weather.node-id:}") String configuredId) {
+        this.id = configuredId.isBlank() ? defaultId() : configuredId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /** @return host name plus a random suffix, so restarts and co-located nodes never share an id */
+    private static String defaultId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,132 @@
+package com.weather.forecast.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.weather.forecast.dto.ForecastResponse;
+import com.weather.forecast.dto.WeatherResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes current weather and forecasts as JSON from bytes encoded once per cached response instance, with a gzip
+ * copy for bodies worth compressing. Entries are keyed by identity and held weakly, so a cache refresh or eviction
+ * (a new instance) is re-encoded on its first request and the old bytes go with the old instance.
+ * Registered ahead of the Jackson converter; other media types and response types are left to it.
+ */
+public class PreEncodedJsonHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    private final ObjectMapper objectMapper;
+    private final int minCompressSize;
+    private final Cache<Object, EncodedBody> encoded;
+
+    public PreEncodedJsonHttpMessageConverter(ObjectMapper objectMapper, int minCompressSize, long maxEntries) {
+        super(MediaType.APPLICATION_JSON);
+        this.objectMapper = objectMapper;
+        this.minCompressSize = minCompressSize;
+        this.encoded = Caffeine.newBuilder().weakKeys().maximumSize(maxEntries).build();
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == WeatherResponse.class || clazz == ForecastResponse.class;
+    }
+
+    /** Request bodies are left to the Jackson converter, so this is never asked to read one. */
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Pre-encoded JSON is only written, not read", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        EncodedBody bytes;
+        try {
+            bytes = encoded.get(body, this::encode);
+        } catch (UncheckedIOException e) {
+            throw new HttpMessageNotWritableException("Could not encode " + body.getClass().getSimpleName(), e.getCause());
+        }
+        HttpHeaders headers = outputMessage.getHeaders();
+        byte[] payload = bytes.json();
+        if (bytes.gzip() != null) {
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (acceptsGzip()) {
+                headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+                payload = bytes.gzip();
+                // A strong tag names one exact byte sequence, so the compressed body needs its own
+                if (headers.getETag() != null) {
+                    headers.setETag(RepresentationETags.withRepresentation(headers.getETag(), "gzip"));
+                }
+            }
+        }
+        headers.setContentLength(payload.length);
+        outputMessage.getBody().write(payload);
+    }
+
+    private EncodedBody encode(Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            return new EncodedBody(json, json.length >= minCompressSize ? gzip(json) : null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    /** True if the Accept-Encoding value allows gzip by name, or through {@code *} when gzip is not named. */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                refused |= parts[i].replace(" ", "").matches("q=0(\\.0{0,3})?");
+            }
+            if (name.equalsIgnoreCase("gzip")) {
+                return !refused;
+            }
+            if (name.equals("*")) {
+                wildcard = !refused;
+            }
+        }
+        return wildcard;
+    }
+
+    private static boolean acceptsGzip() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servlet
+                && acceptsGzip(servlet.getRequest().getHeader(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    private record EncodedBody(byte[] json, byte[] gzip) {
+    }
+}
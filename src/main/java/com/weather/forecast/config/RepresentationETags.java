@@ -0,0 +1,37 @@
+package com.weather.forecast.config;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Entity tags for the representations of one data version. Responses are tagged with the version
+ * ({@code "cw-abc"}); anything other than identity-encoded JSON appends what it was written as
+ * ({@code "cw-abc.cbor"}, {@code "cw-abc.gzip"}), so a cache never pairs one encoding's body with another's tag.
+ */
+public final class RepresentationETags {
+
+    private RepresentationETags() {
+    }
+
+    /** @param eTag a quoted, possibly weak, entity tag */
+    public static String withRepresentation(String eTag, String representation) {
+        int closingQuote = eTag.lastIndexOf('"');
+        return eTag.substring(0, closingQuote) + "." + representation + eTag.substring(closingQuote);
+    }
+
+    /** {@code application/cbor} is "cbor", {@code application/x-jackson-smile} is "smile". */
+    public static String representationOf(MediaType mediaType) {
+        String subtype = mediaType.getSubtype();
+        return subtype.substring(subtype.lastIndexOf('-') + 1);
+    }
+
+    /** True if the quoted, possibly weak, entity tag names any representation of the version's unquoted tag. */
+    public static boolean isOfVersion(String eTag, String versionETag) {
+        String opaque = eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+        if (opaque.length() < 2 || opaque.charAt(0) != '"' || opaque.charAt(opaque.length() - 1) != '"') {
+            return false;
+        }
+        opaque = opaque.substring(1, opaque.length() - 1);
+        int suffix = opaque.indexOf('.');
+        return (suffix < 0 ? opaque : opaque.substring(0, suffix)).equals(versionETag);
+    }
+}
@@ -0,0 +1,101 @@
+package com.weather.forecast.config;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Time spent per kind of work during one request, reported in the {@code Server-Timing} response header.
+ * {@link ServerTimingFilter} binds one to the request thread. Work handed to another thread is counted when the
+ * executor propagates context ({@link ServerTimingAccessor}); time a metric is open on several threads at once
+ * is counted once.
+ * A metric entered again while it is already open (a service method calling another) is timed once, from the
+ * outermost entry, so nesting never counts the same time twice.
+ */
+public final class ServerTiming {
+
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Metric> metrics = new LinkedHashMap<>();
+
+    static ServerTiming bind() {
+        ServerTiming timing = new ServerTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    static void bind(ServerTiming timing) {
+        CURRENT.set(timing);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    /** The timing of the request being handled on this thread, or null outside a request. */
+    public static ServerTiming current() {
+        return CURRENT.get();
+    }
+
+    public synchronized Span start(String metric) {
+        Metric m = metrics.computeIfAbsent(metric, name -> new Metric());
+        m.count++;
+        if (m.depth++ == 0) {
+            m.openedAt = System.nanoTime();
+        }
+        return new Span(this, m);
+    }
+
+    private synchronized void end(Metric m) {
+        if (m.depth > 0 && --m.depth == 0) {
+            m.totalNanos += System.nanoTime() - m.openedAt;
+        }
+    }
+
+    /** The header value, e.g. {@code db;dur=1.3;desc="4 calls", owm;dur=212.0, total;dur=220.4}; open metrics count up to now. */
+    public synchronized String header() {
+        long now = System.nanoTime();
+        StringBuilder header = new StringBuilder();
+        metrics.forEach((name, m) -> {
+            long nanos = m.totalNanos + (m.depth > 0 ? now - m.openedAt : 0);
+            header.append(name).append(";dur=").append(millis(nanos));
+            if (m.count > 1) {
+                header.append(";desc=\"").append(m.count).append(" calls\"");
+            }
+            header.append(", ");
+        });
+        return header.append("total;dur=").append(millis(now - startNanos)).toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+
+    private static final class Metric {
+        private long totalNanos;
+        private long openedAt;
+        private int depth;
+        private int count;
+    }
+
+    /** One occurrence of a metric; ending it more than once has no further effect. */
+    public static final class Span {
+
+        private final ServerTiming timing;
+        private final Metric metric;
+        private boolean ended;
+
+        private Span(ServerTiming timing, Metric metric) {
+            this.timing = timing;
+            this.metric = metric;
+        }
+
+        public void end() {
+            if (!ended) {
+                ended = true;
+                timing.end(metric);
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.weather.forecast.config;
+
+import io.micrometer.context.ThreadLocalAccessor;
+
+/**
+ * Carries the request's {@link ServerTiming} to tasks run through a context-propagating executor, so work a
+ * request hands to other threads still shows in its {@code Server-Timing} header. Registered through
+ * {@code META-INF/services}.
+ */
+public class ServerTimingAccessor implements ThreadLocalAccessor<ServerTiming> {
+
+    static final String KEY = "weather.server-timing";
+
+    @Override
+    public Object key() {
+        return KEY;
+    }
+
+    @Override
+    public ServerTiming getValue() {
+        return ServerTiming.current();
+    }
+
+    @Override
+    public void setValue(ServerTiming value) {
+        ServerTiming.bind(value);
+    }
+
+    @Override
+    public void setValue() {
+        ServerTiming.unbind();
+    }
+}
@@ -0,0 +1,88 @@
+package com.weather.forecast.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Times each request with a {@link ServerTiming} and reports it in the {@code Server-Timing} header. Headers
+ * cannot follow the body, so the header is written when the body is first opened (or the response flushed or
+ * sent as an error), counting everything up to that point; a response with no body gets it at the end.
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    static final String HEADER = "Server-Timing";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        TimedResponse timed = new TimedResponse(response, ServerTiming.bind());
+        try {
+            filterChain.doFilter(request, timed);
+        } finally {
+            timed.writeHeader();
+            ServerTiming.unbind();
+        }
+    }
+
+    private static final class TimedResponse extends HttpServletResponseWrapper {
+
+        private final ServerTiming timing;
+        private boolean written;
+
+        private TimedResponse(HttpServletResponse response, ServerTiming timing) {
+            super(response);
+            this.timing = timing;
+        }
+
+        private void writeHeader() {
+            if (!written && !isCommitted()) {
+                written = true;
+                setHeader(HEADER, timing.header());
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeader();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.weather.forecast.config;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+
+/**
+ * Adds the application's own observations ({@code weather.*}) to the request's {@link ServerTiming}, under the
+ * name without the prefix: {@code weather.db} is reported as {@code db}. Observations outside a request,
+ * such as scheduled refreshes, are left alone.
+ */
+public class ServerTimingObservationHandler implements ObservationHandler<Observation.Context> {
+
+    static final String PREFIX = "weather.";
+
+    @Override
+    public void onStart(Observation.Context context) {
+        ServerTiming timing = ServerTiming.current();
+        if (timing != null) {
+            context.put(ServerTiming.Span.class, timing.start(context.getName().substring(PREFIX.length())));
+        }
+    }
+
+    @Override
+    public void onStop(Observation.Context context) {
+        ServerTiming.Span span = context.get(ServerTiming.Span.class);
+        if (span != null) {
+            span.end();
+        }
+    }
+
+    @Override
+    public boolean supportsContext(Observation.Context context) {
+        return context.getName() != null && context.getName().startsWith(PREFIX);
+    }
+}
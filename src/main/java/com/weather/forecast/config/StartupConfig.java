@@ -0,0 +1,52 @@
+package com.weather.forecast.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Keeps work off the startup path: the OpenAPI documentation beans are created on the first
+ * {@code /v3/api-docs} or {@code /swagger-ui} request rather than while the application starts. The
+ * {@link FirstRequestTimer} measures the result. See the {@code fast-startup} Maven profile for AOT and CDS.
+ */
+@Configuration
+public class StartupConfig {
+
+    private static final String SPRINGDOC_PACKAGE = "org.springdoc.";
+
+    /** Static so it runs before any bean is created. */
+    @Bean
+    public static BeanFactoryPostProcessor lazyDocumentationBeans() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                if (isDocumentation(beanFactory, definition)) {
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<FirstRequestTimer> firstRequestTimer(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<FirstRequestTimer> registration = new FilterRegistrationBean<>(new FirstRequestTimer(meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /** Declared by springdoc or {@link OpenApiConfig}, directly or through a {@code @Bean} method. */
+    private static boolean isDocumentation(ConfigurableListableBeanFactory beanFactory, BeanDefinition definition) {
+        String type = definition.getBeanClassName();
+        String factoryBean = definition.getFactoryBeanName();
+        if (type == null && factoryBean != null && beanFactory.containsBeanDefinition(factoryBean)) {
+            type = beanFactory.getBeanDefinition(factoryBean).getBeanClassName();
+        }
+        // Configuration classes are registered under their CGLIB subclass, hence startsWith
+        return type != null && (type.startsWith(SPRINGDOC_PACKAGE) || type.startsWith(OpenApiConfig.class.getName()));
+    }
+}
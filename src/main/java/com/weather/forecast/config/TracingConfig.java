@@ -0,0 +1,154 @@
+package com.weather.forecast.config;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.util.function.SingletonSupplier;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.function.Supplier;
+
+/**
+ * Spans for the parts of a request that are not observed in place: controller methods ({@code weather.handler}),
+ * view rendering ({@code weather.render}) and repository calls ({@code weather.db}). Upstream calls
+ * ({@code weather.owm}) and cache misses ({@code weather.load}) are observed where they happen, the request itself
+ * by Spring's {@code http.server.requests}. Spans are sampled by {@code management.tracing.sampling.probability};
+ * the {@code Server-Timing} breakdown is reported for every request.
+ */
+@Configuration
+public class TracingConfig implements WebMvcConfigurer {
+
+    private static final String HANDLER_OBSERVATION = TracingConfig.class.getName() + ".handler";
+    private static final String RENDER_OBSERVATION = TracingConfig.class.getName() + ".render";
+
+    private final Supplier<ObservationRegistry> observationRegistry;
+
+    public TracingConfig(ObjectProvider<ObservationRegistry> observationRegistry) {
+        this.observationRegistry = registry(observationRegistry);
+    }
+
+    @Bean
+    public ServerTimingObservationHandler serverTimingObservationHandler() {
+        return new ServerTimingObservationHandler();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "weather.server-timing.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter() {
+        FilterRegistrationBean<ServerTimingFilter> registration = new FilterRegistrationBean<>(new ServerTimingFilter());
+        // Outside the request observation, so the header's total covers all of it
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /** Static so repository factories are customized before the repositories are created. */
+    @Bean
+    public static BeanPostProcessor repositoryObservationPostProcessor(ObjectProvider<ObservationRegistry> observationRegistry) {
+        Supplier<ObservationRegistry> registry = registry(observationRegistry);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(repositoryObservation(
+                                    registry, repositoryInformation.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static MethodInterceptor repositoryObservation(Supplier<ObservationRegistry> observationRegistry, String repository) {
+        return invocation -> {
+            String method = invocation.getMethod().getName();
+            Observation observation = Observation.createNotStarted("weather.db", observationRegistry.get())
+                    .contextualName(repository + "." + method)
+                    .lowCardinalityKeyValue("repository", repository)
+                    .lowCardinalityKeyValue("method", method)
+                    .start();
+            try (Observation.Scope scope = observation.openScope()) {
+                return invocation.proceed();
+            } catch (Throwable e) {
+                observation.error(e);
+                throw e;
+            } finally {
+                observation.stop();
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AsyncHandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if (handler instanceof HandlerMethod method) {
+                    String controller = method.getBeanType().getSimpleName();
+                    open(request, HANDLER_OBSERVATION, Observation.createNotStarted("weather.handler", observationRegistry.get())
+                            .contextualName(controller + "." + method.getMethod().getName())
+                            .lowCardinalityKeyValue("controller", controller)
+                            .lowCardinalityKeyValue("method", method.getMethod().getName()));
+                }
+                return true;
+            }
+
+            @Override
+            public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) {
+                stop(request, HANDLER_OBSERVATION, null);
+                if (modelAndView != null && modelAndView.hasView()) {
+                    open(request, RENDER_OBSERVATION, Observation.createNotStarted("weather.render", observationRegistry.get())
+                            .lowCardinalityKeyValue("view", String.valueOf(modelAndView.getViewName())));
+                }
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+                // The handler is still open if it threw
+                stop(request, HANDLER_OBSERVATION, ex);
+                stop(request, RENDER_OBSERVATION, ex);
+            }
+
+            @Override
+            public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                // Streaming handlers return before their response is written; the scope must not outlive this thread
+                stop(request, HANDLER_OBSERVATION, null);
+            }
+        });
+    }
+
+    /** Started in scope, so the observations made while it is open (loads, queries) become its children. */
+    private static void open(HttpServletRequest request, String attribute, Observation observation) {
+        request.setAttribute(attribute, observation.start().openScope());
+    }
+
+    private static void stop(HttpServletRequest request, String attribute, Exception ex) {
+        if (request.getAttribute(attribute) instanceof Observation.Scope scope) {
+            request.removeAttribute(attribute);
+            scope.close();
+            Observation observation = scope.getCurrentObservation();
+            if (ex != null) {
+                observation.error(ex);
+            }
+            observation.stop();
+        }
+    }
+
+    /** Resolved on first use; there is no registry in sliced tests, where observations are then no-ops. */
+    private static Supplier<ObservationRegistry> registry(ObjectProvider<ObservationRegistry> observationRegistry) {
+        return SingletonSupplier.of(() -> observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP));
+    }
+}
@@ -0,0 +1,49 @@
+package com.weather.forecast.config;
+
+import com.weather.forecast.dto.ForecastResponse;
+import com.weather.forecast.dto.ForecastSlice;
+import com.weather.forecast.dto.WeatherResponse;
+import com.weather.forecast.util.WeatherProtobufCodec;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+
+import java.io.IOException;
+
+/** Writes current weather and forecasts as {@code application/x-protobuf}, per {@code weather.proto}. */
+public class WeatherProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    public WeatherProtobufHttpMessageConverter() {
+        super(PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == WeatherResponse.class || clazz == ForecastResponse.class || clazz == ForecastSlice.class;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return clazz != ForecastSlice.class && super.canRead(clazz, mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return clazz == WeatherResponse.class
+                ? WeatherProtobufCodec.readWeather(inputMessage.getBody())
+                : WeatherProtobufCodec.readForecast(inputMessage.getBody());
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        switch (body) {
+            case WeatherResponse weather -> WeatherProtobufCodec.writeWeather(weather, outputMessage.getBody());
+            case ForecastResponse forecast -> WeatherProtobufCodec.writeForecast(forecast, outputMessage.getBody());
+            case ForecastSlice slice -> WeatherProtobufCodec.writeForecast(slice, outputMessage.getBody());
+            default -> throw new IllegalArgumentException("Unsupported type: " + body.getClass());
+        }
+    }
+}
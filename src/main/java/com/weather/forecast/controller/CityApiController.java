@@ -0,0 +1,34 @@
+package com.weather.forecast.controller;
+
+import com.weather.forecast.dto.CitySuggestion;
+import com.weather.forecast.service.CitySuggestionIndex;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cities")
+@Validated
+public class CityApiController {
+
+    private final CitySuggestionIndex citySuggestionIndex;
+
+    public CityApiController(CitySuggestionIndex citySuggestionIndex) {
+        this.citySuggestionIndex = citySuggestionIndex;
+    }
+
+    /** Known cities starting with {@code prefix}, most searched first; served from memory. */
+    @GetMapping("/suggest")
+    public List<CitySuggestion> suggest(@RequestParam @NotBlank @Size(max = 100) String prefix,
+                                        @RequestParam(defaultValue = "10") @Min(1) @Max(20) int limit) {
+        return citySuggestionIndex.suggest(prefix, limit);
+    }
+}
@@ -0,0 +1,44 @@
+package com.weather.forecast.controller;
+
+import com.weather.forecast.config.RepresentationETags;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * API bodies are negotiated by {@code Accept} (JSON, CBOR, Smile, protobuf), so every one says so in {@code Vary},
+ * and an entity tag set by the controller is narrowed to the media type it is written as.
+ */
+@RestControllerAdvice(basePackageClasses = WeatherApiController.class)
+public class RepresentationHeadersAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        HttpHeaders headers = response.getHeaders();
+        varyByAccept(headers);
+        String eTag = headers.getETag();
+        // A 304 already carries the tag the client sent for its representation
+        if (body != null && eTag != null && !MediaType.APPLICATION_JSON.equalsTypeAndSubtype(selectedContentType)) {
+            headers.setETag(RepresentationETags.withRepresentation(eTag, RepresentationETags.representationOf(selectedContentType)));
+        }
+        return body;
+    }
+
+    static void varyByAccept(HttpHeaders headers) {
+        if (!headers.getVary().contains(HttpHeaders.ACCEPT)) {
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+    }
+}
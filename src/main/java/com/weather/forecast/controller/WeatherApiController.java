@@ -1,33 +1,233 @@
 package com.weather.forecast.controller;
 
+import com.weather.forecast.config.RepresentationETags;
+import com.weather.forecast.dto.BatchResponse;
+import com.weather.forecast.dto.BatchWeatherRequest;
+import com.weather.forecast.dto.DailyForecastResponse;
 import com.weather.forecast.dto.ForecastResponse;
+import com.weather.forecast.dto.ForecastSlice;
+import com.weather.forecast.dto.LocatedWeather;
 import com.weather.forecast.dto.WeatherResponse;
+import com.weather.forecast.exception.CityNotFoundException;
+import com.weather.forecast.service.CityService;
+import com.weather.forecast.service.NearbyWeatherService;
+import com.weather.forecast.service.WeatherDataVersions;
+import com.weather.forecast.service.WeatherDataVersions.DataVersion;
 import com.weather.forecast.service.WeatherService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/weather")
 @Validated
 public class WeatherApiController {
 
+    /**
+     * Set when a misspelled city was corrected; holds the URL-encoded name the response is for. Requests with
+     * {@code exact=true} are never corrected.
+     */
+    static final String RESOLVED_CITY_HEADER = "X-Resolved-City";
+
     private final WeatherService weatherService;
+    private final NearbyWeatherService nearbyWeatherService;
+    private final CityService cityService;
+    private final WeatherDataVersions dataVersions;
 
-    public WeatherApiController(WeatherService weatherService) {
+    public WeatherApiController(WeatherService weatherService, NearbyWeatherService nearbyWeatherService, CityService cityService,
+                                WeatherDataVersions dataVersions) {
         this.weatherService = weatherService;
+        this.nearbyWeatherService = nearbyWeatherService;
+        this.cityService = cityService;
+        this.dataVersions = dataVersions;
     }
 
     @GetMapping("/current")
-    public WeatherResponse getCurrentWeather(@RequestParam @NotBlank String city) {
-        return weatherService.getCurrentWeather(city);
+    public ResponseEntity<WeatherResponse> getCurrentWeather(@RequestParam @NotBlank String city,
+                                                             @RequestParam(defaultValue = "false") boolean exact,
+                                                             HttpServletRequest request) {
+        return withCorrection(city, exact, WeatherDataVersions.Kind.CURRENT, weatherService::getCurrentWeather, request);
     }
 
+    /**
+     * Slices the cached forecast rather than querying for the window, so every view of a city shares one cache
+     * entry. {@code to} is exclusive; {@code fields} limits which item fields are written. Unsliced requests
+     * return the cached forecast itself, which is written from its pre-encoded bytes.
+     */
     @GetMapping("/forecast")
-    public ForecastResponse getForecast(@RequestParam @NotBlank String city) {
-        return weatherService.getForecast(city);
+    public ResponseEntity<?> getForecast(@RequestParam @NotBlank String city,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                         @RequestParam(required = false) @Min(1) @Max(40) Integer limit,
+                                         @RequestParam(required = false) List<@Pattern(regexp = ForecastSlice.Field.NAMES) String> fields,
+                                         @RequestParam(defaultValue = "false") boolean exact,
+                                         HttpServletRequest request) {
+        if (from == null && to == null && limit == null && fields == null) {
+            return withCorrection(city, exact, WeatherDataVersions.Kind.FORECAST, weatherService::getForecast, request);
+        }
+        Set<ForecastSlice.Field> selected = fields == null ? null
+                : fields.stream().map(ForecastSlice.Field::fromJsonName).collect(Collectors.toCollection(() -> EnumSet.noneOf(ForecastSlice.Field.class)));
+        return withCorrection(city, exact, WeatherDataVersions.Kind.FORECAST,
+                name -> ForecastSlice.of(weatherService.getForecast(name), from, to, limit, selected), request);
+    }
+
+    @GetMapping("/forecast/daily")
+    public ResponseEntity<DailyForecastResponse> getDailyForecast(@RequestParam @NotBlank String city,
+                                                                  @RequestParam(defaultValue = "false") boolean exact) {
+        return withCorrection(city, exact, weatherService::getDailyForecast);
+    }
+
+    @PostMapping("/current/batch")
+    public BatchResponse<WeatherResponse> getCurrentWeatherBatch(@RequestBody @Valid BatchWeatherRequest request) {
+        return weatherService.getCurrentWeatherBatch(request.cities());
+    }
+
+    @PostMapping("/forecast/batch")
+    public BatchResponse<ForecastResponse> getForecastBatch(@RequestBody @Valid BatchWeatherRequest request) {
+        return weatherService.getForecastBatch(request.cities());
+    }
+
+    /**
+     * Serves a name upstream does not know from the known city it most likely meant. A name upstream rejected
+     * before is corrected up front, without sending the typo upstream again; otherwise the literal name is tried
+     * first and only corrected if upstream reports it as not found.
+     */
+    private <T> ResponseEntity<T> withCorrection(String city, boolean exact, Function<String, T> load) {
+        return correcting(city, exact, (name, correction) -> response(HttpStatus.OK, correction).body(load.apply(name)));
+    }
+
+    /**
+     * As {@link #withCorrection(String, boolean, Function)}, adding validators from the city's data version. A
+     * conditional request matching a still-fresh version gets a 304 without the response being loaded or encoded.
+     */
+    private <T> ResponseEntity<T> withCorrection(String city, boolean exact, WeatherDataVersions.Kind kind, Function<String, T> load,
+                                                 HttpServletRequest request) {
+        return correcting(city, exact, (name, correction) -> withVersion(name, correction, kind, load, request));
+    }
+
+    private <T> ResponseEntity<T> correcting(String city, boolean exact,
+                                             BiFunction<String, Optional<String>, ResponseEntity<T>> respond) {
+        Optional<String> correction = exact ? Optional.empty() : cityService.findCorrection(city);
+        try {
+            return respond.apply(correction.orElse(city), correction);
+        } catch (CityNotFoundException e) {
+            // Upstream has now rejected the name, which makes it eligible for correction
+            Optional<String> retry = exact || correction.isPresent() ? Optional.empty() : cityService.findCorrection(city);
+            if (retry.isEmpty()) {
+                throw e;
+            }
+            return respond.apply(retry.get(), retry);
+        }
+    }
+
+    private <T> ResponseEntity<T> withVersion(String name, Optional<String> correction, WeatherDataVersions.Kind kind,
+                                              Function<String, T> load, HttpServletRequest request) {
+        Optional<DataVersion> before = dataVersions.find(kind, name);
+        if (before.isPresent() && Instant.now().isBefore(before.get().freshUntil()) && isNotModified(request, before.get())) {
+            ResponseEntity.BodyBuilder notModified = withValidators(response(HttpStatus.NOT_MODIFIED, correction), before.get());
+            // The client's own tag names the representation it holds, as the 200 it revalidates did
+            matchingTag(request, before.get()).ifPresent(notModified::eTag);
+            notModified.headers(RepresentationHeadersAdvice::varyByAccept);
+            return notModified.build();
+        }
+
+        T body = load.apply(name);
+        ResponseEntity.BodyBuilder response = response(HttpStatus.OK, correction);
+        Optional<DataVersion> after = dataVersions.find(kind, name);
+        // A version that changed while loading may not describe the body that was loaded
+        if (after.isPresent() && after.equals(before)) {
+            withValidators(response, after.get());
+        }
+        return response.body(body);
+    }
+
+    private static ResponseEntity.BodyBuilder response(HttpStatus status, Optional<String> correction) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        correction.ifPresent(resolved -> response.header(RESOLVED_CITY_HEADER, UriUtils.encode(resolved, StandardCharsets.UTF_8)));
+        return response;
+    }
+
+    private static ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder response, DataVersion version) {
+        Duration remaining = Duration.between(Instant.now(), version.freshUntil());
+        return response.eTag(version.etag())
+                .lastModified(version.lastModified())
+                .cacheControl(CacheControl.maxAge(remaining.isNegative() ? Duration.ZERO : remaining));
+    }
+
+    /**
+     * If-None-Match takes precedence over If-Modified-Since, and is compared weakly, per RFC 9110. A tag of any
+     * representation of the version matches: they all hold the same data.
+     */
+    static boolean isNotModified(HttpServletRequest request, DataVersion version) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return ifNoneMatch.trim().equals("*") || matchingTag(request, version).isPresent();
+        }
+        try {
+            long ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+            return ifModifiedSince >= 0 && version.lastModified().toEpochMilli() <= ifModifiedSince;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static Optional<String> matchingTag(HttpServletRequest request, DataVersion version) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return Optional.empty();
+        }
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .filter(tag -> RepresentationETags.isOfVersion(tag, version.etag()))
+                .findFirst();
+    }
+
+    /** Stored weather for known cities within {@code radius} km, nearest first. */
+    @GetMapping("/nearby")
+    public List<LocatedWeather> getNearbyWeather(@RequestParam @DecimalMin("-90") @DecimalMax("90") double lat,
+                                                 @RequestParam @DecimalMin("-180") @DecimalMax("180") double lon,
+                                                 @RequestParam(defaultValue = "50") @DecimalMin("0") @DecimalMax("2000") double radius,
+                                                 @RequestParam(defaultValue = "50") @Min(1) @Max(500) int limit) {
+        return nearbyWeatherService.findNearby(lat, lon, radius, limit);
+    }
+
+    /** Stored weather for known cities in the box; {@code minLon > maxLon} crosses the antimeridian. */
+    @GetMapping("/bbox")
+    public List<LocatedWeather> getWeatherInBox(@RequestParam @DecimalMin("-90") @DecimalMax("90") double minLat,
+                                                @RequestParam @DecimalMin("-180") @DecimalMax("180") double minLon,
+                                                @RequestParam @DecimalMin("-90") @DecimalMax("90") double maxLat,
+                                                @RequestParam @DecimalMin("-180") @DecimalMax("180") double maxLon,
+                                                @RequestParam(defaultValue = "200") @Min(1) @Max(500) int limit) {
+        return nearbyWeatherService.findWithin(minLat, minLon, maxLat, maxLon, limit);
     }
 }
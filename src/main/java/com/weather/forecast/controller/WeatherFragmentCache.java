@@ -0,0 +1,102 @@
+package com.weather.forecast.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.weather.forecast.service.CacheInvalidationBus;
+import com.weather.forecast.service.WeatherDataVersions;
+import com.weather.forecast.service.WeatherDataVersions.DataVersion;
+import com.weather.forecast.service.WeatherUpdatedEvent;
+import com.weather.forecast.util.WeatherMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Rendered HTML for the parts of the weather page that only change with a city's data: the current-weather card
+ * and the forecast strip. Kept per city and {@link WeatherDataVersions data version}, so the page for a hot city is
+ * assembled from fragments without loading or rendering its weather. A new version makes the old HTML unreachable;
+ * it is also dropped when the city's data is stored here or replaced on another node.
+ */
+@Component
+public class WeatherFragmentCache {
+
+    static final String TEMPLATE = "fragments/weather";
+
+    enum Fragment {
+        CURRENT_CARD(WeatherDataVersions.Kind.CURRENT, "current"),
+        FORECAST_STRIP(WeatherDataVersions.Kind.FORECAST, "forecast");
+
+        private final WeatherDataVersions.Kind kind;
+        private final String selector;
+
+        Fragment(WeatherDataVersions.Kind kind, String selector) {
+            this.kind = kind;
+            this.selector = selector;
+        }
+    }
+
+    private final ITemplateEngine templateEngine;
+    private final WeatherDataVersions dataVersions;
+    private final Cache<Key, String> fragments;
+
+    public WeatherFragmentCache(ITemplateEngine templateEngine, WeatherDataVersions dataVersions, CacheInvalidationBus cacheInvalidationBus,
+                                @Value("${weather.page.fragment-cache.max-entries:2000}") long maxEntries) {
+        this.templateEngine = templateEngine;
+        this.dataVersions = dataVersions;
+        this.fragments = Caffeine.newBuilder().expireAfterWrite(WeatherMapper.FRESHNESS).maximumSize(maxEntries).build();
+        cacheInvalidationBus.subscribe(this::forget);
+    }
+
+    /** The fragment cached for the city's current data version, if any; pass it to {@link #render} otherwise. */
+    Lookup lookup(Fragment fragment, String cityName, Locale locale) {
+        Key key = key(fragment, cityName, locale).orElse(null);
+        return new Lookup(fragment, locale, key, key != null ? fragments.getIfPresent(key) : null);
+    }
+
+    /** A lookup that never finds or stores anything, for HTML that only belongs to one request. */
+    static Lookup uncached(Fragment fragment, Locale locale) {
+        return new Lookup(fragment, locale, null, null);
+    }
+
+    /**
+     * Renders the fragment from loaded data and caches it, unless the city's version changed while loading: the
+     * data might then be older than the version it would be kept under.
+     */
+    String render(Lookup lookup, Map<String, Object> variables) {
+        String html = templateEngine.process(TEMPLATE, Set.of(lookup.fragment().selector), new Context(lookup.locale(), variables));
+        if (lookup.key() != null && key(lookup.fragment(), lookup.key().cityKey(), lookup.locale()).filter(lookup.key()::equals).isPresent()) {
+            fragments.put(lookup.key(), html);
+        }
+        return html;
+    }
+
+    @EventListener
+    void onWeatherUpdated(WeatherUpdatedEvent event) {
+        forget(Set.of(event.cityKey()));
+    }
+
+    void forget(Set<String> cityKeys) {
+        fragments.asMap().keySet().removeIf(key -> cityKeys.contains(key.cityKey()));
+    }
+
+    private Optional<Key> key(Fragment fragment, String cityName, Locale locale) {
+        Optional<DataVersion> version = dataVersions.find(fragment.kind, cityName);
+        // The forecast strip labels slots "Today" and "Tomorrow", so its HTML also changes at midnight
+        return version.map(v -> new Key(fragment, cityName.toLowerCase(), v.etag(), locale, LocalDate.now()));
+    }
+
+    /** @param html the cached fragment, or null to load the data and {@link #render} it */
+    record Lookup(Fragment fragment, Locale locale, Key key, String html) {
+    }
+
+    record Key(Fragment fragment, String cityKey, String etag, Locale locale, LocalDate day) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.weather.forecast.controller;
+
+import com.weather.forecast.service.WeatherUpdateBroadcaster;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/weather")
+@Validated
+public class WeatherStreamController {
+
+    private final WeatherUpdateBroadcaster broadcaster;
+
+    public WeatherStreamController(WeatherUpdateBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    /** Streams "weather" events for the given cities; {@code threshold} is the smallest temperature change to push. */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamCurrentWeather(@RequestParam @NotEmpty @Size(max = 50) List<@NotBlank String> cities,
+                                                           @RequestParam(required = false) @DecimalMin("0") BigDecimal threshold) {
+        return broadcaster.subscribe(cities, threshold)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+}
@@ -1,27 +1,54 @@
 package com.weather.forecast.controller;
 
+import com.weather.forecast.controller.WeatherFragmentCache.Fragment;
+import com.weather.forecast.controller.WeatherFragmentCache.Lookup;
 import com.weather.forecast.dto.ForecastResponse;
 import com.weather.forecast.dto.WeatherResponse;
+import com.weather.forecast.exception.CityNotFoundException;
 import com.weather.forecast.model.City;
 import com.weather.forecast.service.CityService;
 import com.weather.forecast.service.WeatherService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Controller
 public class WebController {
 
+    private static final Logger logger = LoggerFactory.getLogger(WebController.class);
+
     private final WeatherService weatherService;
     private final CityService cityService;
+    private final WeatherFragmentCache fragmentCache;
+    private final AsyncTaskExecutor pageExecutor;
+    private final Duration pageDeadline;
 
-    public WebController(WeatherService weatherService, CityService cityService) {
+    public WebController(WeatherService weatherService, CityService cityService, WeatherFragmentCache fragmentCache,
+                         @Qualifier("pageExecutor") AsyncTaskExecutor pageExecutor,
+                         @Value("${weather.page.deadline:PT3S}") Duration pageDeadline) {
         this.weatherService = weatherService;
         this.cityService = cityService;
+        this.fragmentCache = fragmentCache;
+        this.pageExecutor = pageExecutor;
+        this.pageDeadline = pageDeadline;
     }
 
     @GetMapping("/")
@@ -32,27 +59,103 @@ public class WebController {
     }
 
     @GetMapping("/weather")
-    public String getWeather(@RequestParam(required = false) String city, Model model) {
+    public String getWeather(@RequestParam(required = false) String city, @RequestParam(defaultValue = "false") boolean exact,
+                             Locale locale, Model model) {
         if (city != null && !city.trim().isEmpty()) {
-            // Get current weather
-            WeatherResponse currentWeather = weatherService.getCurrentWeather(city);
-            model.addAttribute("weather", currentWeather);
+            // A name upstream rejected before is served from the known city it most likely meant, without asking again
+            Optional<String> correction = exact ? Optional.empty() : cityService.findCorrection(city);
+            try {
+                return renderWeather(correction.orElse(city), correction.isPresent() ? city : null, locale, model);
+            } catch (CityNotFoundException e) {
+                // Upstream has now rejected the name, which makes it eligible for correction
+                Optional<String> retry = exact || correction.isPresent() ? Optional.empty() : cityService.findCorrection(city);
+                if (retry.isEmpty()) {
+                    throw e;
+                }
+                return renderWeather(retry.get(), city, locale, model);
+            }
+        }
+        return "redirect:/";
+    }
+
+    private String renderWeather(String cityName, String correctedFrom, Locale locale, Model model) {
+        if (correctedFrom != null) {
+            model.addAttribute("correctedFrom", correctedFrom);
+        }
+
+        // A new city is created here, once, rather than by both loads below at the same time
+        if (cityService.findByName(cityName).isEmpty()) {
+            cityService.findOrCreateCity(cityName);
+        }
 
-            // Get forecast
-            ForecastResponse forecast = weatherService.getForecast(city);
-            model.addAttribute("forecast", forecast);
+        // A hot city's card and forecast are already rendered for its current data; only the rest is loaded.
+        // A corrected city's card carries a note for this request, so it is never cached.
+        Lookup card = correctedFrom != null
+                ? WeatherFragmentCache.uncached(Fragment.CURRENT_CARD, locale)
+                : fragmentCache.lookup(Fragment.CURRENT_CARD, cityName, locale);
+        Lookup strip = fragmentCache.lookup(Fragment.FORECAST_STRIP, cityName, locale);
 
-            // Get recently searched cities
-            List<City> recentCities = cityService.getRecentlySearchedCities(5);
-            model.addAttribute("recentCities", recentCities);
+        // Load the pieces at the same time, all within one deadline
+        long deadline = System.nanoTime() + pageDeadline.toNanos();
+        Future<WeatherResponse> currentWeather = card.html() == null
+                ? pageExecutor.submit(() -> weatherService.getCurrentWeather(cityName)) : null;
+        Future<ForecastResponse> forecast = strip.html() == null
+                ? pageExecutor.submit(() -> weatherService.getForecast(cityName)) : null;
+        Future<List<City>> recentCities = pageExecutor.submit(() -> cityService.getRecentlySearchedCities(5));
 
-            return "weather";
+        model.addAttribute("city", cityName);
+        String cardHtml = card.html();
+        if (currentWeather != null) {
+            WeatherResponse weather = await(currentWeather, deadline, "current weather", cityName, true);
+            model.addAttribute("weather", weather);
+            if (weather != null) {
+                Map<String, Object> variables = new HashMap<>();
+                variables.put("weather", weather);
+                variables.put("correctedFrom", correctedFrom);
+                cardHtml = fragmentCache.render(card, variables);
+            }
         }
-        return "redirect:/";
+        String stripHtml = strip.html();
+        if (forecast != null) {
+            ForecastResponse loaded = await(forecast, deadline, "forecast", cityName, false);
+            model.addAttribute("forecast", loaded);
+            if (loaded != null) {
+                stripHtml = fragmentCache.render(strip, Map.of("forecast", loaded));
+            }
+        }
+        model.addAttribute("currentCard", cardHtml);
+        model.addAttribute("forecastStrip", stripHtml);
+        List<City> recent = await(recentCities, deadline, "recent cities", cityName, false);
+        model.addAttribute("recentCities", recent != null ? recent : List.of());
+
+        return "weather";
     }
 
     @PostMapping("/search")
     public String search(@RequestParam String city) {
         return "redirect:/weather?city=" + city;
     }
+
+    /**
+     * Waits for one piece of the page until the shared deadline. A piece that is late, or fails when it is not
+     * {@code required}, is left out of the page (null); a late one still finishes in the background and is cached
+     * for the next request. A required piece that fails rethrows, as when the city does not exist.
+     */
+    private <T> T await(Future<T> piece, long deadlineNanos, String what, String cityName, boolean required) {
+        try {
+            return piece.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Rendering weather page for {} without {}: not loaded within {}", cityName, what, pageDeadline);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            if (required && e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            logger.error("Rendering weather page for {} without {}: {}", cityName, what, e.getCause().getMessage());
+            return null;
+        }
+    }
 }
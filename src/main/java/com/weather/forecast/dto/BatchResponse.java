@@ -0,0 +1,10 @@
+package com.weather.forecast.dto;
+
+import java.util.Map;
+
+/** Per-city results of a batch request, keyed by city name as requested; cities that failed are in {@code errors}. */
+public record BatchResponse<T>(
+        Map<String, T> results,
+        Map<String, String> errors
+) {
+}
@@ -0,0 +1,12 @@
+package com.weather.forecast.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BatchWeatherRequest(
+        @NotEmpty @Size(max = 500) List<@NotBlank String> cities
+) {
+}
@@ -0,0 +1,7 @@
+package com.weather.forecast.dto;
+
+public record CitySuggestion(
+        String name,
+        String country
+) {
+}
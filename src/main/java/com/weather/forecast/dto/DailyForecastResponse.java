@@ -0,0 +1,27 @@
+package com.weather.forecast.dto;
+
+import com.weather.forecast.model.WeatherCondition;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public record DailyForecastResponse(
+        String city,
+        String country,
+        Integer utcOffsetSeconds,
+        List<DailyItem> days
+) {
+    /** {@code slots} is below 8 for the partial first and last days of the five-day window. */
+    public record DailyItem(
+            LocalDate date,
+            BigDecimal minTemperature,
+            BigDecimal maxTemperature,
+            BigDecimal precipitation,
+            BigDecimal probability,
+            WeatherCondition conditions,
+            String description,
+            Integer slots
+    ) {
+    }
+}
@@ -0,0 +1,108 @@
+package com.weather.forecast.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A window of a cached {@link ForecastResponse}, serialized with only the requested item fields. The items are a
+ * view over the cached list, so slicing copies nothing and serialization cost follows the size of the slice.
+ */
+@JsonSerialize(using = ForecastSlice.Serializer.class)
+public record ForecastSlice(
+        String city,
+        String country,
+        List<ForecastResponse.ForecastItem> forecasts,
+        Set<Field> fields
+) {
+    public enum Field {
+        DATE("date", ForecastResponse.ForecastItem::date),
+        TEMPERATURE("temperature", ForecastResponse.ForecastItem::temperature),
+        HUMIDITY("humidity", ForecastResponse.ForecastItem::humidity),
+        WIND_SPEED("windSpeed", ForecastResponse.ForecastItem::windSpeed),
+        CONDITIONS("conditions", ForecastResponse.ForecastItem::conditions),
+        DESCRIPTION("description", ForecastResponse.ForecastItem::description),
+        RAIN_VOLUME("rainVolume", ForecastResponse.ForecastItem::rainVolume),
+        PROBABILITY("probability", ForecastResponse.ForecastItem::probability);
+
+        /** Accepted values of the {@code fields} request parameter. */
+        public static final String NAMES = "date|temperature|humidity|windSpeed|conditions|description|rainVolume|probability";
+
+        private final String jsonName;
+        private final Function<ForecastResponse.ForecastItem, Object> accessor;
+
+        Field(String jsonName, Function<ForecastResponse.ForecastItem, Object> accessor) {
+            this.jsonName = jsonName;
+            this.accessor = accessor;
+        }
+
+        public static Field fromJsonName(String jsonName) {
+            for (Field field : values()) {
+                if (field.jsonName.equals(jsonName)) {
+                    return field;
+                }
+            }
+            throw new IllegalArgumentException("Unknown forecast field: " + jsonName);
+        }
+    }
+
+    /**
+     * @param from  first slot time to include, or null
+     * @param to    slots at or after this time are left out, or null
+     * @param limit maximum number of slots, or null
+     * @param fields item fields to write; null or empty writes them all
+     */
+    public static ForecastSlice of(ForecastResponse forecast, Instant from, Instant to, Integer limit, Set<Field> fields) {
+        List<ForecastResponse.ForecastItem> items = forecast.forecasts();
+        // Slots are in time order, so the window is two binary searches
+        int start = from != null ? firstAtOrAfter(items, from) : 0;
+        int end = to != null ? firstAtOrAfter(items, to) : items.size();
+        end = Math.max(start, end);
+        if (limit != null) {
+            end = Math.min(end, start + limit);
+        }
+        Set<Field> selected = fields == null || fields.isEmpty() ? EnumSet.allOf(Field.class) : EnumSet.copyOf(fields);
+        return new ForecastSlice(forecast.city(), forecast.country(), items.subList(start, end), selected);
+    }
+
+    private static int firstAtOrAfter(List<ForecastResponse.ForecastItem> items, Instant time) {
+        int low = 0;
+        int high = items.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (items.get(mid).date().isBefore(time)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public static class Serializer extends JsonSerializer<ForecastSlice> {
+        @Override
+        public void serialize(ForecastSlice slice, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeStringField("city", slice.city());
+            gen.writeStringField("country", slice.country());
+            gen.writeArrayFieldStart("forecasts");
+            for (ForecastResponse.ForecastItem item : slice.forecasts()) {
+                gen.writeStartObject();
+                for (Field field : slice.fields()) {
+                    provider.defaultSerializeField(field.jsonName, field.accessor.apply(item), gen);
+                }
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+}
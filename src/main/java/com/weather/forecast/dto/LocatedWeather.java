@@ -0,0 +1,10 @@
+package com.weather.forecast.dto;
+
+public record LocatedWeather(
+        String city,
+        double latitude,
+        double longitude,
+        Double distanceKm,
+        WeatherResponse weather
+) {
+}
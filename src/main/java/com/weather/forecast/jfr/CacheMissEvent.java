@@ -0,0 +1,41 @@
+package com.weather.forecast.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A request for a city that was not in the cache. The duration is the load, from the database lookup to the
+ * upstream call; a coalesced miss did not load on its own but shared another request's load and has no duration.
+ */
+@Name(CacheMissEvent.NAME)
+@Label("Weather Cache Miss")
+@Category({"Weather Forecast", "Cache"})
+@StackTrace(false)
+public class CacheMissEvent extends Event {
+
+    public static final String NAME = "com.weather.forecast.CacheMiss";
+
+    @Label("Cache")
+    public String cache;
+
+    @Label("City")
+    public String city;
+
+    @Label("Coalesced")
+    @Description("Served by a load already under way for the same city")
+    public boolean coalesced;
+
+    public static void coalesced(String cache, String city) {
+        CacheMissEvent event = new CacheMissEvent();
+        if (event.shouldCommit()) {
+            event.cache = cache;
+            event.city = city;
+            event.coalesced = true;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.weather.forecast.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@code /actuator/flightrecorder}: lists this JVM's flight recordings, including one started with
+ * {@code -XX:StartFlightRecording}, and starts, stops, dumps and closes them. Recordings started here use a
+ * JDK settings file ({@code default} or {@code profile}); the application's own events are always included.
+ * <ul>
+ *     <li>{@code GET /} lists recordings; {@code POST /} with {@code name}, {@code settings}, {@code duration},
+ *     {@code maxAge} starts one</li>
+ *     <li>{@code GET /{id}} downloads what a recording holds so far, as a {@code .jfr} file</li>
+ *     <li>{@code POST /{id}} stops a recording, keeping its data; {@code DELETE /{id}} discards it</li>
+ * </ul>
+ */
+@Component
+@Endpoint(id = "flightrecorder")
+public class FlightRecorderEndpoint {
+
+    private static final List<String> WEATHER_EVENTS = List.of(OwmFetchEvent.NAME, CacheMissEvent.NAME,
+            StaleFallbackEvent.NAME, ForecastPersistEvent.NAME);
+
+    @ReadOperation
+    public List<RecordingInfo> recordings() {
+        return FlightRecorder.getFlightRecorder().getRecordings().stream().map(RecordingInfo::of).toList();
+    }
+
+    @WriteOperation
+    public RecordingInfo start(@Nullable String name, @Nullable String settings, @Nullable Duration duration,
+                               @Nullable Duration maxAge) throws IOException, ParseException {
+        Recording recording = new Recording(Configuration.getConfiguration(settings != null ? settings : "default"));
+        for (String event : WEATHER_EVENTS) {
+            recording.enable(event);
+        }
+        recording.setName(name != null ? name : "weather-" + Instant.now().getEpochSecond());
+        recording.setToDisk(true);
+        recording.setDuration(duration);
+        recording.setMaxAge(maxAge != null ? maxAge : Duration.ofHours(1));
+        recording.start();
+        return RecordingInfo.of(recording);
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<RecordingInfo> stop(@Selector long id) {
+        return find(id).map(recording -> {
+            if (recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+            }
+            return new WebEndpointResponse<>(RecordingInfo.of(recording));
+        }).orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+
+    @ReadOperation
+    public WebEndpointResponse<Resource> dump(@Selector long id) throws IOException {
+        Optional<Recording> recording = find(id);
+        if (recording.isEmpty()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (recording.get().getState() == RecordingState.NEW || recording.get().getState() == RecordingState.CLOSED) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        Path file = Files.createTempFile("recording-" + id + "-", ".jfr");
+        recording.get().dump(file);
+        return new WebEndpointResponse<>(new TemporaryFileResource(file));
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<Void> close(@Selector long id) {
+        return find(id).map(recording -> {
+            recording.close();
+            return new WebEndpointResponse<Void>(WebEndpointResponse.STATUS_NO_CONTENT);
+        }).orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+
+    private static Optional<Recording> find(long id) {
+        return FlightRecorder.getFlightRecorder().getRecordings().stream().filter(recording -> recording.getId() == id).findFirst();
+    }
+
+    public record RecordingInfo(long id, String name, RecordingState state, Instant startTime, Duration duration,
+                                Duration maxAge, long size) {
+
+        static RecordingInfo of(Recording recording) {
+            return new RecordingInfo(recording.getId(), recording.getName(), recording.getState(), recording.getStartTime(),
+                    recording.getDuration(), recording.getMaxAge(), recording.getSize());
+        }
+    }
+
+    /** Deleted once it has been sent. */
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        private TemporaryFileResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(getFile().toPath(), StandardOpenOption.DELETE_ON_CLOSE);
+        }
+    }
+}
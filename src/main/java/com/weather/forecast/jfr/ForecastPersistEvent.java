@@ -0,0 +1,26 @@
+package com.weather.forecast.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** A city's forecast replaced in the database: the slots and the daily summaries computed from them. */
+@Name(ForecastPersistEvent.NAME)
+@Label("Forecast Persistence")
+@Category({"Weather Forecast", "Database"})
+@StackTrace(false)
+public class ForecastPersistEvent extends Event {
+
+    public static final String NAME = "com.weather.forecast.ForecastPersist";
+
+    @Label("City")
+    public String city;
+
+    @Label("Slots Written")
+    public int slots;
+
+    @Label("Days Written")
+    public int days;
+}
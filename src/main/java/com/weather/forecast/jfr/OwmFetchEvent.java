@@ -0,0 +1,33 @@
+package com.weather.forecast.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One HTTP call to OpenWeatherMap; the event's duration is the latency, up to the body being read. */
+@Name(OwmFetchEvent.NAME)
+@Label("OpenWeatherMap Fetch")
+@Category({"Weather Forecast", "Upstream"})
+@StackTrace(false)
+public class OwmFetchEvent extends Event {
+
+    public static final String NAME = "com.weather.forecast.OwmFetch";
+
+    @Label("City")
+    public String city;
+
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("Response Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("HTTP Status")
+    @Description("0 if no response was received")
+    public int status;
+}
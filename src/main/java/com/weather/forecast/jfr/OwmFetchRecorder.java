@@ -0,0 +1,112 @@
+package com.weather.forecast.jfr;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Records an {@link OwmFetchEvent} per upstream call. The event is committed when the response is closed, so its
+ * duration and size cover reading the body; nothing is measured while no recording has the event enabled.
+ */
+public class OwmFetchRecorder implements ClientHttpRequestInterceptor {
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        OwmFetchEvent event = new OwmFetchEvent();
+        if (!event.isEnabled()) {
+            return execution.execute(request, body);
+        }
+        event.begin();
+        URI uri = request.getURI();
+        String path = uri.getPath();
+        event.endpoint = path.substring(path.lastIndexOf('/') + 1);
+        String city = UriComponentsBuilder.fromUri(uri).build(true).getQueryParams().getFirst("q");
+        event.city = city != null ? UriUtils.decode(city, StandardCharsets.UTF_8) : null;
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            event.status = response.getStatusCode().value();
+            return new RecordedResponse(response, event);
+        } catch (IOException | RuntimeException e) {
+            event.commit();
+            throw e;
+        }
+    }
+
+    private static final class RecordedResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+        private final OwmFetchEvent event;
+        private InputStream body;
+        private boolean closed;
+
+        private RecordedResponse(ClientHttpResponse response, OwmFetchEvent event) {
+            this.response = response;
+            this.event = event;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterInputStream(response.getBody()) {
+                    @Override
+                    public int read() throws IOException {
+                        int b = super.read();
+                        if (b >= 0) {
+                            event.bytes++;
+                        }
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) throws IOException {
+                        int n = super.read(buffer, offset, length);
+                        if (n > 0) {
+                            event.bytes += n;
+                        }
+                        return n;
+                    }
+                };
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                response.close();
+            } finally {
+                event.commit();
+            }
+        }
+    }
+}
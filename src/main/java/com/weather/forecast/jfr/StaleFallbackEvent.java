@@ -0,0 +1,48 @@
+package com.weather.forecast.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/** Stored data served because the upstream call that should have replaced it failed. */
+@Name(StaleFallbackEvent.NAME)
+@Label("Stale Weather Fallback")
+@Category({"Weather Forecast", "Upstream"})
+@StackTrace(false)
+public class StaleFallbackEvent extends Event {
+
+    public static final String NAME = "com.weather.forecast.StaleFallback";
+
+    @Label("Data")
+    @Description("currentWeather or forecast")
+    public String data;
+
+    @Label("City")
+    public String city;
+
+    @Label("Data Age")
+    @Description("Time since the data served was stored; 0 if unknown")
+    @Timespan(Timespan.SECONDS)
+    public long dataAge;
+
+    @Label("Upstream Error")
+    public String error;
+
+    public static void record(String data, String city, Instant storedAt, Exception error) {
+        StaleFallbackEvent event = new StaleFallbackEvent();
+        if (event.shouldCommit()) {
+            event.data = data;
+            event.city = city;
+            event.dataAge = storedAt != null ? Duration.between(storedAt, Instant.now()).toSeconds() : 0;
+            event.error = error.getMessage();
+            event.commit();
+        }
+    }
+}
@@ -34,6 +34,10 @@ public class City {
 
     private Integer searchCount = 0;
 
+    private Instant nextRefreshAt;
+
+    private Integer utcOffsetSeconds;
+
     public void incrementSearchCount() {
         this.searchCount = (this.searchCount == null) ? 1 : this.searchCount + 1;
         this.lastSearched = Instant.now();
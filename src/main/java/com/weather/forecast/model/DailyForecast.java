@@ -0,0 +1,52 @@
+package com.weather.forecast.model;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/** One local calendar day of a city's forecast, summarized from its three-hour slots. */
+@Entity
+@Table(name = "daily_forecasts")
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class DailyForecast {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "city_id", nullable = false)
+    private City city;
+
+    @Column(nullable = false)
+    private LocalDate forecastDate;
+
+    @Column(precision = 5, scale = 2)
+    private BigDecimal minTemperature;
+
+    @Column(precision = 5, scale = 2)
+    private BigDecimal maxTemperature;
+
+    @Column(precision = 6, scale = 2)
+    private BigDecimal precipitation;
+
+    @Column(precision = 3, scale = 2)
+    private BigDecimal probability;
+
+    @Enumerated(EnumType.STRING)
+    private WeatherCondition weatherMain;
+
+    private String weatherDescription;
+
+    @Column(nullable = false)
+    private Integer slotCount;
+}
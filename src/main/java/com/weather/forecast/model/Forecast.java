@@ -50,4 +50,7 @@ public class Forecast {
 
     @Column(precision = 3, scale = 2)
     private BigDecimal probability;
+
+    /** Same for every slot stored from one upstream response. */
+    private Instant fetchedAt;
 }
@@ -0,0 +1,29 @@
+package com.weather.forecast.model;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/** Claim by one node on refreshing a city, valid until {@code expiresAt}. */
+@Entity
+@Table(name = "refresh_leases")
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class RefreshLease {
+
+    @Id
+    @EqualsAndHashCode.Include
+    private Long cityId;
+
+    @Column(nullable = false)
+    private String owner;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
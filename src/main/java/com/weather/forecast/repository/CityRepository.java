@@ -2,10 +2,17 @@ package com.weather.forecast.repository;
 
 
 import com.weather.forecast.model.City;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,6 +21,21 @@ public interface CityRepository extends JpaRepository<City, Long> {
 
     Optional<City> findByNameIgnoreCase(String name);
 
+    @Query("SELECT c FROM City c WHERE LOWER(c.name) IN :names")
+    List<City> findByLowerCaseNameIn(@Param("names") Collection<String> names);
+
+    List<City> findByLatitudeIsNotNullAndLongitudeIsNotNull();
+
     @Query("SELECT c FROM City c ORDER BY c.searchCount DESC LIMIT ?1")
     List<City> findTopSearchedCities(int limit);
+
+    /** Holds the city's row lock until the surrounding transaction ends. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM City c WHERE c.id = :cityId")
+    Optional<City> lockById(@Param("cityId") Long cityId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE City c SET c.nextRefreshAt = :nextRefreshAt WHERE c.id = :cityId")
+    void updateNextRefreshAt(@Param("cityId") Long cityId, @Param("nextRefreshAt") Instant nextRefreshAt);
 }
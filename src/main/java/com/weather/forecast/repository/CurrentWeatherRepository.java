@@ -2,12 +2,29 @@ package com.weather.forecast.repository;
 
 import com.weather.forecast.model.CurrentWeather;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CurrentWeatherRepository extends JpaRepository<CurrentWeather, Long> {
 
     Optional<CurrentWeather> findByCityId(Long cityId);
+
+    @Query("SELECT w FROM CurrentWeather w JOIN FETCH w.city c WHERE c.id IN :cityIds")
+    List<CurrentWeather> findByCityIdIn(@Param("cityIds") Collection<Long> cityIds);
+
+    @Query("SELECT w.city.id AS cityId, w.lastUpdated AS lastUpdated FROM CurrentWeather w WHERE w.city.id IN :cityIds")
+    List<DataAge> findDataAgeByCityIds(@Param("cityIds") Collection<Long> cityIds);
+
+    interface DataAge {
+        Long getCityId();
+
+        Instant getLastUpdated();
+    }
 }
@@ -0,0 +1,25 @@
+package com.weather.forecast.repository;
+
+import com.weather.forecast.model.DailyForecast;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyForecastRepository extends JpaRepository<DailyForecast, Long> {
+
+    @Query("SELECT d FROM DailyForecast d WHERE d.city.id = :cityId AND d.forecastDate >= :date ORDER BY d.forecastDate ASC")
+    List<DailyForecast> findByCityIdAndForecastDateGreaterThanEqualOrderByForecastDateAsc(
+            @Param("cityId") Long cityId, @Param("date") LocalDate date);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM DailyForecast d WHERE d.city.id = :cityId")
+    void deleteByCityId(@Param("cityId") Long cityId);
+}
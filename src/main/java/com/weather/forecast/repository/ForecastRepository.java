@@ -9,6 +9,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,6 +19,10 @@ public interface ForecastRepository extends JpaRepository<Forecast, Long> {
     List<Forecast> findByCityIdAndForecastDateGreaterThanOrderByForecastDateAsc(
             @Param("cityId") Long cityId, @Param("date") Instant date);
 
+    @Query("SELECT f FROM Forecast f JOIN FETCH f.city c WHERE c.id IN :cityIds AND f.forecastDate > :date ORDER BY c.id, f.forecastDate ASC")
+    List<Forecast> findByCityIdInAndForecastDateGreaterThan(
+            @Param("cityIds") Collection<Long> cityIds, @Param("date") Instant date);
+
     @Modifying
     @Transactional
     @Query("DELETE FROM Forecast f WHERE f.city.id = :cityId")
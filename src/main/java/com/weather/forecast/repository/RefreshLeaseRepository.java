@@ -0,0 +1,38 @@
+package com.weather.forecast.repository;
+
+import com.weather.forecast.model.RefreshLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface RefreshLeaseRepository extends JpaRepository<RefreshLease, Long> {
+
+    /** Takes over an existing lease if it has expired or already belongs to {@code owner}. */
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshLease l SET l.owner = :owner, l.expiresAt = :expiresAt WHERE l.cityId = :cityId AND (l.expiresAt < :now OR l.owner = :owner)")
+    int claimExisting(@Param("cityId") Long cityId, @Param("owner") String owner,
+                      @Param("expiresAt") Instant expiresAt, @Param("now") Instant now);
+
+    /** Fails with a key violation if another node inserted the lease first. */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO refresh_leases (city_id, owner, expires_at) VALUES (:cityId, :owner, :expiresAt)", nativeQuery = true)
+    int insertLease(@Param("cityId") Long cityId, @Param("owner") String owner, @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshLease l SET l.expiresAt = :expiresAt WHERE l.cityId = :cityId AND l.owner = :owner")
+    int extend(@Param("cityId") Long cityId, @Param("owner") String owner, @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshLease l WHERE l.cityId = :cityId AND l.owner = :owner")
+    int release(@Param("cityId") Long cityId, @Param("owner") String owner);
+}
@@ -0,0 +1,17 @@
+package com.weather.forecast.service;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/** Tells peer nodes which cities' cached weather is out of date. */
+public interface CacheInvalidationBus {
+
+    /** Queues a city cache key for broadcast; keys published in a burst are sent together. */
+    void publish(String cityKey);
+
+    /** Registers a listener for cache keys invalidated by other nodes. */
+    void subscribe(Consumer<Set<String>> listener);
+
+    record Message(String origin, Set<String> cities) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.weather.forecast.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/** Evicts the local weather cache entries for cities another node has just refreshed. */
+@Component
+public class CacheInvalidationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationListener.class);
+    private static final List<String> CITY_CACHES = List.of("currentWeather", "forecast", "dailyForecast");
+
+    private final CacheManager cacheManager;
+
+    public CacheInvalidationListener(CacheInvalidationBus cacheInvalidationBus, CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+        cacheInvalidationBus.subscribe(this::evict);
+    }
+
+    void evict(Set<String> cityKeys) {
+        logger.debug("Evicting {} cities updated by another node", cityKeys.size());
+        for (String cacheName : CITY_CACHES) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cityKeys.forEach(cache::evict);
+            }
+        }
+    }
+}
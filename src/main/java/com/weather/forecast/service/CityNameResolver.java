@@ -0,0 +1,213 @@
+package com.weather.forecast.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.weather.forecast.model.City;
+import com.weather.forecast.repository.CityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Corrects misspelled city names against the cities upstream has confirmed, using a BK-tree so a lookup
+ * only visits names that could be within range. Candidates are found by Levenshtein distance (a metric,
+ * which the tree needs) and then scored with transpositions counted as one edit, so "New Yrok" is one
+ * edit from "New York". A correction is only offered when exactly one city is closest.
+ *
+ * <p>Plenty of real places are one edit from a better-known one (Redding and Reading, Bolton and Boston),
+ * so a name is only corrected once upstream has reported it as not found; those names are remembered for
+ * a while, so later requests for the same typo are corrected without asking upstream again.
+ */
+@Component
+public class CityNameResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(CityNameResolver.class);
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final CityRepository cityRepository;
+    private final Map<String, String> namesByKey = new ConcurrentHashMap<>();
+    private final Cache<String, Boolean> notFoundKeys;
+    private volatile Node root;
+
+    public CityNameResolver(CityRepository cityRepository,
+                            @Value("${weather.suggest.not-found-ttl:P1D}") Duration notFoundTtl) {
+        this.cityRepository = cityRepository;
+        this.notFoundKeys = Caffeine.newBuilder().expireAfterWrite(notFoundTtl).maximumSize(10_000).build();
+    }
+
+    /** Picks up cities confirmed on other nodes. */
+    @Scheduled(fixedDelayString = "${weather.suggest.resync-interval:PT10M}")
+    public void reload() {
+        cityRepository.findByLatitudeIsNotNullAndLongitudeIsNotNull().forEach(this::add);
+        logger.debug("City name resolver holds {} names", namesByKey.size());
+    }
+
+    /** Adds a city once upstream has confirmed it; unconfirmed names (no country yet) are never suggested. */
+    public void add(City city) {
+        if (city.getName() == null || city.getCountry() == null) {
+            return;
+        }
+        String key = normalize(city.getName());
+        notFoundKeys.invalidate(key);
+        if (key.isEmpty() || namesByKey.putIfAbsent(key, city.getName()) != null) {
+            return;
+        }
+        insert(key);
+    }
+
+    /** Records that upstream has no city by this name, which makes it eligible for correction. */
+    public void markNotFound(String cityName) {
+        notFoundKeys.put(normalize(cityName), Boolean.TRUE);
+    }
+
+    /** As {@link #correct}, but only for a name upstream has reported as not found. */
+    public Optional<String> correctNotFound(String cityName) {
+        return notFoundKeys.getIfPresent(normalize(cityName)) != null ? correct(cityName) : Optional.empty();
+    }
+
+    /**
+     * @return the confirmed city name the input most likely meant, or empty if the input is already a confirmed
+     * name, too short to correct safely, or no single city is close enough
+     */
+    public Optional<String> correct(String cityName) {
+        String query = normalize(cityName);
+        int maxEdits = maxEditsFor(query);
+        Node start = root;
+        if (maxEdits == 0 || start == null || namesByKey.containsKey(query)) {
+            return Optional.empty();
+        }
+
+        String best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        boolean tied = false;
+        // A transposition costs 2 under Levenshtein, so search twice as wide and score the candidates properly
+        for (String candidate : within(start, query, 2 * maxEdits)) {
+            int distance = editDistance(query, candidate);
+            if (distance < bestDistance) {
+                best = candidate;
+                bestDistance = distance;
+                tied = false;
+            } else if (distance == bestDistance) {
+                tied = true;
+            }
+        }
+        if (best == null || bestDistance > maxEdits || tied) {
+            return Optional.empty();
+        }
+        return Optional.of(namesByKey.get(best));
+    }
+
+    private synchronized void insert(String key) {
+        if (root == null) {
+            root = new Node(key);
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int distance = levenshtein(key, node.key);
+            if (distance == 0) {
+                return;
+            }
+            Node child = node.children.putIfAbsent(distance, new Node(key));
+            if (child == null) {
+                return;
+            }
+            node = child;
+        }
+    }
+
+    private static List<String> within(Node start, String query, int radius) {
+        List<String> found = new ArrayList<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(start);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int distance = levenshtein(query, node.key);
+            if (distance <= radius) {
+                found.add(node.key);
+            }
+            // Triangle inequality: only subtrees at distance [d - r, d + r] from this node can hold matches
+            for (int edge = Math.max(1, distance - radius); edge <= distance + radius; edge++) {
+                Node child = node.children.get(edge);
+                if (child != null) {
+                    pending.push(child);
+                }
+            }
+        }
+        return found;
+    }
+
+    /** Short names are never corrected; one edit turns most four-letter names into another real place. */
+    private static int maxEditsFor(String name) {
+        if (name.length() <= 4) {
+            return 0;
+        }
+        return name.length() <= 8 ? 1 : 2;
+    }
+
+    static int levenshtein(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    /** Optimal string alignment distance: Levenshtein plus adjacent transpositions. */
+    static int editDistance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private static String normalize(String text) {
+        return COMBINING_MARKS.matcher(Normalizer.normalize(text.trim(), Normalizer.Form.NFD)).replaceAll("").toLowerCase();
+    }
+
+    private static final class Node {
+        private final String key;
+        private final Map<Integer, Node> children = new ConcurrentHashMap<>();
+
+        private Node(String key) {
+            this.key = key;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.weather.forecast.service;
 
 import com.weather.forecast.model.City;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +14,21 @@ public interface CityService {
 
     Optional<City> findByName(String cityName);
 
+    /**
+     * The confirmed city a misspelled name most likely meant. Empty unless upstream has reported the name as not
+     * found, so a real place close to a known one is never rewritten.
+     */
+    Optional<String> findCorrection(String cityName);
+
+    /** Records that upstream has no city by this name. */
+    void markNotFound(String cityName);
+
+    /** Looks up several cities in one query; names must already be lower case. */
+    List<City> findByNames(Collection<String> lowerCaseNames);
+
+    /** Cities whose coordinates have been learned from upstream. */
+    List<City> findLocatedCities();
+
     List<City> getRecentlySearchedCities(int limit);
 
     List<City> getFrequentlySearchedCities(int limit);
@@ -19,4 +36,9 @@ public interface CityService {
     City saveCity(City city);
 
     void incrementSearchCount(City city);
+
+    void scheduleNextRefresh(City city, Instant nextRefreshAt);
+
+    /** Locks the city until the caller's transaction ends, so only one writer at a time replaces its forecast. */
+    void lockForUpdate(City city);
 }
@@ -0,0 +1,166 @@
+package com.weather.forecast.service;
+
+import com.weather.forecast.model.City;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory grid of cities with known coordinates, bucketed into cells of {@code cellDegrees} on each side.
+ * A query only scans the cells overlapping its bounding box, so cost grows with the area asked for rather
+ * than with the number of cities. Longitudes wrap at the antimeridian.
+ */
+@Component
+public class CitySpatialIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CitySpatialIndex.class);
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private final CityService cityService;
+    private final double cellDegrees;
+    private final int rows;
+    private final int columns;
+
+    private final Map<Long, IndexedCity> citiesById = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<IndexedCity>> cells = new ConcurrentHashMap<>();
+
+    public CitySpatialIndex(CityService cityService, @Value("${weather.geo.cell-degrees:1.0}") double cellDegrees) {
+        this.cityService = cityService;
+        this.cellDegrees = cellDegrees;
+        this.rows = (int) Math.ceil(180 / cellDegrees);
+        this.columns = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    /** Loads every located city at startup and periodically after, picking up coordinates learned by other nodes. */
+    @Scheduled(fixedDelayString = "${weather.geo.resync-interval:PT10M}")
+    public void reload() {
+        List<City> cities = cityService.findLocatedCities();
+        cities.forEach(this::update);
+        logger.debug("Spatial index holds {} cities", citiesById.size());
+    }
+
+    /** Adds the city, or moves it if its coordinates changed; cities without coordinates are ignored. */
+    public synchronized void update(City city) {
+        if (city.getId() == null || city.getLatitude() == null || city.getLongitude() == null) {
+            return;
+        }
+        IndexedCity entry = new IndexedCity(city.getId(), city.getName(), city.getLatitude(), normalizeLongitude(city.getLongitude()));
+        IndexedCity previous = citiesById.put(entry.id(), entry);
+        if (entry.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            cells.computeIfPresent(cellOf(previous.latitude(), previous.longitude()), (cell, members) -> {
+                members.remove(previous);
+                return members.isEmpty() ? null : members;
+            });
+        }
+        cells.computeIfAbsent(cellOf(entry.latitude(), entry.longitude()), cell -> ConcurrentHashMap.newKeySet()).add(entry);
+    }
+
+    /** Cities within {@code radiusKm} of the point (great-circle distance), nearest first. */
+    public List<Match> nearby(double latitude, double longitude, double radiusKm, int limit) {
+        double latSpan = radiusKm / KM_PER_DEGREE;
+        double minLat = Math.max(-90, latitude - latSpan);
+        double maxLat = Math.min(90, latitude + latSpan);
+        // Degrees of longitude shrink towards the poles, so size the box for the most poleward latitude it reaches
+        double cosLat = Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        double lonSpan = cosLat < 1e-9 ? 180 : Math.min(180, latSpan / cosLat);
+        double lon = normalizeLongitude(longitude);
+
+        List<Match> matches = new ArrayList<>();
+        for (IndexedCity city : scan(minLat, maxLat, lon - lonSpan, lon + lonSpan)) {
+            double distance = distanceKm(latitude, lon, city.latitude(), city.longitude());
+            if (distance <= radiusKm) {
+                matches.add(new Match(city, distance));
+            }
+        }
+        matches.sort(Comparator.comparingDouble(Match::distanceKm));
+        return matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    /** Cities inside the box; {@code minLon > maxLon} means the box crosses the antimeridian. */
+    public List<IndexedCity> within(double minLat, double minLon, double maxLat, double maxLon, int limit) {
+        double west = normalizeLongitude(minLon);
+        double east = normalizeLongitude(maxLon);
+        double eastUnwrapped = east < west ? east + 360 : east;
+
+        List<IndexedCity> matches = new ArrayList<>();
+        for (IndexedCity city : scan(minLat, maxLat, west, eastUnwrapped)) {
+            boolean inLongitude = west <= east
+                    ? city.longitude() >= west && city.longitude() <= east
+                    : city.longitude() >= west || city.longitude() <= east;
+            if (city.latitude() >= minLat && city.latitude() <= maxLat && inLongitude) {
+                matches.add(city);
+                if (matches.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    public int size() {
+        return citiesById.size();
+    }
+
+    /** Every city in the cells overlapping the box; {@code east} may exceed 180 when the box wraps. */
+    private List<IndexedCity> scan(double minLat, double maxLat, double west, double east) {
+        int firstRow = row(minLat);
+        int lastRow = row(maxLat);
+        int firstColumn = (int) Math.floor((west + 180) / cellDegrees);
+        int columnCount = Math.min(columns, (int) Math.floor((east + 180) / cellDegrees) - firstColumn + 1);
+
+        List<IndexedCity> found = new ArrayList<>();
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int i = 0; i < columnCount; i++) {
+                int column = Math.floorMod(firstColumn + i, columns);
+                Set<IndexedCity> members = cells.get(row * columns + column);
+                if (members != null) {
+                    found.addAll(members);
+                }
+            }
+        }
+        return found;
+    }
+
+    private int cellOf(double latitude, double longitude) {
+        return row(latitude) * columns + Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), columns);
+    }
+
+    private int row(double latitude) {
+        return Math.min(rows - 1, Math.max(0, (int) Math.floor((latitude + 90) / cellDegrees)));
+    }
+
+    private static double normalizeLongitude(double longitude) {
+        if (longitude >= -180 && longitude <= 180) {
+            return longitude;
+        }
+        double normalized = ((longitude + 180) % 360 + 360) % 360 - 180;
+        return normalized == -180 && longitude > 0 ? 180 : normalized;
+    }
+
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    public record IndexedCity(Long id, String name, double latitude, double longitude) {
+    }
+
+    public record Match(IndexedCity city, double distanceKm) {
+    }
+}
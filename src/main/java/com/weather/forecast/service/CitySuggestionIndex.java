@@ -0,0 +1,158 @@
+package com.weather.forecast.service;
+
+import com.weather.forecast.dto.CitySuggestion;
+import com.weather.forecast.model.City;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Prefix trie over confirmed city names. Each node keeps its own top {@code maxResults} cities by popularity,
+ * so a lookup is one walk down the prefix with no scan of the subtree. Keys are lower-cased with accents
+ * stripped, so "sao" finds São Paulo. Writes are serialized; reads are lock-free over copy-on-write lists.
+ */
+@Component
+public class CitySuggestionIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CitySuggestionIndex.class);
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Comparator<Entry> BY_POPULARITY = Comparator.comparingInt(Entry::searchCount).reversed()
+            .thenComparing(Comparator.comparingLong(Entry::population).reversed())
+            .thenComparing(Entry::name);
+
+    private final CityService cityService;
+    private final Resource gazetteer;
+    private final int maxResults;
+
+    private final Node root = new Node();
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public CitySuggestionIndex(CityService cityService,
+                               @Value("${weather.suggest.gazetteer:}") Resource gazetteer,
+                               @Value("${weather.suggest.max-results:20}") int maxResults) {
+        this.cityService = cityService;
+        this.gazetteer = gazetteer;
+        this.maxResults = maxResults;
+        loadGazetteer();
+    }
+
+    /** Picks up cities confirmed on other nodes and the latest search counts. */
+    @Scheduled(fixedDelayString = "${weather.suggest.resync-interval:PT10M}")
+    public void reload() {
+        cityService.findLocatedCities().forEach(this::update);
+        logger.debug("Suggestion index holds {} cities", entries.size());
+    }
+
+    /** Adds a city confirmed by upstream, or raises its rank; cities upstream has never resolved are skipped. */
+    public void update(City city) {
+        if (city.getName() == null || city.getCountry() == null) {
+            return;
+        }
+        int searchCount = city.getSearchCount() != null ? city.getSearchCount() : 0;
+        add(city.getName(), city.getCountry(), searchCount, 0);
+    }
+
+    public List<CitySuggestion> suggest(String prefix, int limit) {
+        Node node = root;
+        for (char c : normalize(prefix).toCharArray()) {
+            node = node.children.get(c);
+            if (node == null) {
+                return List.of();
+            }
+        }
+        Entry[] top = node.top;
+        List<CitySuggestion> suggestions = new ArrayList<>(Math.min(limit, top.length));
+        for (int i = 0; i < top.length && i < limit; i++) {
+            suggestions.add(new CitySuggestion(top[i].name(), top[i].country()));
+        }
+        return suggestions;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private synchronized void add(String name, String country, int searchCount, long population) {
+        String key = normalize(name);
+        if (key.isEmpty()) {
+            return;
+        }
+        Entry previous = entries.get(key);
+        // Popularity only grows; a gazetteer population survives the city being confirmed from the database
+        Entry entry = previous == null ? new Entry(key, name, country, searchCount, population)
+                : new Entry(key, name, country, Math.max(previous.searchCount(), searchCount), Math.max(previous.population(), population));
+        if (entry.equals(previous)) {
+            return;
+        }
+        entries.put(key, entry);
+
+        Node node = root;
+        node.offer(entry, maxResults);
+        for (char c : key.toCharArray()) {
+            node = node.children.computeIfAbsent(c, ch -> new Node());
+            node.offer(entry, maxResults);
+        }
+    }
+
+    /** Reads {@code name,country,population} lines; blank lines and lines starting with # are skipped. */
+    private void loadGazetteer() {
+        if (gazetteer == null || !gazetteer.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(gazetteer.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (line.isBlank() || line.startsWith("#") || fields.length < 3) {
+                    continue;
+                }
+                add(fields[0].trim(), fields[1].trim(), 0, Long.parseLong(fields[2].trim()));
+            }
+            logger.info("Loaded {} gazetteer cities for suggestions", entries.size());
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("Could not load city gazetteer {}: {}", gazetteer, e.getMessage());
+        }
+    }
+
+    static String normalize(String text) {
+        return COMBINING_MARKS.matcher(Normalizer.normalize(text.trim(), Normalizer.Form.NFD)).replaceAll("").toLowerCase();
+    }
+
+    private record Entry(String key, String name, String country, int searchCount, long population) {
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new ConcurrentHashMap<>();
+        private volatile Entry[] top = new Entry[0];
+
+        /** Called with the index lock held; readers see either the old or the new array. */
+        void offer(Entry entry, int maxResults) {
+            List<Entry> updated = new ArrayList<>(top.length + 1);
+            for (Entry existing : top) {
+                if (!existing.key().equals(entry.key())) {
+                    updated.add(existing);
+                }
+            }
+            updated.add(entry);
+            updated.sort(BY_POPULARITY);
+            Entry[] next = updated.toArray(Entry[]::new);
+            top = next.length > maxResults ? Arrays.copyOf(next, maxResults) : next;
+        }
+    }
+}
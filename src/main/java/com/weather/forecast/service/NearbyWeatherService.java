@@ -0,0 +1,15 @@
+package com.weather.forecast.service;
+
+import com.weather.forecast.dto.LocatedWeather;
+
+import java.util.List;
+
+/** Serves already-known weather for cities found through the spatial index; never calls upstream. */
+public interface NearbyWeatherService {
+
+    /** Cities within {@code radiusKm} of the point that have stored weather, nearest first. */
+    List<LocatedWeather> findNearby(double latitude, double longitude, double radiusKm, int limit);
+
+    /** Cities inside the bounding box that have stored weather. */
+    List<LocatedWeather> findWithin(double minLat, double minLon, double maxLat, double maxLon, int limit);
+}
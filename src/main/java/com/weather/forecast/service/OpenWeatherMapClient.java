@@ -3,12 +3,17 @@ package com.weather.forecast.service;
 
 import com.weather.forecast.dto.OpenWeatherMapForecastResponse;
 import com.weather.forecast.dto.OpenWeatherMapResponse;
+import com.weather.forecast.exception.CityNotFoundException;
 import com.weather.forecast.exception.WeatherApiException;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -22,12 +27,15 @@ public class OpenWeatherMapClient {
     private final String apiUrl;
     private final String apiKey;
     private final String units;
+    private final ObservationRegistry observationRegistry;
 
-    public OpenWeatherMapClient(RestTemplate restTemplate, @Value("${openweathermap.api.url}") String apiUrl, @Value("${openweathermap.api.key}") String apiKey, @Value("${openweathermap.api.units}") String units) {
+    public OpenWeatherMapClient(RestTemplate restTemplate, @Value("${openweathermap.api.url}") String apiUrl, @Value("${openweathermap.api.key}") String apiKey, @Value("${openweathermap.api.units}") String units,
+                                ObservationRegistry observationRegistry) {
         this.restTemplate = restTemplate;
         this.apiUrl = apiUrl;
         this.apiKey = apiKey;
         this.units = units;
+        this.observationRegistry = observationRegistry;
     }
 
     public OpenWeatherMapResponse getCurrentWeather(String city) {
@@ -41,12 +49,7 @@ public class OpenWeatherMapClient {
 
         logger.debug("Fetching current weather for {} from: {}", city, url.replace(apiKey, "API_KEY"));
 
-        try {
-            return restTemplate.getForObject(url, OpenWeatherMapResponse.class);
-        } catch (RestClientException e) {
-            logger.error("Error fetching current weather for {}: {}", city, e.getMessage());
-            throw new WeatherApiException("Failed to fetch current weather for " + city, e);
-        }
+        return fetch(url, "weather", "current weather", city, OpenWeatherMapResponse.class);
     }
 
     public OpenWeatherMapForecastResponse getForecast(String city) {
@@ -60,11 +63,32 @@ public class OpenWeatherMapClient {
 
         logger.debug("Fetching forecast for {} from: {}", city, url.replace(apiKey, "API_KEY"));
 
-        try {
-            return restTemplate.getForObject(url, OpenWeatherMapForecastResponse.class);
+        return fetch(url, "forecast", "forecast", city, OpenWeatherMapForecastResponse.class);
+    }
+
+    /** One upstream call, observed as {@code weather.owm} with the endpoint and the outcome (HTTP status when known). */
+    private <T> T fetch(String url, String endpoint, String what, String city, Class<T> type) {
+        Observation observation = Observation.createNotStarted("weather.owm", observationRegistry)
+                .contextualName("owm " + endpoint)
+                .lowCardinalityKeyValue("endpoint", endpoint)
+                .highCardinalityKeyValue("city", city)
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            T response = restTemplate.getForObject(url, type);
+            observation.lowCardinalityKeyValue("outcome", "SUCCESS");
+            return response;
         } catch (RestClientException e) {
-            logger.error("Error fetching forecast for {}: {}", city, e.getMessage());
-            throw new WeatherApiException("Failed to fetch forecast for " + city, e);
+            observation.lowCardinalityKeyValue("outcome", e instanceof RestClientResponseException responseException
+                    ? String.valueOf(responseException.getStatusCode().value()) : "IO_ERROR");
+            observation.error(e);
+            logger.error("Error fetching {} for {}: {}", what, city, e.getMessage());
+            if (e instanceof HttpClientErrorException.NotFound) {
+                // Upstream answered: there is no such city, which no stale data or retry will change
+                throw new CityNotFoundException("City not found: " + city, e);
+            }
+            throw new WeatherApiException("Failed to fetch " + what + " for " + city, e);
+        } finally {
+            observation.stop();
         }
     }
 }
@@ -0,0 +1,64 @@
+package com.weather.forecast.service;
+
+import com.weather.forecast.config.NodeIdentity;
+import com.weather.forecast.model.City;
+import com.weather.forecast.repository.RefreshLeaseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Splits scheduled refreshes across nodes through the {@code refresh_leases} table.
+ *
+ * <p>A node claims a due city with a short processing lease. Once refreshed, the lease is held until the
+ * city's next due time, so no other node refreshes it again in the same cycle; a city that failed is released
+ * for any node to retry. If the node dies mid-refresh, the processing lease expires and another node picks the
+ * city up. Nodes compare their own clocks against {@code expires_at}, so they are expected to be
+ * NTP-synchronised.
+ */
+@Component
+public class RefreshLeaseManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshLeaseManager.class);
+
+    private final RefreshLeaseRepository leaseRepository;
+    private final String nodeId;
+    private final Duration processingLease;
+
+    public RefreshLeaseManager(RefreshLeaseRepository leaseRepository, NodeIdentity nodeIdentity,
+                               @Value("${weather.refresh.processing-lease:PT5M}") Duration processingLease) {
+        this.leaseRepository = leaseRepository;
+        this.nodeId = nodeIdentity.getId();
+        this.processingLease = processingLease;
+    }
+
+    /** @return true if this node now holds the city's lease for the processing period */
+    public boolean tryClaim(City city) {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(processingLease);
+        if (leaseRepository.claimExisting(city.getId(), nodeId, expiresAt, now) > 0) {
+            return true;
+        }
+        try {
+            return leaseRepository.insertLease(city.getId(), nodeId, expiresAt) > 0;
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Refresh of {} is leased by another node", city.getName());
+            return false;
+        }
+    }
+
+    /** Keeps the city leased to this node until its next due time so peers skip it this cycle. */
+    public void holdUntil(City city, Instant nextDue) {
+        leaseRepository.extend(city.getId(), nodeId, nextDue);
+    }
+
+    /** Gives up this node's lease on a city it did not refresh, so any node may claim it again. */
+    public void release(City city) {
+        leaseRepository.release(city.getId(), nodeId);
+    }
+}
@@ -0,0 +1,117 @@
+package com.weather.forecast.service;
+
+import com.weather.forecast.model.City;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Priority queue of cities keyed by the time they are next due for a refresh.
+ *
+ * <p>Refresh frequency is proportional to the square root of a city's search count, which minimises
+ * request-weighted staleness for a fixed quota: with {@code Q} refreshes per hour shared by cities of
+ * popularity {@code p_i}, city {@code i} is refreshed every {@code sum(sqrt(p)) / (Q * sqrt(p_i))} hours,
+ * clamped to {@code [minInterval, maxStaleness]}. Due times carry random jitter so refreshes spread out.
+ */
+public class RefreshSchedule {
+
+    private final double quotaPerHour;
+    private final Duration minInterval;
+    private final Duration maxStaleness;
+    private final double jitter;
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(Comparator.comparing(Entry::due));
+    private final Set<Long> inFlight = new HashSet<>();
+    private double popularityWeight;
+
+    public RefreshSchedule(double quotaPerHour, Duration minInterval, Duration maxStaleness, double jitter) {
+        this.quotaPerHour = quotaPerHour;
+        this.minInterval = minInterval;
+        this.maxStaleness = maxStaleness;
+        this.jitter = jitter;
+    }
+
+    /**
+     * Replaces the tracked cities. A city's due time is its persisted {@code nextRefreshAt}, or for a city
+     * never scheduled, one interval after its data was stored; either way no later than the staleness deadline.
+     * Cities with no data at all are spread over the first interval rather than refreshed in one burst.
+     */
+    public synchronized void reload(List<City> cities, Map<Long, Instant> lastUpdated, Instant now) {
+        popularityWeight = cities.stream().mapToDouble(RefreshSchedule::weight).sum();
+        queue.clear();
+        for (City city : cities) {
+            if (inFlight.contains(city.getId())) {
+                continue;
+            }
+            Instant dataTime = lastUpdated.get(city.getId());
+            Instant due;
+            if (dataTime == null) {
+                due = now.plusMillis(ThreadLocalRandom.current().nextLong(intervalFor(city).toMillis() + 1));
+            } else {
+                Instant deadline = dataTime.plus(maxStaleness);
+                due = city.getNextRefreshAt() != null ? city.getNextRefreshAt() : dataTime.plus(intervalFor(city));
+                due = due.isAfter(deadline) ? deadline : due;
+            }
+            queue.add(new Entry(city, due));
+        }
+    }
+
+    /** Removes and returns up to {@code max} cities due at or before {@code now}, most overdue first. */
+    public synchronized List<City> pollDue(Instant now, int max) {
+        List<City> due = new ArrayList<>();
+        while (due.size() < max && !queue.isEmpty() && !queue.peek().due().isAfter(now)) {
+            City city = queue.poll().city();
+            inFlight.add(city.getId());
+            due.add(city);
+        }
+        return due;
+    }
+
+    /** Puts a polled city back in the queue one jittered interval from {@code now} and returns its due time. */
+    public synchronized Instant reschedule(City city, Instant now) {
+        inFlight.remove(city.getId());
+        long intervalMillis = intervalFor(city).toMillis();
+        long jitterMillis = (long) (intervalMillis * jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1));
+        Instant due = now.plusMillis(intervalMillis + jitterMillis);
+        queue.add(new Entry(city, due));
+        return due;
+    }
+
+    /** Puts a polled city whose refresh did not complete back in the queue, due at {@code due}. */
+    public synchronized void retryAt(City city, Instant due) {
+        inFlight.remove(city.getId());
+        queue.add(new Entry(city, due));
+    }
+
+    public synchronized Duration intervalFor(City city) {
+        if (popularityWeight <= 0 || quotaPerHour <= 0) {
+            return maxStaleness;
+        }
+        double hours = popularityWeight / (quotaPerHour * weight(city));
+        Duration interval = Duration.ofMillis((long) (hours * Duration.ofHours(1).toMillis()));
+        if (interval.compareTo(minInterval) < 0) {
+            return minInterval;
+        }
+        return interval.compareTo(maxStaleness) > 0 ? maxStaleness : interval;
+    }
+
+    public synchronized int size() {
+        return queue.size();
+    }
+
+    private static double weight(City city) {
+        int searches = city.getSearchCount() == null ? 0 : city.getSearchCount();
+        return Math.sqrt(Math.max(searches, 1));
+    }
+
+    private record Entry(City city, Instant due) {
+    }
+}
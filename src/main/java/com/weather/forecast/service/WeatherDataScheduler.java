@@ -4,39 +4,103 @@ package com.weather.forecast.service;
 import com.weather.forecast.model.City;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
+/**
+ * Keeps the most searched cities warm within an hourly refresh quota.
+ * Due cities are taken from a {@link RefreshSchedule} every tick, at a steady rate rather than in hourly bursts,
+ * and each is refreshed only by the node that wins its {@link RefreshLeaseManager lease}.
+ */
 @Component
+@ConditionalOnProperty(name = "weather.refresh.enabled", havingValue = "true", matchIfMissing = true)
 public class WeatherDataScheduler {
 
     private static final Logger logger = LoggerFactory.getLogger(WeatherDataScheduler.class);
 
     private final CityService cityService;
     private final WeatherService weatherService;
+    private final WeatherRefreshEngine refreshEngine;
+    private final RefreshLeaseManager leaseManager;
+    private final RefreshSchedule schedule;
+    private final Duration minInterval;
+    private final int trackedCities;
+    private final double refreshesPerTick;
+    private double tokens;
 
-    public WeatherDataScheduler(CityService cityService, WeatherService weatherService) {
+    public WeatherDataScheduler(CityService cityService, WeatherService weatherService, WeatherRefreshEngine refreshEngine, RefreshLeaseManager leaseManager,
+                                @Value("${weather.refresh.cities:10}") int trackedCities,
+                                @Value("${weather.refresh.quota-per-hour:10}") double quotaPerHour,
+                                @Value("${weather.refresh.min-interval:PT15M}") Duration minInterval,
+                                @Value("${weather.refresh.max-staleness:PT3H}") Duration maxStaleness,
+                                @Value("${weather.refresh.jitter:0.1}") double jitter,
+                                @Value("${weather.refresh.tick:PT10S}") Duration tick) {
         this.cityService = cityService;
         this.weatherService = weatherService;
+        this.refreshEngine = refreshEngine;
+        this.leaseManager = leaseManager;
+        this.trackedCities = trackedCities;
+        this.schedule = new RefreshSchedule(quotaPerHour, minInterval, maxStaleness, jitter);
+        this.minInterval = minInterval;
+        this.refreshesPerTick = quotaPerHour * tick.toMillis() / Duration.ofHours(1).toMillis();
     }
 
-    @Scheduled(fixedRate = 3600000) // Every hour
-    public void refreshWeatherData() {
-        logger.info("Starting scheduled weather data refresh");
+    /** Reloads the tracked cities so new and newly popular cities join the schedule. */
+    @Scheduled(fixedDelayString = "${weather.refresh.resync-interval:PT5M}")
+    public void resyncCities() {
+        List<City> cities = cityService.getFrequentlySearchedCities(trackedCities);
+        schedule.reload(cities, weatherService.getLastUpdated(cities), Instant.now());
+        logger.info("Tracking {} cities for scheduled refresh", schedule.size());
+    }
 
-        List<City> frequentlySearchedCities = cityService.getFrequentlySearchedCities(10);
+    @Scheduled(fixedDelayString = "${weather.refresh.tick:PT10S}", initialDelayString = "${weather.refresh.tick:PT10S}")
+    public void refreshDueCities() {
+        // Token bucket: unused quota carries over for at most one extra tick
+        tokens = Math.min(tokens + refreshesPerTick, Math.max(1, 2 * refreshesPerTick));
+        List<City> dueCities = schedule.pollDue(Instant.now(), (int) tokens);
+        if (dueCities.isEmpty()) {
+            return;
+        }
 
-        logger.info("Refreshing weather data for {} cities", frequentlySearchedCities.size());
+        List<City> claimedCities = new ArrayList<>();
+        for (City city : dueCities) {
+            if (leaseManager.tryClaim(city)) {
+                claimedCities.add(city);
+            } else {
+                // Another node owns this cycle; it persists the next due time we pick up on resync
+                schedule.reschedule(city, Instant.now());
+            }
+        }
+        if (claimedCities.isEmpty()) {
+            return;
+        }
+        tokens -= claimedCities.size();
 
-        for (City city : frequentlySearchedCities) {
-            try {
-                weatherService.refreshWeatherData(city);
-            } catch (Exception e) {
-                logger.error("Error refreshing weather data for {}: {}", city.getName(), e.getMessage());
+        logger.info("Refreshing weather data for {} due cities", claimedCities.size());
+        Set<Long> refreshed = Set.of();
+        try {
+            refreshed = refreshEngine.refresh(claimedCities).refreshedCityIds();
+        } finally {
+            Instant now = Instant.now();
+            for (City city : claimedCities) {
+                if (refreshed.contains(city.getId())) {
+                    Instant nextDue = schedule.reschedule(city, now);
+                    cityService.scheduleNextRefresh(city, nextDue);
+                    leaseManager.holdUntil(city, nextDue);
+                } else {
+                    // Failed or cut off by the deadline: a peer may take it now, this node retries later
+                    schedule.retryAt(city, now.plus(minInterval));
+                    leaseManager.release(city);
+                }
             }
         }
-        logger.info("Completed scheduled weather data refresh");
     }
 }
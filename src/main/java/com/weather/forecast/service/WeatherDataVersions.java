@@ -0,0 +1,73 @@
+package com.weather.forecast.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.weather.forecast.util.WeatherMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * When the weather cached for each city was stored, recorded by {@link WeatherService} as it produces responses.
+ * Lets the API answer conditional requests without loading the response. Entries live only as long as the data is
+ * fresh and are dropped when another node replaces the city's data, so a version here always describes what the
+ * cache would serve.
+ */
+@Component
+public class WeatherDataVersions {
+
+    public enum Kind {
+        CURRENT("cw"),
+        FORECAST("fc");
+
+        private final String prefix;
+
+        Kind(String prefix) {
+            this.prefix = prefix;
+        }
+    }
+
+    private final Cache<String, DataVersion> versions;
+
+    public WeatherDataVersions(CacheInvalidationBus cacheInvalidationBus,
+                               @Value("${weather.data-versions.max-entries:10000}") long maxEntries) {
+        this.versions = Caffeine.newBuilder().expireAfterWrite(WeatherMapper.FRESHNESS).maximumSize(maxEntries).build();
+        cacheInvalidationBus.subscribe(this::forget);
+    }
+
+    /** @param storedAt when the data was stored; a null time (rows from before versions existed) records nothing */
+    public void record(Kind kind, String cityKey, Instant storedAt) {
+        if (storedAt == null) {
+            versions.invalidate(key(kind, cityKey));
+            return;
+        }
+        // HTTP dates have one-second resolution; keep the version comparable with If-Modified-Since
+        Instant lastModified = storedAt.truncatedTo(ChronoUnit.SECONDS);
+        String etag = kind.prefix + "-" + Long.toString(storedAt.toEpochMilli(), 36);
+        versions.put(key(kind, cityKey), new DataVersion(etag, lastModified, storedAt.plus(WeatherMapper.FRESHNESS)));
+    }
+
+    public Optional<DataVersion> find(Kind kind, String cityKey) {
+        return Optional.ofNullable(versions.getIfPresent(key(kind, cityKey)));
+    }
+
+    void forget(Set<String> cityKeys) {
+        for (String cityKey : cityKeys) {
+            for (Kind kind : Kind.values()) {
+                versions.invalidate(key(kind, cityKey));
+            }
+        }
+    }
+
+    private static String key(Kind kind, String cityKey) {
+        return kind.prefix + ":" + cityKey.toLowerCase();
+    }
+
+    /** @param etag unquoted strong entity tag */
+    public record DataVersion(String etag, Instant lastModified, Instant freshUntil) {
+    }
+}
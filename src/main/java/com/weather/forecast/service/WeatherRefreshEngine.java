@@ -0,0 +1,205 @@
+package com.weather.forecast.service;
+
+import com.weather.forecast.model.City;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Refreshes a batch of cities with bounded parallelism on one long-lived pool. A city that fails is retried
+ * after an exponential backoff (up to {@code maxAttempts}), and nothing new is started once the cycle deadline
+ * passes.
+ */
+@Component
+public class WeatherRefreshEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeatherRefreshEngine.class);
+
+    private final WeatherService weatherService;
+    private final int maxAttempts;
+    private final Duration cycleDeadline;
+    private final Duration retryBackoff;
+    private final ScheduledExecutorService executor;
+
+    private final AtomicInteger pendingCities = new AtomicInteger();
+    private final Counter succeededCounter;
+    private final Counter failedCounter;
+    private final Counter skippedCounter;
+    private final Counter retriedCounter;
+    private final Timer cityTimer;
+    private final Timer cycleTimer;
+
+    public WeatherRefreshEngine(WeatherService weatherService, MeterRegistry meterRegistry,
+                                @Value("${weather.refresh.parallelism:8}") int parallelism,
+                                @Value("${weather.refresh.max-attempts:3}") int maxAttempts,
+                                @Value("${weather.refresh.cycle-deadline:50m}") Duration cycleDeadline,
+                                @Value("${weather.refresh.retry-backoff:PT5S}") Duration retryBackoff,
+                                @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.weatherService = weatherService;
+        this.maxAttempts = maxAttempts;
+        this.cycleDeadline = cycleDeadline;
+        this.retryBackoff = retryBackoff;
+        this.executor = Executors.newScheduledThreadPool(parallelism, threadFactory(virtualThreads));
+
+        Gauge.builder("weather.refresh.pending", pendingCities, AtomicInteger::get)
+                .description("Cities not yet finished in the running refresh cycle")
+                .register(meterRegistry);
+        this.succeededCounter = outcomeCounter(meterRegistry, "succeeded");
+        this.failedCounter = outcomeCounter(meterRegistry, "failed");
+        this.skippedCounter = outcomeCounter(meterRegistry, "skipped");
+        this.retriedCounter = outcomeCounter(meterRegistry, "retried");
+        this.cityTimer = Timer.builder("weather.refresh.city").register(meterRegistry);
+        this.cycleTimer = Timer.builder("weather.refresh.cycle").register(meterRegistry);
+    }
+
+    /** Refreshes the given cities, returning once all are done or the cycle deadline has passed. */
+    public RefreshReport refresh(List<City> cities) {
+        Instant started = Instant.now();
+        Instant deadline = started.plus(cycleDeadline);
+        CycleState cycle = new CycleState(cities.size(), deadline);
+        pendingCities.set(cities.size());
+
+        try {
+            cities.forEach(city -> submit(cycle, city, 1, Duration.ZERO));
+            long remainingMillis = Duration.between(Instant.now(), deadline).toMillis();
+            if (!cycle.done.await(Math.max(remainingMillis, 0), TimeUnit.MILLISECONDS)) {
+                logger.warn("Refresh cycle deadline of {} reached with {} cities unfinished", cycleDeadline, cycle.done.getCount());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            cycle.close();
+            pendingCities.set(0);
+        }
+
+        Duration elapsed = Duration.between(started, Instant.now());
+        cycleTimer.record(elapsed);
+        RefreshReport report = new RefreshReport(cities.size(), cycle.succeeded.get(), cycle.failed.get(),
+                cities.size() - cycle.succeeded.get() - cycle.failed.get(), cycle.retried.get(), elapsed, Set.copyOf(cycle.refreshed));
+        logger.info("Refresh cycle finished: {}", report);
+        return report;
+    }
+
+    private void submit(CycleState cycle, City city, int attempt, Duration delay) {
+        try {
+            cycle.tasks.add(executor.schedule(() -> refreshCity(cycle, city, attempt), delay.toMillis(), TimeUnit.MILLISECONDS));
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the city is reported as unfinished
+        }
+    }
+
+    private void refreshCity(CycleState cycle, City city, int attempt) {
+        if (cycle.closed) {
+            return;
+        }
+        if (Instant.now().isAfter(cycle.deadline)) {
+            skippedCounter.increment();
+            finish(cycle);
+            return;
+        }
+
+        boolean refreshed;
+        Timer.Sample sample = Timer.start();
+        try {
+            refreshed = weatherService.refreshWeatherData(city);
+        } catch (Exception e) {
+            logger.error("Error refreshing weather data for {}: {}", city.getName(), e.getMessage());
+            refreshed = false;
+        } finally {
+            sample.stop(cityTimer);
+        }
+
+        if (refreshed) {
+            cycle.refreshed.add(city.getId());
+            cycle.succeeded.incrementAndGet();
+            succeededCounter.increment();
+            finish(cycle);
+        } else if (attempt < maxAttempts) {
+            // Later rather than straight away, so a struggling upstream gets room to recover; the thread meanwhile
+            // moves on to other cities
+            Duration backoff = retryBackoff.multipliedBy(1L << (attempt - 1));
+            if (Instant.now().plus(backoff).isAfter(cycle.deadline)) {
+                skippedCounter.increment();
+                finish(cycle);
+                return;
+            }
+            cycle.retried.incrementAndGet();
+            retriedCounter.increment();
+            submit(cycle, city, attempt + 1, backoff);
+        } else {
+            cycle.failed.incrementAndGet();
+            failedCounter.increment();
+            finish(cycle);
+        }
+    }
+
+    private void finish(CycleState cycle) {
+        cycle.done.countDown();
+        pendingCities.decrementAndGet();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ThreadFactory threadFactory(boolean virtualThreads) {
+        return virtualThreads
+                ? Thread.ofVirtual().name("refresh-", 0).factory()
+                : Thread.ofPlatform().name("refresh-", 0).daemon().factory();
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("weather.refresh.cities")
+                .description("City refresh attempts by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static final class CycleState {
+        private final CountDownLatch done;
+        private final Instant deadline;
+        private final AtomicInteger succeeded = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger retried = new AtomicInteger();
+        private final Set<Future<?>> tasks = ConcurrentHashMap.newKeySet();
+        private final Set<Long> refreshed = ConcurrentHashMap.newKeySet();
+        private volatile boolean closed;
+
+        private CycleState(int cities, Instant deadline) {
+            this.done = new CountDownLatch(cities);
+            this.deadline = deadline;
+        }
+
+        /** Stops the cycle's queued retries and interrupts refreshes still running past the deadline. */
+        private void close() {
+            closed = true;
+            tasks.forEach(task -> task.cancel(true));
+        }
+    }
+
+    /** @param refreshedCityIds the cities refreshed successfully; the others failed or were cut off by the deadline */
+    public record RefreshReport(int cities, int succeeded, int failed, int unfinished, int retries, Duration elapsed,
+                                Set<Long> refreshedCityIds) {
+    }
+}
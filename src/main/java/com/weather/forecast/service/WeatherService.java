@@ -1,9 +1,16 @@
 package com.weather.forecast.service;
 
+import com.weather.forecast.dto.BatchResponse;
+import com.weather.forecast.dto.DailyForecastResponse;
 import com.weather.forecast.dto.ForecastResponse;
 import com.weather.forecast.dto.WeatherResponse;
 import com.weather.forecast.model.City;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 /** Retrieves and caches weather data from external API. */
 public interface WeatherService {
 
@@ -11,5 +18,21 @@ public interface WeatherService {
 
     ForecastResponse getForecast(String cityName);
 
-    void refreshWeatherData(City city);
+    /** The forecast summarized per local day (min/max temperature, precipitation, dominant conditions). */
+    DailyForecastResponse getDailyForecast(String cityName);
+
+    /** Current weather for many cities: cache first, then one DB query for the rest, then upstream in parallel. */
+    BatchResponse<WeatherResponse> getCurrentWeatherBatch(List<String> cityNames);
+
+    /** Forecasts for many cities, loaded the same way as {@link #getCurrentWeatherBatch(List)}. */
+    BatchResponse<ForecastResponse> getForecastBatch(List<String> cityNames);
+
+    /** Latest stored current weather keyed by lower-cased city name, read from the database only. */
+    Map<String, WeatherResponse> getStoredCurrentWeather(Collection<String> cityNames);
+
+    /** @return false if the upstream API failed and the stored data was left unchanged */
+    boolean refreshWeatherData(City city);
+
+    /** @return when each city's current weather was last stored, keyed by city id; cities never fetched are absent */
+    Map<Long, Instant> getLastUpdated(List<City> cities);
 }
\ No newline at end of file
@@ -0,0 +1,400 @@
+package com.weather.forecast.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weather.forecast.dto.WeatherResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes current weather to SSE subscribers. Publishing only records the newest update per city on each
+ * subscriber and schedules a send, so a slow client delays nobody else and never holds more than one
+ * pending update per city. A client that stops reading is dropped once a send to it has blocked for the
+ * write timeout, freeing the send thread for everyone else. Updates stored on peer nodes arrive through the
+ * cache invalidation bus.
+ * <p>
+ * Heartbeats and the write-timeout check run on a watchdog thread of the broadcaster's own, not on the shared
+ * {@code @Scheduled} thread, which a refresh cycle can hold for minutes.
+ */
+@Component
+public class WeatherUpdateBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeatherUpdateBroadcaster.class);
+
+    private final WeatherService weatherService;
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService sendExecutor;
+    private final ScheduledExecutorService watchdog;
+    private final int maxSubscribers;
+    private final Duration timeout;
+    private final Duration writeTimeout;
+
+    private final Map<String, Set<Subscriber>> subscribersByCity = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Counter sentCounter;
+    private final Counter suppressedCounter;
+    private final Counter droppedCounter;
+
+    public WeatherUpdateBroadcaster(WeatherService weatherService, CacheManager cacheManager, ObjectMapper objectMapper,
+                                    CacheInvalidationBus cacheInvalidationBus, MeterRegistry meterRegistry,
+                                    @Value("${weather.stream.max-subscribers:10000}") int maxSubscribers,
+                                    @Value("${weather.stream.timeout:PT30M}") Duration timeout,
+                                    @Value("${weather.stream.write-timeout:PT10S}") Duration writeTimeout,
+                                    @Value("${weather.stream.heartbeat:PT30S}") Duration heartbeat,
+                                    @Value("${weather.stream.write-timeout-check:PT1S}") Duration writeTimeoutCheck,
+                                    @Value("${weather.stream.send-threads:8}") int sendThreads,
+                                    @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this(weatherService, cacheManager, objectMapper, cacheInvalidationBus, meterRegistry, maxSubscribers, timeout, writeTimeout,
+                heartbeat, writeTimeoutCheck,
+                virtualThreads
+                        ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-", 0).factory())
+                        : Executors.newFixedThreadPool(sendThreads, Thread.ofPlatform().name("sse-", 0).daemon().factory()),
+                Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("sse-watchdog").daemon().factory()));
+    }
+
+    WeatherUpdateBroadcaster(WeatherService weatherService, CacheManager cacheManager, ObjectMapper objectMapper,
+                             CacheInvalidationBus cacheInvalidationBus, MeterRegistry meterRegistry,
+                             int maxSubscribers, Duration timeout, Duration writeTimeout, Duration heartbeat, Duration writeTimeoutCheck,
+                             ExecutorService sendExecutor, ScheduledExecutorService watchdog) {
+        this.weatherService = weatherService;
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout;
+        this.writeTimeout = writeTimeout;
+        this.sendExecutor = sendExecutor;
+        this.watchdog = watchdog;
+
+        Gauge.builder("weather.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open weather update streams on this node")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("weather.stream.events").tag("outcome", "sent").register(meterRegistry);
+        this.suppressedCounter = Counter.builder("weather.stream.events").tag("outcome", "suppressed").register(meterRegistry);
+        this.droppedCounter = Counter.builder("weather.stream.dropped")
+                .description("Streams closed because a send blocked for longer than the write timeout")
+                .register(meterRegistry);
+
+        cacheInvalidationBus.subscribe(this::onPeerUpdate);
+        watch(this::sendHeartbeats, heartbeat);
+        watch(this::dropStalledSubscribers, writeTimeoutCheck);
+    }
+
+    private void watch(Runnable task, Duration interval) {
+        watchdog.scheduleWithFixedDelay(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                // A periodic task that throws is never run again
+                logger.warn("Weather stream watchdog task failed: {}", e.getMessage());
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a stream for the given cities, starting with whatever is already cached for them.
+     *
+     * @param threshold minimum temperature change worth pushing; a change of conditions is always pushed.
+     *                  {@code null} pushes every update.
+     * @return empty if this node already has its maximum number of subscribers
+     */
+    public Optional<SseEmitter> subscribe(Collection<String> cityNames, BigDecimal threshold) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        return register(emitter, cityNames, threshold) ? Optional.of(emitter) : Optional.empty();
+    }
+
+    boolean register(SseEmitter emitter, Collection<String> cityNames, BigDecimal threshold) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return false;
+        }
+
+        Set<String> cityKeys = cityNames.stream().map(name -> name.trim().toLowerCase()).collect(Collectors.toSet());
+        Subscriber subscriber = new Subscriber(emitter, cityKeys, threshold);
+        subscribers.add(subscriber);
+        for (String cityKey : cityKeys) {
+            subscribersByCity.compute(cityKey, (key, watching) -> {
+                Set<Subscriber> updated = watching != null ? watching : ConcurrentHashMap.newKeySet();
+                updated.add(subscriber);
+                return updated;
+            });
+        }
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        Cache cache = cacheManager.getCache("currentWeather");
+        if (cache != null) {
+            for (String key : cityKeys) {
+                WeatherResponse cached = cache.get(key, WeatherResponse.class);
+                Update update = cached != null ? serialize(cached) : null;
+                if (update != null) {
+                    subscriber.offer(key, update);
+                }
+            }
+        }
+        return true;
+    }
+
+    @EventListener
+    public void onWeatherUpdated(WeatherUpdatedEvent event) {
+        broadcast(event.cityKey(), event.weather());
+    }
+
+    /** A peer stored new data; read it back from the database, since this node's cache entry is being evicted. */
+    void onPeerUpdate(Set<String> cityKeys) {
+        Set<String> watched = cityKeys.stream().filter(subscribersByCity::containsKey).collect(Collectors.toSet());
+        if (watched.isEmpty()) {
+            return;
+        }
+        try {
+            sendExecutor.execute(() -> {
+                try {
+                    weatherService.getStoredCurrentWeather(watched).forEach(this::broadcast);
+                } catch (RuntimeException e) {
+                    logger.warn("Could not load peer weather updates for {}: {}", watched, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+
+    /** Keeps idle connections alive through proxies and finds clients that have gone away. */
+    void sendHeartbeats() {
+        subscribers.forEach(Subscriber::heartbeat);
+    }
+
+    /** Drops subscribers whose client stopped reading, interrupting the send thread blocked on them. */
+    void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        subscribers.stream().filter(subscriber -> subscriber.isStalled(now)).forEach(Subscriber::drop);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+        subscribers.forEach(Subscriber::complete);
+        sendExecutor.shutdown();
+        try {
+            sendExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    private void broadcast(String cityKey, WeatherResponse weather) {
+        Set<Subscriber> watching = subscribersByCity.get(cityKey);
+        if (watching == null || watching.isEmpty()) {
+            return;
+        }
+        // Serialized once, however many clients are watching
+        Update update = serialize(weather);
+        if (update != null) {
+            watching.forEach(subscriber -> subscriber.offer(cityKey, update));
+        }
+    }
+
+    private Update serialize(WeatherResponse weather) {
+        try {
+            return new Update(weather, objectMapper.writeValueAsString(weather));
+        } catch (JsonProcessingException e) {
+            logger.error("Could not serialize weather update for {}: {}", weather.city(), e.getMessage());
+            return null;
+        }
+    }
+
+    private record Update(WeatherResponse weather, String json) {
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<String> cityKeys;
+        private final BigDecimal threshold;
+        private final Map<String, Update> pending = new ConcurrentHashMap<>();
+        // Only touched by the drain, which never runs twice at once
+        private final Map<String, WeatherResponse> lastSent = new HashMap<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+        // The drain thread while it is inside emitter.send, guarded by this subscriber's monitor
+        private Thread sendingThread;
+        private long sendStartedNanos;
+
+        private Subscriber(SseEmitter emitter, Set<String> cityKeys, BigDecimal threshold) {
+            this.emitter = emitter;
+            this.cityKeys = cityKeys;
+            this.threshold = threshold;
+        }
+
+        void offer(String cityKey, Update update) {
+            // Replaces any update the client has not been sent yet
+            pending.put(cityKey, update);
+            scheduleDrain();
+        }
+
+        void heartbeat() {
+            heartbeatDue = true;
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (closed.get() || !draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                sendExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+            }
+        }
+
+        private void drain() {
+            try {
+                do {
+                    for (String cityKey : pending.keySet()) {
+                        Update update = pending.remove(cityKey);
+                        if (update != null) {
+                            send(cityKey, update);
+                        }
+                    }
+                    if (heartbeatDue) {
+                        heartbeatDue = false;
+                        write(SseEmitter.event().comment("keep-alive"));
+                    }
+                    draining.set(false);
+                    // Anything offered after the last pass needs another one, unless a new drain already claimed it
+                } while ((!pending.isEmpty() || heartbeatDue) && !closed.get() && draining.compareAndSet(false, true));
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Closing weather stream: {}", e.getMessage());
+                draining.set(false);
+                close();
+            }
+        }
+
+        private void send(String cityKey, Update update) throws IOException {
+            if (!isSignificant(lastSent.get(cityKey), update.weather())) {
+                suppressedCounter.increment();
+                return;
+            }
+            write(SseEmitter.event()
+                    .name("weather")
+                    .id(cityKey)
+                    .data(update.json(), MediaType.APPLICATION_JSON));
+            lastSent.put(cityKey, update.weather());
+            sentCounter.increment();
+        }
+
+        private void write(SseEmitter.SseEventBuilder event) throws IOException {
+            synchronized (this) {
+                if (closed.get()) {
+                    throw new IOException("Stream closed");
+                }
+                sendingThread = Thread.currentThread();
+                sendStartedNanos = System.nanoTime();
+            }
+            try {
+                emitter.send(event);
+            } finally {
+                synchronized (this) {
+                    sendingThread = null;
+                    // An interrupt meant for a dropped stream must not reach the next task on this thread
+                    if (closed.get()) {
+                        Thread.interrupted();
+                    }
+                }
+            }
+        }
+
+        synchronized boolean isStalled(long nowNanos) {
+            return sendingThread != null && nowNanos - sendStartedNanos > writeTimeout.toNanos();
+        }
+
+        void drop() {
+            if (closed.get()) {
+                return;
+            }
+            logger.debug("Dropping weather stream: a send blocked for more than {}", writeTimeout);
+            droppedCounter.increment();
+            close();
+            synchronized (this) {
+                if (sendingThread != null) {
+                    sendingThread.interrupt();
+                }
+            }
+            try {
+                emitter.completeWithError(new IOException("Write timed out"));
+            } catch (IllegalStateException e) {
+                // Already completed
+            }
+        }
+
+        private boolean isSignificant(WeatherResponse previous, WeatherResponse current) {
+            if (threshold == null || previous == null || previous.temperature() == null || current.temperature() == null) {
+                return true;
+            }
+            if (!Objects.equals(previous.conditions(), current.conditions())) {
+                return true;
+            }
+            return previous.temperature().subtract(current.temperature()).abs().compareTo(threshold) >= 0;
+        }
+
+        void complete() {
+            close();
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                // Already completed
+            }
+        }
+
+        void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            subscribers.remove(this);
+            for (String cityKey : cityKeys) {
+                subscribersByCity.computeIfPresent(cityKey, (key, watching) -> {
+                    watching.remove(this);
+                    return watching.isEmpty() ? null : watching;
+                });
+            }
+            subscriberCount.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.weather.forecast.service;
+
+import com.weather.forecast.dto.WeatherResponse;
+
+/** Published after new current weather for a city has been stored on this node. */
+public record WeatherUpdatedEvent(String cityKey, WeatherResponse weather) {
+}
@@ -0,0 +1,81 @@
+package com.weather.forecast.service.impl;
+
+import com.weather.forecast.service.CacheInvalidationBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/** Collects published keys for one batch window and sends them as a single message; drops its own echoes. */
+public abstract class BatchingCacheInvalidationBus implements CacheInvalidationBus, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchingCacheInvalidationBus.class);
+
+    private final String nodeId;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final List<Consumer<Set<String>>> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService flusher;
+
+    protected BatchingCacheInvalidationBus(String nodeId, Duration batchWindow) {
+        this.nodeId = nodeId;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("cache-bus-flush").daemon().factory());
+        long windowMillis = Math.max(batchWindow.toMillis(), 1);
+        flusher.scheduleWithFixedDelay(this::flush, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void publish(String cityKey) {
+        pending.add(cityKey);
+    }
+
+    @Override
+    public void subscribe(Consumer<Set<String>> listener) {
+        listeners.add(listener);
+    }
+
+    /** Sends everything published since the last flush. */
+    public void flush() {
+        Set<String> batch = new HashSet<>();
+        for (Iterator<String> iterator = pending.iterator(); iterator.hasNext(); ) {
+            batch.add(iterator.next());
+            iterator.remove();
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            send(new Message(nodeId, batch));
+        } catch (RuntimeException e) {
+            // Peers fall back to their cache TTL for this batch
+            logger.warn("Failed to broadcast cache invalidation for {} cities: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    protected abstract void send(Message message);
+
+    /** Hands a received message to the listeners unless this node sent it. */
+    protected void deliver(Message message) {
+        if (nodeId.equals(message.origin())) {
+            return;
+        }
+        for (Consumer<Set<String>> listener : listeners) {
+            listener.accept(message.cities());
+        }
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        flush();
+    }
+}
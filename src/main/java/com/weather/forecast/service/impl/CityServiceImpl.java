@@ -2,6 +2,7 @@ package com.weather.forecast.service.impl;
 
 import com.weather.forecast.model.City;
 import com.weather.forecast.repository.CityRepository;
+import com.weather.forecast.service.CityNameResolver;
 import com.weather.forecast.service.CityService;
 import jakarta.transaction.Transactional;
 import org.springframework.cache.annotation.Cacheable;
@@ -10,6 +11,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,9 +19,11 @@ import java.util.Optional;
 public class CityServiceImpl implements CityService {
 
     private CityRepository cityRepository;
+    private CityNameResolver cityNameResolver;
 
-    public CityServiceImpl(CityRepository cityRepository) {
+    public CityServiceImpl(CityRepository cityRepository, CityNameResolver cityNameResolver) {
         this.cityRepository = cityRepository;
+        this.cityNameResolver = cityNameResolver;
     }
 
     @Override
@@ -41,6 +45,26 @@ public class CityServiceImpl implements CityService {
         return cityRepository.findByNameIgnoreCase(cityName);
     }
 
+    @Override
+    public Optional<String> findCorrection(String cityName) {
+        return cityNameResolver.correctNotFound(cityName);
+    }
+
+    @Override
+    public void markNotFound(String cityName) {
+        cityNameResolver.markNotFound(cityName);
+    }
+
+    @Override
+    public List<City> findByNames(Collection<String> lowerCaseNames) {
+        return lowerCaseNames.isEmpty() ? List.of() : cityRepository.findByLowerCaseNameIn(lowerCaseNames);
+    }
+
+    @Override
+    public List<City> findLocatedCities() {
+        return cityRepository.findByLatitudeIsNotNullAndLongitudeIsNotNull();
+    }
+
     @Override
     public List<City> getRecentlySearchedCities(int limit) {
         return cityRepository.findAll(
@@ -55,7 +79,10 @@ public class CityServiceImpl implements CityService {
 
     @Override
     public City saveCity(City city) {
-        return cityRepository.save(city);
+        City saved = cityRepository.save(city);
+        // Upstream has just resolved this name, so it becomes a target for typo correction
+        cityNameResolver.add(saved);
+        return saved;
     }
 
     @Override
@@ -63,4 +90,16 @@ public class CityServiceImpl implements CityService {
         city.incrementSearchCount();
         cityRepository.save(city);
     }
+
+    @Override
+    public void scheduleNextRefresh(City city, Instant nextRefreshAt) {
+        city.setNextRefreshAt(nextRefreshAt);
+        cityRepository.updateNextRefreshAt(city.getId(), nextRefreshAt);
+    }
+
+    @Override
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void lockForUpdate(City city) {
+        cityRepository.lockById(city.getId());
+    }
 }
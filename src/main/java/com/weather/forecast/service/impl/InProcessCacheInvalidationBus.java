@@ -0,0 +1,48 @@
+package com.weather.forecast.service.impl;
+
+import com.weather.forecast.config.NodeIdentity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Bus whose peers live in the same JVM. With a single node it is effectively a no-op;
+ * tests create several instances on one {@link Hub} to stand in for a cluster.
+ */
+@Component
+@ConditionalOnProperty(name = "weather.cache.bus.type", havingValue = "in-process", matchIfMissing = true)
+public class InProcessCacheInvalidationBus extends BatchingCacheInvalidationBus {
+
+    private static final Hub DEFAULT_HUB = new Hub();
+
+    private final Hub hub;
+
+    public InProcessCacheInvalidationBus(NodeIdentity nodeIdentity, @Value("${weather.cache.bus.batch-window:200ms}") Duration batchWindow) {
+        this(nodeIdentity.getId(), batchWindow, DEFAULT_HUB);
+    }
+
+    public InProcessCacheInvalidationBus(String nodeId, Duration batchWindow, Hub hub) {
+        super(nodeId, batchWindow);
+        this.hub = hub;
+        hub.members.add(this);
+    }
+
+    @Override
+    protected void send(Message message) {
+        hub.members.forEach(member -> member.deliver(message));
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        hub.members.remove(this);
+    }
+
+    public static final class Hub {
+        private final List<InProcessCacheInvalidationBus> members = new CopyOnWriteArrayList<>();
+    }
+}
@@ -0,0 +1,95 @@
+package com.weather.forecast.service.impl;
+
+import com.weather.forecast.dto.LocatedWeather;
+import com.weather.forecast.dto.WeatherResponse;
+import com.weather.forecast.service.CitySpatialIndex;
+import com.weather.forecast.service.CitySpatialIndex.IndexedCity;
+import com.weather.forecast.service.CitySpatialIndex.Match;
+import com.weather.forecast.service.NearbyWeatherService;
+import com.weather.forecast.service.WeatherService;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+@Service
+public class NearbyWeatherServiceImpl implements NearbyWeatherService {
+
+    private final CitySpatialIndex citySpatialIndex;
+    private final WeatherService weatherService;
+    private final CacheManager cacheManager;
+
+    public NearbyWeatherServiceImpl(CitySpatialIndex citySpatialIndex, WeatherService weatherService, CacheManager cacheManager) {
+        this.citySpatialIndex = citySpatialIndex;
+        this.weatherService = weatherService;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public List<LocatedWeather> findNearby(double latitude, double longitude, double radiusKm, int limit) {
+        List<Match> matches = citySpatialIndex.nearby(latitude, longitude, radiusKm, Integer.MAX_VALUE);
+        return withKnownWeather(matches, Match::city, Match::distanceKm, limit);
+    }
+
+    @Override
+    public List<LocatedWeather> findWithin(double minLat, double minLon, double maxLat, double maxLon, int limit) {
+        List<IndexedCity> cities = citySpatialIndex.within(minLat, minLon, maxLat, maxLon, Integer.MAX_VALUE);
+        return withKnownWeather(cities, Function.identity(), city -> null, limit);
+    }
+
+    /**
+     * The first {@code limit} candidates, in order, that have stored weather. Cities without any are skipped
+     * before the limit applies, so they never crowd out cities further away; candidates are looked up a batch
+     * at a time until enough are found.
+     */
+    private <T> List<LocatedWeather> withKnownWeather(List<T> candidates, Function<T, IndexedCity> cityOf,
+                                                      Function<T, Double> distanceOf, int limit) {
+        List<LocatedWeather> results = new ArrayList<>();
+        int batchSize = Math.max(1, limit);
+        for (int from = 0; from < candidates.size() && results.size() < limit; from += batchSize) {
+            List<T> batch = candidates.subList(from, Math.min(candidates.size(), from + batchSize));
+            Map<String, WeatherResponse> weather = knownWeather(batch.stream().map(cityOf).toList());
+            for (T candidate : batch) {
+                IndexedCity city = cityOf.apply(candidate);
+                WeatherResponse response = weather.get(cacheKey(city));
+                if (response != null && results.size() < limit) {
+                    results.add(locate(city, distanceOf.apply(candidate), response));
+                }
+            }
+        }
+        return results;
+    }
+
+    /** Cache first, then one database query for the rest; stale data is returned as-is with its timestamp. */
+    private Map<String, WeatherResponse> knownWeather(List<IndexedCity> cities) {
+        Map<String, WeatherResponse> found = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        Cache cache = cacheManager.getCache("currentWeather");
+        for (IndexedCity city : cities) {
+            String key = cacheKey(city);
+            WeatherResponse cached = cache != null ? cache.get(key, WeatherResponse.class) : null;
+            if (cached != null) {
+                found.put(key, cached);
+            } else {
+                misses.add(key);
+            }
+        }
+        if (!misses.isEmpty()) {
+            found.putAll(weatherService.getStoredCurrentWeather(misses));
+        }
+        return found;
+    }
+
+    private LocatedWeather locate(IndexedCity city, Double distanceKm, WeatherResponse weather) {
+        return new LocatedWeather(city.name(), city.latitude(), city.longitude(), distanceKm, weather);
+    }
+
+    private String cacheKey(IndexedCity city) {
+        return city.name().toLowerCase();
+    }
+}
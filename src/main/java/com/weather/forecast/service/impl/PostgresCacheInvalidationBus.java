@@ -0,0 +1,135 @@
+package com.weather.forecast.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weather.forecast.config.NodeIdentity;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Broadcasts invalidations with Postgres {@code NOTIFY} and receives them on a dedicated {@code LISTEN}
+ * connection. That connection is opened directly from the datasource settings rather than borrowed from the
+ * pool, so it takes none of the pool's connections and is not subject to its max-lifetime or leak detection.
+ */
+@Component
+@ConditionalOnProperty(name = "weather.cache.bus.type", havingValue = "postgres")
+public class PostgresCacheInvalidationBus extends BatchingCacheInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresCacheInvalidationBus.class);
+    private static final String CHANNEL = "weather_cache_invalidation";
+    // NOTIFY payloads must stay under 8000 bytes
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final int POLL_TIMEOUT_MS = 1000;
+    private static final long RECONNECT_DELAY_MS = 5000;
+
+    private final DataSourceProperties dataSourceProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private volatile boolean running = true;
+
+    public PostgresCacheInvalidationBus(DataSource dataSource, DataSourceProperties dataSourceProperties, ObjectMapper objectMapper,
+                                        NodeIdentity nodeIdentity, @Value("${weather.cache.bus.batch-window:200ms}") Duration batchWindow) {
+        super(nodeIdentity.getId(), batchWindow);
+        this.dataSourceProperties = dataSourceProperties;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.objectMapper = objectMapper;
+        Thread.ofPlatform().name("cache-bus-listen").daemon().start(this::listen);
+    }
+
+    @Override
+    protected void send(Message message) {
+        for (String payload : payloads(message)) {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, CHANNEL, payload);
+        }
+    }
+
+    /** Splits a message until every part fits in one NOTIFY payload. */
+    private List<String> payloads(Message message) {
+        String payload = toJson(message);
+        if (payload.getBytes(StandardCharsets.UTF_8).length <= MAX_PAYLOAD_BYTES || message.cities().size() <= 1) {
+            return List.of(payload);
+        }
+        List<String> cities = new ArrayList<>(message.cities());
+        int half = cities.size() / 2;
+        List<String> parts = new ArrayList<>(payloads(new Message(message.origin(), new HashSet<>(cities.subList(0, half)))));
+        parts.addAll(payloads(new Message(message.origin(), new HashSet<>(cities.subList(half, cities.size())))));
+        return parts;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = openListenConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + CHANNEL);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                logger.info("Listening for cache invalidations on channel {}", CHANNEL);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                logger.warn("Cache invalidation listener lost its connection, retrying in {} ms: {}", RECONNECT_DELAY_MS, e.getMessage());
+                pause();
+            }
+        }
+    }
+
+    private Connection openListenConnection() throws SQLException {
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+    }
+
+    private void receive(String payload) {
+        try {
+            deliver(objectMapper.readValue(payload, Message.class));
+        } catch (JsonProcessingException e) {
+            logger.warn("Ignoring malformed cache invalidation message: {}", e.getMessage());
+        }
+    }
+
+    private String toJson(Message message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode cache invalidation message", e);
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        super.close();
+    }
+}
@@ -1,30 +1,69 @@
 package com.weather.forecast.service.impl;
 
+import com.weather.forecast.dto.BatchResponse;
+import com.weather.forecast.dto.DailyForecastResponse;
 import com.weather.forecast.dto.ForecastResponse;
 import com.weather.forecast.dto.OpenWeatherMapForecastResponse;
 import com.weather.forecast.dto.OpenWeatherMapResponse;
 import com.weather.forecast.dto.WeatherResponse;
 import com.weather.forecast.exception.CityNotFoundException;
 import com.weather.forecast.exception.WeatherApiException;
+import com.weather.forecast.jfr.CacheMissEvent;
+import com.weather.forecast.jfr.ForecastPersistEvent;
+import com.weather.forecast.jfr.StaleFallbackEvent;
 import com.weather.forecast.model.City;
 import com.weather.forecast.model.CurrentWeather;
+import com.weather.forecast.model.DailyForecast;
 import com.weather.forecast.model.Forecast;
 import com.weather.forecast.repository.CurrentWeatherRepository;
+import com.weather.forecast.repository.DailyForecastRepository;
 import com.weather.forecast.repository.ForecastRepository;
+import com.weather.forecast.service.CacheInvalidationBus;
 import com.weather.forecast.service.CityService;
 import com.weather.forecast.service.OpenWeatherMapClient;
+import com.weather.forecast.service.WeatherDataVersions;
+import com.weather.forecast.service.WeatherUpdatedEvent;
 import com.weather.forecast.service.WeatherService;
 import com.weather.forecast.util.WeatherMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 public class WeatherServiceImpl implements WeatherService {
@@ -35,19 +74,57 @@ public class WeatherServiceImpl implements WeatherService {
     private final CityService cityService;
     private final CurrentWeatherRepository currentWeatherRepository;
     private final ForecastRepository forecastRepository;
+    private final DailyForecastRepository dailyForecastRepository;
     private final WeatherMapper weatherMapper;
+    private final Executor upstreamExecutor;
+    private final Executor revalidationExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WeatherDataVersions dataVersions;
+    private final ObservationRegistry observationRegistry;
+    private final Duration staleGrace;
+    private final Duration refreshTimeout;
+    /** Cache keys of the cities being refreshed in the background after stale data was served */
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+    /** Cache keys of the cities whose last background refresh failed, not retried in the background until they expire */
+    private final Set<String> failedRevalidations;
 
-    public WeatherServiceImpl(OpenWeatherMapClient weatherClient, CityService cityService, CurrentWeatherRepository currentWeatherRepository, ForecastRepository forecastRepository, WeatherMapper weatherMapper) {
+    public WeatherServiceImpl(OpenWeatherMapClient weatherClient, CityService cityService, CurrentWeatherRepository currentWeatherRepository, ForecastRepository forecastRepository,
+                              DailyForecastRepository dailyForecastRepository, WeatherMapper weatherMapper,
+                              @Qualifier("upstreamExecutor") Executor upstreamExecutor, @Qualifier("revalidationExecutor") Executor revalidationExecutor,
+                              PlatformTransactionManager transactionManager, CacheInvalidationBus cacheInvalidationBus,
+                              CacheManager cacheManager, ApplicationEventPublisher eventPublisher, WeatherDataVersions dataVersions,
+                              ObservationRegistry observationRegistry, @Value("${weather.stale-while-revalidate.grace:PT2H}") Duration staleGrace,
+                              @Value("${weather.refresh.upstream-timeout:PT10S}") Duration refreshTimeout,
+                              @Value("${weather.stale-while-revalidate.failure-backoff:PT1M}") Duration revalidationBackoff) {
         this.weatherClient = weatherClient;
         this.cityService = cityService;
         this.currentWeatherRepository = currentWeatherRepository;
         this.forecastRepository = forecastRepository;
+        this.dailyForecastRepository = dailyForecastRepository;
         this.weatherMapper = weatherMapper;
+        this.upstreamExecutor = upstreamExecutor;
+        this.revalidationExecutor = revalidationExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
+        this.dataVersions = dataVersions;
+        this.observationRegistry = observationRegistry;
+        this.staleGrace = staleGrace;
+        this.refreshTimeout = refreshTimeout;
+        this.failedRevalidations = Collections.newSetFromMap(
+                Caffeine.newBuilder().expireAfterWrite(revalidationBackoff).maximumSize(10_000).<String, Boolean>build().asMap());
     }
 
     @Override
-    @Cacheable(value = "currentWeather", key = "#cityName.toLowerCase()")
     public WeatherResponse getCurrentWeather(String cityName) {
+        return throughCache("currentWeather", cityName, WeatherResponse.class, () -> loadCurrentWeather(cityName)).value();
+    }
+
+    private Loaded<WeatherResponse> loadCurrentWeather(String cityName) {
         try {
             City city = cityService.findOrCreateCity(cityName);
             cityService.incrementSearchCount(city);
@@ -55,7 +132,10 @@ public class WeatherServiceImpl implements WeatherService {
             Optional<CurrentWeather> existingWeather = currentWeatherRepository.findByCityId(city.getId());
 
             if (existingWeather.isPresent() && weatherMapper.isDataFresh(existingWeather.get().getLastUpdated())) {
-                return weatherMapper.mapToWeatherResponse(existingWeather.get());
+                return Loaded.cacheable(toWeatherResponse(cityName, existingWeather.get()));
+            }
+            if (existingWeather.isPresent() && serveWhileRevalidating(city, "currentWeather", cityName, existingWeather.get().getLastUpdated())) {
+                return Loaded.stale(weatherMapper.mapToWeatherResponse(existingWeather.get()));
             }
 
             OpenWeatherMapResponse apiResponse = weatherClient.getCurrentWeather(cityName);
@@ -63,21 +143,34 @@ public class WeatherServiceImpl implements WeatherService {
 
             CurrentWeather currentWeather = weatherMapper.mapToCurrentWeather(city, apiResponse);
             currentWeather = currentWeatherRepository.save(currentWeather);
+            cacheInvalidationBus.publish(cacheKey(city));
 
-            return weatherMapper.mapToWeatherResponse(currentWeather);
+            WeatherResponse response = toWeatherResponse(cityName, currentWeather);
+            eventPublisher.publishEvent(new WeatherUpdatedEvent(cacheKey(city), response));
+            return Loaded.cacheable(response);
+        } catch (CityNotFoundException e) {
+            // Later requests for this name may then be corrected to a known city without asking upstream again
+            cityService.markNotFound(cityName);
+            throw e;
         } catch (WeatherApiException e) {
             logger.error("Error fetching current weather for {}: {}", cityName, e.getMessage());
 
             return cityService.findByName(cityName)
                     .flatMap(city -> currentWeatherRepository.findByCityId(city.getId()))
-                    .map(weatherMapper::mapToWeatherResponse)
+                    .map(weather -> {
+                        StaleFallbackEvent.record("currentWeather", cityName, weather.getLastUpdated(), e);
+                        return Loaded.cacheable(toWeatherResponse(cityName, weather));
+                    })
                     .orElseThrow(() -> e); // Rethrow original exception if no stale data exists
         }
     }
 
     @Override
-    @Cacheable(value = "forecast", key = "#cityName.toLowerCase()")
     public ForecastResponse getForecast(String cityName) {
+        return throughCache("forecast", cityName, ForecastResponse.class, () -> loadForecast(cityName)).value();
+    }
+
+    private Loaded<ForecastResponse> loadForecast(String cityName) {
         try {
             City city = cityService.findOrCreateCity(cityName);
 
@@ -85,16 +178,29 @@ public class WeatherServiceImpl implements WeatherService {
                     city.getId(), Instant.now()
             );
 
-            if (!existingForecasts.isEmpty() && weatherMapper.isDataFresh(existingForecasts.get(0).getForecastDate().minus(1, ChronoUnit.DAYS))) {
-                return weatherMapper.mapToForecastResponse(city, existingForecasts);
+            // Slots are as old as the fetch that stored them
+            if (!existingForecasts.isEmpty() && weatherMapper.isDataFresh(fetchedAt(existingForecasts))) {
+                return Loaded.cacheable(toForecastResponse(cityName, city, existingForecasts));
+            }
+            if (!existingForecasts.isEmpty() && serveWhileRevalidating(city, "forecast", cityName, fetchedAt(existingForecasts))) {
+                return Loaded.stale(weatherMapper.mapToForecastResponse(city, existingForecasts));
             }
 
             OpenWeatherMapForecastResponse apiResponse = weatherClient.getForecast(cityName);
-            weatherMapper.updateCityFromResponse(city, apiResponse);
 
-            List<Forecast> newForecasts = refreshForecastDataForCity(city, apiResponse);
+            // One transaction, as in refreshWeatherData: readers never see the slots or summaries half-replaced
+            StoredForecast stored = transactionTemplate.execute(status -> {
+                cityService.lockForUpdate(city);
+                weatherMapper.updateCityFromResponse(city, apiResponse);
+                return refreshForecastDataForCity(city, apiResponse);
+            });
+            evictFromCache("dailyForecast", cacheKey(city));
+            cacheInvalidationBus.publish(cacheKey(city));
 
-            return weatherMapper.mapToForecastResponse(city, newForecasts);
+            return Loaded.cacheable(toForecastResponse(cityName, city, stored.slots()));
+        } catch (CityNotFoundException e) {
+            cityService.markNotFound(cityName);
+            throw e;
         } catch (WeatherApiException e) {
             logger.error("Error fetching forecast for {}: {}", cityName, e.getMessage());
 
@@ -102,7 +208,8 @@ public class WeatherServiceImpl implements WeatherService {
             List<Forecast> existingForecasts = forecastRepository.findByCityIdAndForecastDateGreaterThanOrderByForecastDateAsc(city.getId(), Instant.now().minus(1, ChronoUnit.DAYS));
 
             if (!existingForecasts.isEmpty()) {
-                return weatherMapper.mapToForecastResponse(city, existingForecasts);
+                StaleFallbackEvent.record("forecast", cityName, fetchedAt(existingForecasts), e);
+                return Loaded.cacheable(toForecastResponse(cityName, city, existingForecasts));
             }
 
             throw e;
@@ -110,32 +217,384 @@ public class WeatherServiceImpl implements WeatherService {
     }
 
     @Override
-    @Transactional
-    public void refreshWeatherData(City city) {
+    public DailyForecastResponse getDailyForecast(String cityName) {
+        return throughCache("dailyForecast", cityName, DailyForecastResponse.class, () -> loadDailyForecast(cityName)).value();
+    }
+
+    /** Summaries of the forecast slots, stale and refreshing in the background exactly when the slots are. */
+    private Loaded<DailyForecastResponse> loadDailyForecast(String cityName) {
+        // Brings the slots, and the summaries stored with them, up to date first; a cached forecast means they are
+        Loaded<ForecastResponse> forecast = throughCache("forecast", cityName, ForecastResponse.class, () -> loadForecast(cityName));
+
+        City city = cityService.findOrCreateCity(cityName);
+        List<DailyForecast> days = dailyForecastRepository.findByCityIdAndForecastDateGreaterThanEqualOrderByForecastDateAsc(
+                city.getId(), LocalDate.now(weatherMapper.utcOffset(city)));
+        if (days.isEmpty()) {
+            // Slots stored before summaries existed; summarize them on the fly until the next refresh
+            List<Forecast> slots = forecastRepository.findByCityIdAndForecastDateGreaterThanOrderByForecastDateAsc(city.getId(), Instant.now());
+            days = weatherMapper.mapToDailyForecasts(city, slots);
+        }
+        DailyForecastResponse response = weatherMapper.mapToDailyForecastResponse(city, days);
+        return forecast.cacheable() ? Loaded.cacheable(response) : Loaded.stale(response);
+    }
+
+    @Override
+    public BatchResponse<WeatherResponse> getCurrentWeatherBatch(List<String> cityNames) {
+        return loadBatch(cityNames, "currentWeather", WeatherResponse.class, this::findFreshCurrentWeather, this::getCurrentWeather);
+    }
+
+    @Override
+    public BatchResponse<ForecastResponse> getForecastBatch(List<String> cityNames) {
+        return loadBatch(cityNames, "forecast", ForecastResponse.class, this::findFreshForecasts, this::getForecast);
+    }
+
+    /**
+     * Resolves each city from the cache, then fresh DB rows (one {@code IN} query per table), and finally the
+     * single-city path on the upstream executor, which bounds how many upstream calls run at once and caches what
+     * it loads. A city that still fails is reported in the response's errors rather than failing the batch.
+     */
+    private <T> BatchResponse<T> loadBatch(List<String> cityNames, String cacheName, Class<T> type,
+                                           Function<List<City>, Map<Long, T>> freshFromDb, Function<String, T> loadSingle) {
+        Map<String, String> namesByKey = new LinkedHashMap<>();
+        List<String> repeatedKeys = new ArrayList<>();
+        for (String cityName : cityNames) {
+            if (namesByKey.putIfAbsent(cityName.trim().toLowerCase(), cityName.trim()) != null) {
+                repeatedKeys.add(cityName.trim().toLowerCase());
+            }
+        }
+
+        Map<String, T> found = new HashMap<>();
+        Cache cache = cacheManager.getCache(cacheName);
+        List<String> cacheMisses = new ArrayList<>();
+        for (String key : namesByKey.keySet()) {
+            T cached = cache != null ? cache.get(key, type) : null;
+            if (cached != null) {
+                found.put(key, cached);
+            } else {
+                cacheMisses.add(key);
+            }
+        }
+
+        // A city named more than once shares the first mention's load
+        for (String key : repeatedKeys) {
+            if (!found.containsKey(key)) {
+                CacheMissEvent.coalesced(cacheName, namesByKey.get(key));
+            }
+        }
+
+        if (!cacheMisses.isEmpty()) {
+            List<City> cities = cityService.findByNames(cacheMisses);
+            Map<Long, T> fresh = freshFromDb.apply(cities);
+            for (City city : cities) {
+                T value = fresh.get(city.getId());
+                if (value != null) {
+                    found.put(cacheKey(city), value);
+                    putInCache(cacheName, cacheKey(city), value);
+                }
+            }
+        }
+
+        Map<String, CompletableFuture<T>> upstreamLoads = new LinkedHashMap<>();
+        namesByKey.forEach((key, cityName) -> {
+            if (!found.containsKey(key)) {
+                upstreamLoads.put(key, CompletableFuture.supplyAsync(() -> loadSingle.apply(cityName), upstreamExecutor));
+            }
+        });
+
+        Map<String, String> errors = new LinkedHashMap<>();
+        upstreamLoads.forEach((key, future) -> {
+            try {
+                found.put(key, joinUpstream(future));
+            } catch (RuntimeException e) {
+                logger.error("Error loading {} for {} in batch: {}", cacheName, namesByKey.get(key), e.getMessage());
+                errors.put(namesByKey.get(key), e.getMessage());
+            }
+        });
+
+        Map<String, T> results = new LinkedHashMap<>();
+        namesByKey.forEach((key, cityName) -> {
+            if (found.containsKey(key)) {
+                results.put(cityName, found.get(key));
+            }
+        });
+        return new BatchResponse<>(results, errors);
+    }
+
+    private Map<Long, WeatherResponse> findFreshCurrentWeather(List<City> cities) {
+        if (cities.isEmpty()) {
+            return Map.of();
+        }
+        return currentWeatherRepository.findByCityIdIn(cities.stream().map(City::getId).toList()).stream()
+                .filter(weather -> weatherMapper.isDataFresh(weather.getLastUpdated()))
+                .collect(Collectors.toMap(weather -> weather.getCity().getId(), weather -> toWeatherResponse(cacheKey(weather.getCity()), weather)));
+    }
+
+    private Map<Long, ForecastResponse> findFreshForecasts(List<City> cities) {
+        if (cities.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, List<Forecast>> forecastsByCity = forecastRepository
+                .findByCityIdInAndForecastDateGreaterThan(cities.stream().map(City::getId).toList(), Instant.now()).stream()
+                .collect(Collectors.groupingBy(forecast -> forecast.getCity().getId(), LinkedHashMap::new, Collectors.toList()));
+
+        Map<Long, ForecastResponse> fresh = new HashMap<>();
+        for (City city : cities) {
+            List<Forecast> forecasts = forecastsByCity.get(city.getId());
+            if (forecasts != null && weatherMapper.isDataFresh(fetchedAt(forecasts))) {
+                fresh.put(city.getId(), toForecastResponse(cacheKey(city), city, forecasts));
+            }
+        }
+        return fresh;
+    }
+
+    @Override
+    public Map<String, WeatherResponse> getStoredCurrentWeather(Collection<String> cityNames) {
+        List<City> cities = cityService.findByNames(cityNames.stream().map(String::toLowerCase).toList());
+        if (cities.isEmpty()) {
+            return Map.of();
+        }
+        // Cities whose names differ only in case share a key; the most recently stored weather wins
+        Map<String, CurrentWeather> latest = currentWeatherRepository.findByCityIdIn(cities.stream().map(City::getId).toList()).stream()
+                .collect(Collectors.toMap(weather -> cacheKey(weather.getCity()), Function.identity(), BinaryOperator.maxBy(
+                        Comparator.comparing(CurrentWeather::getLastUpdated, Comparator.nullsFirst(Comparator.naturalOrder())))));
+        Map<String, WeatherResponse> responses = new HashMap<>();
+        latest.forEach((cityKey, weather) -> responses.put(cityKey, weatherMapper.mapToWeatherResponse(weather)));
+        return responses;
+    }
+
+    @Override
+    public boolean refreshWeatherData(City city) {
         try {
             logger.info("Refreshing weather data for {}", city.getName());
 
-            // Fetch and update current weather
-            OpenWeatherMapResponse currentResponse = weatherClient.getCurrentWeather(city.getName());
-            CurrentWeather currentWeather = weatherMapper.mapToCurrentWeather(city, currentResponse);
-            currentWeatherRepository.save(currentWeather);
+            // Fetch current weather and forecast concurrently; no DB connection is held while waiting on upstream
+            CompletableFuture<OpenWeatherMapForecastResponse> forecastFuture =
+                    CompletableFuture.supplyAsync(() -> weatherClient.getForecast(city.getName()), upstreamExecutor);
+            OpenWeatherMapResponse currentResponse;
+            try {
+                currentResponse = weatherClient.getCurrentWeather(city.getName());
+            } catch (RuntimeException e) {
+                // The forecast is not stored without current weather; a call still queued is never made
+                forecastFuture.cancel(true);
+                throw e;
+            }
+            OpenWeatherMapForecastResponse forecastResponse = joinUpstream(forecastFuture, refreshTimeout);
 
-            // Fetch and update forecast data
-            OpenWeatherMapForecastResponse forecastResponse = weatherClient.getForecast(city.getName());
+            // Store both in one transaction so readers never see the forecast half-replaced
+            RefreshedData refreshed = transactionTemplate.execute(status -> {
+                cityService.lockForUpdate(city);
+                CurrentWeather currentWeather = currentWeatherRepository.save(weatherMapper.mapToCurrentWeather(city, currentResponse));
+                // Picks up the UTC offset the daily summaries are cut by
+                weatherMapper.updateCityFromResponse(city, forecastResponse);
+                StoredForecast stored = refreshForecastDataForCity(city, forecastResponse);
+                return new RefreshedData(weatherMapper.mapToWeatherResponse(currentWeather), weatherMapper.mapToForecastResponse(city, stored.slots()),
+                        weatherMapper.mapToDailyForecastResponse(city, stored.days()), currentWeather.getLastUpdated(), fetchedAt(stored.slots()));
+            });
 
-            // Call the reusable helper method
-            refreshForecastDataForCity(city, forecastResponse);
+            // Write through so the next request is a cache hit with the new data
+            String key = cacheKey(city);
+            putInCache("currentWeather", key, refreshed.weather());
+            putInCache("forecast", key, refreshed.forecast());
+            putInCache("dailyForecast", key, refreshed.daily());
+            // After the cache write, so a version is never visible before the data it describes
+            dataVersions.record(WeatherDataVersions.Kind.CURRENT, key, refreshed.weatherStoredAt());
+            dataVersions.record(WeatherDataVersions.Kind.FORECAST, key, refreshed.forecastStoredAt());
+            cacheInvalidationBus.publish(key);
+            eventPublisher.publishEvent(new WeatherUpdatedEvent(key, refreshed.weather()));
 
             logger.info("Successfully refreshed weather data for {}", city.getName());
-        } catch (WeatherApiException e) {
+            return true;
+        } catch (WeatherApiException | CityNotFoundException e) {
             logger.error("Error refreshing weather data for city {}: {}", city.getName(), e.getMessage());
-            // No need to rethrow here unless a calling scheduler needs to know about the failure.
+            return false;
         }
     }
 
-    private List<Forecast> refreshForecastDataForCity(City city, OpenWeatherMapForecastResponse forecastResponse) {
+    @Override
+    public Map<Long, Instant> getLastUpdated(List<City> cities) {
+        if (cities.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> cityIds = cities.stream().map(City::getId).toList();
+        return currentWeatherRepository.findDataAgeByCityIds(cityIds).stream()
+                .filter(age -> age.getLastUpdated() != null)
+                .collect(Collectors.toMap(CurrentWeatherRepository.DataAge::getCityId, CurrentWeatherRepository.DataAge::getLastUpdated));
+    }
+
+    /**
+     * Whether stale data may be served without waiting on upstream: it is stale by no more than
+     * {@code weather.stale-while-revalidate.grace}. It is then refreshed in the background, at most once at a time
+     * per city, on an executor of its own: the refresh waits on the upstream executor, and must not hold one of
+     * its threads while doing so. After a refresh fails, stale data is served without another one for
+     * {@code weather.stale-while-revalidate.failure-backoff}, so an upstream outage does not cost two upstream
+     * calls per request. Data older than that is only served when upstream fails.
+     */
+    private boolean serveWhileRevalidating(City city, String cacheName, String cityName, Instant storedAt) {
+        if (!weatherMapper.isDataServable(storedAt, staleGrace)) {
+            return false;
+        }
+        String key = cacheKey(city);
+        if (failedRevalidations.contains(key)) {
+            logger.debug("Serving {} for {} stored at {}; its last refresh failed", cacheName, cityName, storedAt);
+            return true;
+        }
+        if (!revalidating.add(key)) {
+            // Shares the refresh already under way for this city
+            CacheMissEvent.coalesced(cacheName, cityName);
+            return true;
+        }
+        try {
+            revalidationExecutor.execute(() -> {
+                boolean refreshed = false;
+                try {
+                    refreshed = refreshWeatherData(city);
+                } finally {
+                    // Recorded before the key is released, so no request slips in between to refresh again
+                    if (!refreshed) {
+                        failedRevalidations.add(key);
+                    }
+                    revalidating.remove(key);
+                }
+            });
+            logger.debug("Serving {} for {} stored at {} while it is refreshed", cacheName, cityName, storedAt);
+        } catch (RejectedExecutionException e) {
+            revalidating.remove(key);
+            logger.warn("Serving {} for {} stored at {} without refreshing it: {}", cacheName, cityName, storedAt, e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Cache-aside for the single-city reads. Data served stale while it is refreshed is returned but not cached:
+     * the refresh writes the new data through to the cache, which the stale copy must not overwrite, and if the
+     * refresh fails the stale copy would otherwise be served for the cache's whole lifetime.
+     */
+    private <T> Loaded<T> throughCache(String cacheName, String cityName, Class<T> type, Supplier<Loaded<T>> load) {
+        String key = cityName.toLowerCase();
+        Cache cache = cacheManager.getCache(cacheName);
+        T cached = cache != null ? cache.get(key, type) : null;
+        if (cached != null) {
+            return Loaded.cacheable(cached);
+        }
+        Loaded<T> loaded = observeLoad(cacheName, cityName, load);
+        if (loaded.cacheable()) {
+            putInCache(cacheName, key, loaded.value());
+        }
+        return loaded;
+    }
+
+    /**
+     * A cache miss, observed as {@code weather.load} and recorded as a {@link CacheMissEvent}: everything from the
+     * database lookup to the upstream call.
+     */
+    private <T> T observeLoad(String cacheName, String cityName, Supplier<T> load) {
+        CacheMissEvent event = new CacheMissEvent();
+        event.begin();
+        try {
+            return Observation.createNotStarted("weather.load", observationRegistry)
+                    .lowCardinalityKeyValue("cache", cacheName)
+                    .observe(load);
+        } finally {
+            event.cache = cacheName;
+            event.city = cityName;
+            event.commit();
+        }
+    }
+
+    /** Maps a response about to be cached under {@code cityKey} and records the version it carries. */
+    private WeatherResponse toWeatherResponse(String cityKey, CurrentWeather weather) {
+        dataVersions.record(WeatherDataVersions.Kind.CURRENT, cityKey, weather.getLastUpdated());
+        return weatherMapper.mapToWeatherResponse(weather);
+    }
+
+    private ForecastResponse toForecastResponse(String cityKey, City city, List<Forecast> slots) {
+        dataVersions.record(WeatherDataVersions.Kind.FORECAST, cityKey, fetchedAt(slots));
+        return weatherMapper.mapToForecastResponse(city, slots);
+    }
+
+    private static Instant fetchedAt(List<Forecast> slots) {
+        return slots.isEmpty() ? null : slots.get(0).getFetchedAt();
+    }
+
+    private void putInCache(String cacheName, String key, Object value) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && value != null) {
+            cache.put(key, value);
+        }
+    }
+
+    private void evictFromCache(String cacheName, String key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    /** Same key the single-city reads cache under for a request naming this city. */
+    private String cacheKey(City city) {
+        return city.getName().toLowerCase();
+    }
+
+    private <T> T joinUpstream(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /** As {@link #joinUpstream(CompletableFuture)}, giving up after the timeout; a call still queued is then never made. */
+    private <T> T joinUpstream(CompletableFuture<T> future, Duration timeout) {
+        try {
+            return joinUpstream(future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new WeatherApiException("No upstream response within " + timeout, e.getCause());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Replaces the city's forecast slots and the daily summaries computed from them. Runs in a transaction holding
+     * the city's lock: a request, a background revalidation and the scheduled refresh may all store the same city,
+     * and interleaved delete-then-insert runs would otherwise leave both sets of rows behind.
+     */
+    private StoredForecast refreshForecastDataForCity(City city, OpenWeatherMapForecastResponse forecastResponse) {
+        ForecastPersistEvent event = new ForecastPersistEvent();
+        event.begin();
         forecastRepository.deleteByCityId(city.getId());
-        List<Forecast> forecasts = weatherMapper.mapToForecasts(city, forecastResponse);
-        return forecastRepository.saveAll(forecasts);
+        List<Forecast> forecasts = forecastRepository.saveAll(weatherMapper.mapToForecasts(city, forecastResponse));
+
+        dailyForecastRepository.deleteByCityId(city.getId());
+        List<DailyForecast> days = dailyForecastRepository.saveAll(weatherMapper.mapToDailyForecasts(city, forecasts));
+
+        event.city = city.getName();
+        event.slots = forecasts.size();
+        event.days = days.size();
+        event.commit();
+        return new StoredForecast(forecasts, days);
+    }
+
+    /** A loaded response, and whether it may be cached: not when it is stale data served while being refreshed. */
+    private record Loaded<T>(T value, boolean cacheable) {
+
+        static <T> Loaded<T> cacheable(T value) {
+            return new Loaded<>(value, true);
+        }
+
+        static <T> Loaded<T> stale(T value) {
+            return new Loaded<>(value, false);
+        }
+    }
+
+    private record StoredForecast(List<Forecast> slots, List<DailyForecast> days) {
+    }
+
+    private record RefreshedData(WeatherResponse weather, ForecastResponse forecast, DailyForecastResponse daily,
+                                 Instant weatherStoredAt, Instant forecastStoredAt) {
     }
-}
\ No newline at end of file
+}
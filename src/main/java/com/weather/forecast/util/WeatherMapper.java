@@ -1,22 +1,32 @@
 package com.weather.forecast.util;
 
+import com.weather.forecast.dto.DailyForecastResponse;
 import com.weather.forecast.dto.ForecastResponse;
 import com.weather.forecast.dto.OpenWeatherMapForecastResponse;
 import com.weather.forecast.dto.OpenWeatherMapResponse;
 import com.weather.forecast.dto.WeatherResponse;
 import com.weather.forecast.model.City;
 import com.weather.forecast.model.CurrentWeather;
+import com.weather.forecast.model.DailyForecast;
 import com.weather.forecast.model.Forecast;
 import com.weather.forecast.model.WeatherCondition;
 import com.weather.forecast.repository.CurrentWeatherRepository;
 import com.weather.forecast.service.CityService;
+import com.weather.forecast.service.CitySpatialIndex;
+import com.weather.forecast.service.CitySuggestionIndex;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /** Converts between OpenWeatherMap API responses and domain entities. */
 @Component
@@ -24,18 +34,34 @@ public class WeatherMapper {
 
     private final CityService cityService;
     private final CurrentWeatherRepository currentWeatherRepository;
+    private final CitySpatialIndex citySpatialIndex;
+    private final CitySuggestionIndex citySuggestionIndex;
 
-    public WeatherMapper(CityService cityService, CurrentWeatherRepository currentWeatherRepository) {
+    public WeatherMapper(CityService cityService, CurrentWeatherRepository currentWeatherRepository,
+                         CitySpatialIndex citySpatialIndex, CitySuggestionIndex citySuggestionIndex) {
         this.cityService = cityService;
         this.currentWeatherRepository = currentWeatherRepository;
+        this.citySpatialIndex = citySpatialIndex;
+        this.citySuggestionIndex = citySuggestionIndex;
     }
 
+    /** How long stored weather is served before it is fetched again. */
+    public static final Duration FRESHNESS = Duration.ofMinutes(30);
+
     /** @return true if timestamp is within the last 30 minutes */
     public boolean isDataFresh(Instant timestamp) {
         if (timestamp == null) {
             return false;
         }
-        return timestamp.isAfter(Instant.now().minus(30, ChronoUnit.MINUTES));
+        return timestamp.isAfter(Instant.now().minus(FRESHNESS));
+    }
+
+    /** @return true if timestamp is within the last 30 minutes plus staleGrace */
+    public boolean isDataServable(Instant timestamp, Duration staleGrace) {
+        if (timestamp == null) {
+            return false;
+        }
+        return timestamp.isAfter(Instant.now().minus(FRESHNESS).minus(staleGrace));
     }
 
     public void updateCityFromResponse(City city, OpenWeatherMapResponse response) {
@@ -47,11 +73,14 @@ public class WeatherMapper {
             city.setLongitude(response.coord().lon());
         }
         cityService.saveCity(city);
+        citySpatialIndex.update(city);
+        citySuggestionIndex.update(city);
     }
 
     public void updateCityFromResponse(City city, OpenWeatherMapForecastResponse response) {
         if (response.city() != null) {
             city.setCountry(response.city().country());
+            city.setUtcOffsetSeconds(response.city().timezone());
 
             if (response.city().coord() != null) {
                 city.setLatitude(response.city().coord().lat());
@@ -59,6 +88,8 @@ public class WeatherMapper {
             }
         }
         cityService.saveCity(city);
+        citySpatialIndex.update(city);
+        citySuggestionIndex.update(city);
     }
 
     public CurrentWeather mapToCurrentWeather(City city, OpenWeatherMapResponse response) {
@@ -95,6 +126,7 @@ public class WeatherMapper {
 
     public List<Forecast> mapToForecasts(City city, OpenWeatherMapForecastResponse response) {
         List<Forecast> forecasts = new ArrayList<>();
+        Instant fetchedAt = Instant.now();
 
         if (response.list() != null) {
             for (OpenWeatherMapForecastResponse.ForecastItem item : response.list()) {
@@ -102,6 +134,7 @@ public class WeatherMapper {
                 forecast.setCity(city);
 
                 forecast.setForecastDate(Instant.ofEpochSecond(item.dt()));
+                forecast.setFetchedAt(fetchedAt);
 
                 if (item.main() != null) {
                     forecast.setTemperature(toBigDecimal(item.main().temp()));
@@ -132,6 +165,73 @@ public class WeatherMapper {
         return forecasts;
     }
 
+    /** Groups forecast slots by the city's local calendar day, using its UTC offset from the forecast payload. */
+    public List<DailyForecast> mapToDailyForecasts(City city, List<Forecast> forecasts) {
+        ZoneOffset offset = utcOffset(city);
+        Map<LocalDate, List<Forecast>> slotsByDay = new LinkedHashMap<>();
+        for (Forecast forecast : forecasts) {
+            LocalDate day = LocalDate.ofInstant(forecast.getForecastDate(), offset);
+            slotsByDay.computeIfAbsent(day, d -> new ArrayList<>()).add(forecast);
+        }
+
+        List<DailyForecast> days = new ArrayList<>();
+        slotsByDay.forEach((date, slots) -> {
+            DailyForecast day = new DailyForecast();
+            day.setCity(city);
+            day.setForecastDate(date);
+            day.setSlotCount(slots.size());
+            day.setMinTemperature(slots.stream().map(Forecast::getTemperature).filter(Objects::nonNull).min(BigDecimal::compareTo).orElse(null));
+            day.setMaxTemperature(slots.stream().map(Forecast::getTemperature).filter(Objects::nonNull).max(BigDecimal::compareTo).orElse(null));
+            day.setPrecipitation(slots.stream().map(Forecast::getRainVolume).filter(Objects::nonNull).reduce(BigDecimal.ZERO, BigDecimal::add));
+            day.setProbability(slots.stream().map(Forecast::getProbability).filter(Objects::nonNull).max(BigDecimal::compareTo).orElse(null));
+
+            // The condition seen in the most slots; on a tie, whichever came first in the day
+            Map<WeatherCondition, Integer> counts = new EnumMap<>(WeatherCondition.class);
+            Forecast dominant = null;
+            for (Forecast slot : slots) {
+                if (slot.getWeatherMain() == null) {
+                    continue;
+                }
+                int count = counts.merge(slot.getWeatherMain(), 1, Integer::sum);
+                if (dominant == null || count > counts.get(dominant.getWeatherMain())) {
+                    dominant = slot;
+                }
+            }
+            if (dominant != null) {
+                day.setWeatherMain(dominant.getWeatherMain());
+                day.setWeatherDescription(dominant.getWeatherDescription());
+            }
+            days.add(day);
+        });
+        return days;
+    }
+
+    public DailyForecastResponse mapToDailyForecastResponse(City city, List<DailyForecast> days) {
+        List<DailyForecastResponse.DailyItem> items = days.stream()
+                .map(day -> new DailyForecastResponse.DailyItem(
+                        day.getForecastDate(),
+                        day.getMinTemperature(),
+                        day.getMaxTemperature(),
+                        day.getPrecipitation(),
+                        day.getProbability(),
+                        day.getWeatherMain(),
+                        day.getWeatherDescription(),
+                        day.getSlotCount()
+                ))
+                .toList();
+
+        return new DailyForecastResponse(
+                city.getName(),
+                city.getCountry(),
+                city.getUtcOffsetSeconds(),
+                items
+        );
+    }
+
+    public ZoneOffset utcOffset(City city) {
+        return city.getUtcOffsetSeconds() != null ? ZoneOffset.ofTotalSeconds(city.getUtcOffsetSeconds()) : ZoneOffset.UTC;
+    }
+
     public WeatherResponse mapToWeatherResponse(CurrentWeather weather) {
         return new WeatherResponse(
                 weather.getCity().getName(),
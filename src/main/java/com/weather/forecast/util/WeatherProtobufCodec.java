@@ -0,0 +1,296 @@
+package com.weather.forecast.util;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.weather.forecast.dto.ForecastResponse;
+import com.weather.forecast.dto.ForecastSlice;
+import com.weather.forecast.dto.WeatherResponse;
+import com.weather.forecast.model.WeatherCondition;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.weather.forecast.dto.ForecastSlice.Field.CONDITIONS;
+import static com.weather.forecast.dto.ForecastSlice.Field.DATE;
+import static com.weather.forecast.dto.ForecastSlice.Field.DESCRIPTION;
+import static com.weather.forecast.dto.ForecastSlice.Field.HUMIDITY;
+import static com.weather.forecast.dto.ForecastSlice.Field.PROBABILITY;
+import static com.weather.forecast.dto.ForecastSlice.Field.RAIN_VOLUME;
+import static com.weather.forecast.dto.ForecastSlice.Field.TEMPERATURE;
+import static com.weather.forecast.dto.ForecastSlice.Field.WIND_SPEED;
+
+/**
+ * Reads and writes the messages in {@code src/main/proto/weather.proto} straight from the response records,
+ * so there is no generated message class to copy every response into. Field numbers here must match the schema.
+ */
+public final class WeatherProtobufCodec {
+
+    private static final Set<ForecastSlice.Field> ALL_FIELDS = EnumSet.allOf(ForecastSlice.Field.class);
+
+    private WeatherProtobufCodec() {
+    }
+
+    public static void writeWeather(WeatherResponse weather, OutputStream out) throws IOException {
+        CodedOutputStream output = CodedOutputStream.newInstance(out);
+        writeString(output, 1, weather.city());
+        writeString(output, 2, weather.country());
+        writeTime(output, 3, weather.timestamp());
+        writeDecimal(output, 4, weather.temperature());
+        writeInt(output, 5, weather.humidity());
+        writeDecimal(output, 6, weather.windSpeed());
+        writeInt(output, 7, weather.windDirection());
+        writeInt(output, 8, weather.pressure());
+        writeCondition(output, 9, weather.conditions());
+        writeString(output, 10, weather.description());
+        writeTime(output, 11, weather.sunrise());
+        writeTime(output, 12, weather.sunset());
+        output.flush();
+    }
+
+    public static void writeForecast(ForecastResponse forecast, OutputStream out) throws IOException {
+        writeForecast(forecast.city(), forecast.country(), forecast.forecasts(), ALL_FIELDS, out);
+    }
+
+    /** Item fields outside the slice's selection are left unset. */
+    public static void writeForecast(ForecastSlice slice, OutputStream out) throws IOException {
+        writeForecast(slice.city(), slice.country(), slice.forecasts(), slice.fields(), out);
+    }
+
+    private static void writeForecast(String city, String country, List<ForecastResponse.ForecastItem> items,
+                                      Set<ForecastSlice.Field> fields, OutputStream out) throws IOException {
+        CodedOutputStream output = CodedOutputStream.newInstance(out);
+        writeString(output, 1, city);
+        writeString(output, 2, country);
+        for (ForecastResponse.ForecastItem item : items) {
+            output.writeTag(3, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(itemSize(item, fields));
+            writeItem(output, item, fields);
+        }
+        output.flush();
+    }
+
+    private static void writeItem(CodedOutputStream output, ForecastResponse.ForecastItem item,
+                                  Set<ForecastSlice.Field> fields) throws IOException {
+        if (fields.contains(DATE)) writeTime(output, 1, item.date());
+        if (fields.contains(TEMPERATURE)) writeDecimal(output, 2, item.temperature());
+        if (fields.contains(HUMIDITY)) writeInt(output, 3, item.humidity());
+        if (fields.contains(WIND_SPEED)) writeDecimal(output, 4, item.windSpeed());
+        if (fields.contains(CONDITIONS)) writeCondition(output, 5, item.conditions());
+        if (fields.contains(DESCRIPTION)) writeString(output, 6, item.description());
+        if (fields.contains(RAIN_VOLUME)) writeDecimal(output, 7, item.rainVolume());
+        if (fields.contains(PROBABILITY)) writeDecimal(output, 8, item.probability());
+    }
+
+    /** Must count exactly what {@link #writeItem} writes; the length prefix goes out before the item. */
+    private static int itemSize(ForecastResponse.ForecastItem item, Set<ForecastSlice.Field> fields) {
+        int size = 0;
+        if (fields.contains(DATE)) size += timeSize(1, item.date());
+        if (fields.contains(TEMPERATURE)) size += decimalSize(2, item.temperature());
+        if (fields.contains(HUMIDITY)) size += intSize(3, item.humidity());
+        if (fields.contains(WIND_SPEED)) size += decimalSize(4, item.windSpeed());
+        if (fields.contains(CONDITIONS)) size += conditionSize(5, item.conditions());
+        if (fields.contains(DESCRIPTION)) size += stringSize(6, item.description());
+        if (fields.contains(RAIN_VOLUME)) size += decimalSize(7, item.rainVolume());
+        if (fields.contains(PROBABILITY)) size += decimalSize(8, item.probability());
+        return size;
+    }
+
+    public static WeatherResponse readWeather(InputStream in) throws IOException {
+        CodedInputStream input = CodedInputStream.newInstance(in);
+        String city = null;
+        String country = null;
+        Instant timestamp = null;
+        BigDecimal temperature = null;
+        Integer humidity = null;
+        BigDecimal windSpeed = null;
+        Integer windDirection = null;
+        Integer pressure = null;
+        WeatherCondition conditions = null;
+        String description = null;
+        Instant sunrise = null;
+        Instant sunset = null;
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case 1 -> city = input.readString();
+                case 2 -> country = input.readString();
+                case 3 -> timestamp = Instant.ofEpochSecond(input.readInt64());
+                case 4 -> temperature = decimal(input.readSInt32());
+                case 5 -> humidity = input.readInt32();
+                case 6 -> windSpeed = decimal(input.readSInt32());
+                case 7 -> windDirection = input.readInt32();
+                case 8 -> pressure = input.readInt32();
+                case 9 -> conditions = condition(input.readEnum());
+                case 10 -> description = input.readString();
+                case 11 -> sunrise = Instant.ofEpochSecond(input.readInt64());
+                case 12 -> sunset = Instant.ofEpochSecond(input.readInt64());
+                default -> input.skipField(tag);
+            }
+        }
+        return new WeatherResponse(city, country, timestamp, temperature, humidity, windSpeed, windDirection,
+                pressure, conditions, description, sunrise, sunset);
+    }
+
+    public static ForecastResponse readForecast(InputStream in) throws IOException {
+        CodedInputStream input = CodedInputStream.newInstance(in);
+        String city = null;
+        String country = null;
+        List<ForecastResponse.ForecastItem> items = new ArrayList<>();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case 1 -> city = input.readString();
+                case 2 -> country = input.readString();
+                case 3 -> {
+                    int limit = input.pushLimit(input.readRawVarint32());
+                    items.add(readItem(input));
+                    input.popLimit(limit);
+                }
+                default -> input.skipField(tag);
+            }
+        }
+        return new ForecastResponse(city, country, items);
+    }
+
+    private static ForecastResponse.ForecastItem readItem(CodedInputStream input) throws IOException {
+        Instant date = null;
+        BigDecimal temperature = null;
+        Integer humidity = null;
+        BigDecimal windSpeed = null;
+        WeatherCondition conditions = null;
+        String description = null;
+        BigDecimal rainVolume = null;
+        BigDecimal probability = null;
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case 1 -> date = Instant.ofEpochSecond(input.readInt64());
+                case 2 -> temperature = decimal(input.readSInt32());
+                case 3 -> humidity = input.readInt32();
+                case 4 -> windSpeed = decimal(input.readSInt32());
+                case 5 -> conditions = condition(input.readEnum());
+                case 6 -> description = input.readString();
+                case 7 -> rainVolume = decimal(input.readSInt32());
+                case 8 -> probability = decimal(input.readSInt32());
+                default -> input.skipField(tag);
+            }
+        }
+        return new ForecastResponse.ForecastItem(date, temperature, humidity, windSpeed, conditions, description,
+                rainVolume, probability);
+    }
+
+    private static void writeString(CodedOutputStream output, int field, String value) throws IOException {
+        if (value != null) {
+            output.writeString(field, value);
+        }
+    }
+
+    private static void writeTime(CodedOutputStream output, int field, Instant value) throws IOException {
+        if (value != null) {
+            output.writeInt64(field, value.getEpochSecond());
+        }
+    }
+
+    private static void writeDecimal(CodedOutputStream output, int field, BigDecimal value) throws IOException {
+        if (value != null) {
+            output.writeSInt32(field, hundredths(value));
+        }
+    }
+
+    private static void writeInt(CodedOutputStream output, int field, Integer value) throws IOException {
+        if (value != null) {
+            output.writeInt32(field, value);
+        }
+    }
+
+    private static void writeCondition(CodedOutputStream output, int field, WeatherCondition value) throws IOException {
+        if (value != null) {
+            output.writeEnum(field, conditionNumber(value));
+        }
+    }
+
+    private static int stringSize(int field, String value) {
+        return value != null ? CodedOutputStream.computeStringSize(field, value) : 0;
+    }
+
+    private static int timeSize(int field, Instant value) {
+        return value != null ? CodedOutputStream.computeInt64Size(field, value.getEpochSecond()) : 0;
+    }
+
+    private static int decimalSize(int field, BigDecimal value) {
+        return value != null ? CodedOutputStream.computeSInt32Size(field, hundredths(value)) : 0;
+    }
+
+    private static int intSize(int field, Integer value) {
+        return value != null ? CodedOutputStream.computeInt32Size(field, value) : 0;
+    }
+
+    private static int conditionSize(int field, WeatherCondition value) {
+        return value != null ? CodedOutputStream.computeEnumSize(field, conditionNumber(value)) : 0;
+    }
+
+    private static int hundredths(BigDecimal value) {
+        return value.movePointRight(2).setScale(0, RoundingMode.HALF_UP).intValueExact();
+    }
+
+    private static BigDecimal decimal(int hundredths) {
+        return BigDecimal.valueOf(hundredths, 2);
+    }
+
+    /**
+     * The {@code Condition} number in the schema. Numbers are part of the wire contract, so they are spelled out
+     * rather than derived from declaration order; a new constant does not compile until it is given one.
+     */
+    static int conditionNumber(WeatherCondition condition) {
+        return switch (condition) {
+            case CLEAR -> 1;
+            case CLOUDS -> 2;
+            case RAIN -> 3;
+            case DRIZZLE -> 4;
+            case THUNDERSTORM -> 5;
+            case SNOW -> 6;
+            case MIST -> 7;
+            case FOG -> 8;
+            case HAZE -> 9;
+            case DUST -> 10;
+            case SAND -> 11;
+            case ASH -> 12;
+            case SQUALL -> 13;
+            case TORNADO -> 14;
+            case SMOKE -> 15;
+            case UNKNOWN -> 16;
+        };
+    }
+
+    /** Numbers from a newer schema than this build knows come back as UNKNOWN rather than failing the read. */
+    static WeatherCondition condition(int number) {
+        return switch (number) {
+            case 0 -> null;
+            case 1 -> WeatherCondition.CLEAR;
+            case 2 -> WeatherCondition.CLOUDS;
+            case 3 -> WeatherCondition.RAIN;
+            case 4 -> WeatherCondition.DRIZZLE;
+            case 5 -> WeatherCondition.THUNDERSTORM;
+            case 6 -> WeatherCondition.SNOW;
+            case 7 -> WeatherCondition.MIST;
+            case 8 -> WeatherCondition.FOG;
+            case 9 -> WeatherCondition.HAZE;
+            case 10 -> WeatherCondition.DUST;
+            case 11 -> WeatherCondition.SAND;
+            case 12 -> WeatherCondition.ASH;
+            case 13 -> WeatherCondition.SQUALL;
+            case 14 -> WeatherCondition.TORNADO;
+            case 15 -> WeatherCondition.SMOKE;
+            default -> WeatherCondition.UNKNOWN;
+        };
+    }
+}
@@ -0,0 +1,3 @@
+-- Next time the scheduler should refresh each city, kept so the schedule survives restarts
+ALTER TABLE cities
+    ADD COLUMN next_refresh_at TIMESTAMP WITH TIME ZONE;
@@ -0,0 +1,11 @@
+-- Per-city refresh leases so that several nodes split the scheduled refresh work
+CREATE TABLE refresh_leases
+(
+    city_id    BIGINT                   NOT NULL,
+    owner      VARCHAR(255)             NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_refresh_leases PRIMARY KEY (city_id)
+);
+
+ALTER TABLE refresh_leases
+    ADD CONSTRAINT FK_REFRESH_LEASES_ON_CITY FOREIGN KEY (city_id) REFERENCES cities (id) ON DELETE CASCADE;
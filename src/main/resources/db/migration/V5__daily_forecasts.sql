@@ -0,0 +1,24 @@
+-- UTC offset reported by OpenWeatherMap, used to cut forecast slots into the city's local days
+ALTER TABLE cities
+    ADD COLUMN utc_offset_seconds INTEGER;
+
+-- Per-day summaries computed when forecast slots are stored
+CREATE TABLE daily_forecasts
+(
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    city_id             BIGINT                                  NOT NULL,
+    forecast_date       DATE                                    NOT NULL,
+    min_temperature     DECIMAL(5, 2),
+    max_temperature     DECIMAL(5, 2),
+    precipitation       DECIMAL(6, 2),
+    probability         DECIMAL(3, 2),
+    weather_main        VARCHAR(255),
+    weather_description VARCHAR(255),
+    slot_count          INTEGER                                 NOT NULL,
+    CONSTRAINT pk_daily_forecasts PRIMARY KEY (id)
+);
+
+ALTER TABLE daily_forecasts
+    ADD CONSTRAINT FK_DAILY_FORECASTS_ON_CITY FOREIGN KEY (city_id) REFERENCES cities (id) ON DELETE CASCADE;
+
+CREATE INDEX idx_daily_forecasts_city_date ON daily_forecasts (city_id, forecast_date);
@@ -0,0 +1,3 @@
+-- When each batch of forecast slots was fetched; the forecast's data version and Last-Modified time
+ALTER TABLE forecasts
+    ADD COLUMN fetched_at TIMESTAMP WITH TIME ZONE;
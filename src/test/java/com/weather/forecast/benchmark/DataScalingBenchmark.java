@@ -0,0 +1,284 @@
+package com.weather.forecast.benchmark;
+
+import com.weather.forecast.loadtest.UpstreamStub;
+import com.weather.forecast.model.City;
+import com.weather.forecast.repository.CityRepository;
+import com.weather.forecast.repository.CurrentWeatherRepository;
+import com.weather.forecast.repository.DailyForecastRepository;
+import com.weather.forecast.repository.ForecastRepository;
+import com.weather.forecast.service.CityService;
+import com.weather.forecast.service.WeatherService;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Grows a {@link SyntheticDataset} through {@code scale.cities} sizes and, at each, times every repository query
+ * and the database-bound {@link WeatherService} paths on randomly chosen cities, caches cleared before each
+ * call. Writes a CSV of p50/p90/p99 per operation and size plus a gnuplot script that draws latency against
+ * city count on log-log axes, where a flat line is an index doing its job and a slope of one is a table scan.
+ * <p>
+ * Runs on H2 by default, 10k and 100k cities. {@code -Dscale.database=postgres} runs on PostgreSQL in a
+ * container with the Flyway schema, 10k, 100k and 1M cities: the numbers to trust, as H2 indexes every foreign
+ * key. Run with {@code ./mvnw test -Pscaling}, plus {@code -Dscale.cities=...}, {@code -Dscale.iterations=...}
+ * or {@code -Dscale.report-dir=...}.
+ */
+@Tag("scaling")
+@SpringBootTest(properties = {
+        "logging.level.com.weather.forecast=WARN",
+        "logging.level.org.springframework.web=WARN"
+})
+@ActiveProfiles("test")
+class DataScalingBenchmark {
+
+    private static final boolean POSTGRES = "postgres".equals(System.getProperty("scale.database"));
+    private static final int BATCH = 20;
+    private static final int PAGE = 100;
+    // Operations reading a whole table are timed this many times at most
+    private static final int FULL_SCAN_ITERATIONS = 3;
+
+    static final UpstreamStub upstream = startUpstream();
+    static final PostgreSQLContainer<?> postgres = POSTGRES ? startPostgres() : null;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Autowired
+    private CurrentWeatherRepository currentWeatherRepository;
+
+    @Autowired
+    private ForecastRepository forecastRepository;
+
+    @Autowired
+    private DailyForecastRepository dailyForecastRepository;
+
+    @Autowired
+    private CityService cityService;
+
+    @Autowired
+    private WeatherService weatherService;
+
+    @Value("${scale.cities:}")
+    private List<Long> sizes;
+
+    @Value("${scale.iterations:200}")
+    private int iterations;
+
+    @Value("${scale.warmup-iterations:20}")
+    private int warmupIterations;
+
+    @Value("${scale.report-dir:target/scaling-reports}")
+    private Path reportDirectory;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("openweathermap.api.url", upstream::baseUrl);
+        if (postgres != null) {
+            // Batched inserts from the application are rewritten into multi-row statements
+            registry.add("spring.datasource.url", () -> postgres.getJdbcUrl() + "&reWriteBatchedInserts=true");
+            registry.add("spring.datasource.username", postgres::getUsername);
+            registry.add("spring.datasource.password", postgres::getPassword);
+            registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+            registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+            registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+            registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+            registry.add("spring.jpa.properties.hibernate.hbm2ddl.auto", () -> "none");
+            registry.add("spring.flyway.enabled", () -> "true");
+        }
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        upstream.close();
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @Test
+    void latencyByCityCount() throws Exception {
+        List<Long> cityCounts = sizes.isEmpty()
+                ? (POSTGRES ? List.of(10_000L, 100_000L, 1_000_000L) : List.of(10_000L, 100_000L))
+                : sizes.stream().sorted().toList();
+        SyntheticDataset dataset = new SyntheticDataset(dataSource, Instant.now());
+        dataset.clear();
+
+        List<ScalingReport.Row> rows = new ArrayList<>();
+        long generated = 0;
+        for (long cities : cityCounts) {
+            long started = System.nanoTime();
+            dataset.grow(generated, cities);
+            generated = cities;
+            analyze();
+            System.out.printf("[scaling] %d cities generated in %d s%n", cities,
+                    TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started));
+
+            for (Operation operation : operations(cities)) {
+                rows.add(new ScalingReport.Row(operation.name(), cities, time(operation)));
+            }
+        }
+
+        Path report = ScalingReport.write(reportDirectory, POSTGRES ? "postgres" : "h2", rows);
+        ScalingReport.print(rows);
+        System.out.printf("Report: %s%n", report.toAbsolutePath());
+
+        assertThat(rows).allSatisfy(row -> assertThat(row.latency().getTotalCount()).isPositive());
+    }
+
+    private List<Operation> operations(long cities) {
+        Instant now = Instant.now();
+        return List.of(
+                new Operation("CityRepository.findByNameIgnoreCase", iterations,
+                        random -> cityRepository.findByNameIgnoreCase(name(randomCity(random, cities)))),
+                new Operation("CityRepository.findByLowerCaseNameIn", iterations,
+                        random -> cityRepository.findByLowerCaseNameIn(names(random, cities, BATCH))),
+                new Operation("CityRepository.findTopSearchedCities", iterations,
+                        random -> cityRepository.findTopSearchedCities(5)),
+                new Operation("CityService.getRecentlySearchedCities", iterations,
+                        random -> cityService.getRecentlySearchedCities(5)),
+                new Operation("CityRepository.findByLatitudeIsNotNullAndLongitudeIsNotNull", FULL_SCAN_ITERATIONS,
+                        random -> cityRepository.findByLatitudeIsNotNullAndLongitudeIsNotNull()),
+                new Operation("CurrentWeatherRepository.findByCityId", iterations,
+                        random -> currentWeatherRepository.findByCityId(randomCity(random, cities))),
+                new Operation("CurrentWeatherRepository.findByCityIdIn", iterations,
+                        random -> currentWeatherRepository.findByCityIdIn(ids(random, cities, BATCH))),
+                new Operation("CurrentWeatherRepository.findDataAgeByCityIds", iterations,
+                        random -> currentWeatherRepository.findDataAgeByCityIds(ids(random, cities, PAGE))),
+                new Operation("ForecastRepository.findByCityIdAndForecastDateGreaterThan", iterations,
+                        random -> forecastRepository.findByCityIdAndForecastDateGreaterThanOrderByForecastDateAsc(
+                                randomCity(random, cities), now)),
+                new Operation("ForecastRepository.findByCityIdInAndForecastDateGreaterThan", iterations,
+                        random -> forecastRepository.findByCityIdInAndForecastDateGreaterThan(ids(random, cities, BATCH), now)),
+                new Operation("DailyForecastRepository.findByCityIdAndForecastDateGreaterThanEqual", iterations,
+                        random -> dailyForecastRepository.findByCityIdAndForecastDateGreaterThanEqualOrderByForecastDateAsc(
+                                randomCity(random, cities), LocalDate.ofInstant(now, ZoneOffset.UTC))),
+                // Three cities in four hold fresh current weather; the fourth goes to the upstream stub and is stored
+                new Operation("WeatherService.getCurrentWeather (fresh)", iterations,
+                        random -> weatherService.getCurrentWeather(name(freshCity(random, cities)))),
+                new Operation("WeatherService.getCurrentWeather (stale)", iterations,
+                        random -> weatherService.getCurrentWeather(name(staleCity(random, cities)))),
+                // Stored slots never pass the forecast freshness check, so this replaces a city's 40 slots
+                new Operation("WeatherService.getForecast", iterations,
+                        random -> weatherService.getForecast(name(randomCity(random, cities)))),
+                new Operation("WeatherService.getDailyForecast", iterations,
+                        random -> weatherService.getDailyForecast(name(randomCity(random, cities)))),
+                new Operation("WeatherService.getCurrentWeatherBatch", iterations,
+                        random -> weatherService.getCurrentWeatherBatch(LongStream.range(0, BATCH)
+                                .mapToObj(i -> name(freshCity(random, cities))).toList())),
+                new Operation("WeatherService.getStoredCurrentWeather", iterations,
+                        random -> weatherService.getStoredCurrentWeather(names(random, cities, BATCH))),
+                new Operation("WeatherService.getLastUpdated", iterations,
+                        random -> weatherService.getLastUpdated(ids(random, cities, PAGE).stream().map(id -> {
+                            City city = new City();
+                            city.setId(id);
+                            return city;
+                        }).toList())));
+    }
+
+    private Histogram time(Operation operation) {
+        Histogram latency = new Histogram(TimeUnit.MINUTES.toMicros(5), 3);
+        // Same seed at every size, so each size is timed on the same mix of calls
+        SplittableRandom random = new SplittableRandom(operation.name().hashCode());
+        int warmup = Math.min(warmupIterations, operation.iterations());
+        for (int i = 0; i < warmup + operation.iterations(); i++) {
+            clearCaches();
+            long started = System.nanoTime();
+            operation.call().accept(random);
+            if (i >= warmup) {
+                latency.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started));
+            }
+        }
+        return latency;
+    }
+
+    private void clearCaches() {
+        cacheManager.getCacheNames().stream().map(cacheManager::getCache).filter(Objects::nonNull).forEach(Cache::clear);
+    }
+
+    /** Refreshes planner statistics after a bulk load; H2 keeps its own up to date. */
+    private void analyze() throws Exception {
+        if (POSTGRES) {
+            try (var connection = dataSource.getConnection(); var statement = connection.createStatement()) {
+                statement.execute("ANALYZE");
+            }
+        }
+    }
+
+    private static long randomCity(SplittableRandom random, long cities) {
+        return random.nextLong(1, cities + 1);
+    }
+
+    private static long freshCity(SplittableRandom random, long cities) {
+        long city;
+        do {
+            city = randomCity(random, cities);
+        } while (city % 4 == 0);
+        return city;
+    }
+
+    private static long staleCity(SplittableRandom random, long cities) {
+        return random.nextLong(1, cities / 4 + 1) * 4;
+    }
+
+    private static List<Long> ids(SplittableRandom random, long cities, int count) {
+        return LongStream.range(0, count).map(i -> randomCity(random, cities)).boxed().toList();
+    }
+
+    private static List<String> names(SplittableRandom random, long cities, int count) {
+        return ids(random, cities, count).stream().map(DataScalingBenchmark::name).map(String::toLowerCase).toList();
+    }
+
+    private static String name(long cityId) {
+        return SyntheticDataset.cityName(cityId);
+    }
+
+    private static UpstreamStub startUpstream() {
+        try {
+            return new UpstreamStub(Duration.ZERO);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start upstream stub", e);
+        }
+    }
+
+    private static PostgreSQLContainer<?> startPostgres() {
+        PostgreSQLContainer<?> container = new PostgreSQLContainer<>("postgres:15-alpine");
+        container.start();
+        return container;
+    }
+
+    private record Operation(String name, int iterations, Consumer<SplittableRandom> call) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.weather.forecast.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.weather.forecast.config.ContentNegotiationConfig;
+import com.weather.forecast.dto.ForecastResponse;
+import com.weather.forecast.model.WeatherCondition;
+import com.weather.forecast.util.WeatherProtobufCodec;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Encodes and decodes a full 40-slot forecast in each response format and prints payload size (raw and gzipped)
+ * with mean encode and decode time. Every format must round-trip the forecast exactly.
+ * Run with {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class PayloadFormatBenchmark {
+
+    static final int WARMUP_ITERATIONS = 20_000;
+    static final int MEASURED_ITERATIONS = 50_000;
+
+    private static volatile Object blackhole;
+
+    private final ForecastResponse forecast = fortySlotForecast();
+
+    @Test
+    void compareFormats() throws Exception {
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        ObjectMapper cbor = ContentNegotiationConfig.binaryMapper(Jackson2ObjectMapperBuilder.json(), new CBORFactory());
+        ObjectMapper smile = ContentNegotiationConfig.binaryMapper(Jackson2ObjectMapperBuilder.json(), new SmileFactory());
+
+        List<Format> formats = List.of(
+                jackson("json", json),
+                jackson("cbor", cbor),
+                jackson("smile", smile),
+                new Format("protobuf", value -> {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+                    WeatherProtobufCodec.writeForecast(value, out);
+                    return out.toByteArray();
+                }, bytes -> WeatherProtobufCodec.readForecast(new ByteArrayInputStream(bytes))));
+
+        System.out.printf("%-9s %8s %8s %12s %12s%n", "format", "bytes", "gzipped", "encode µs", "decode µs");
+        for (Format format : formats) {
+            byte[] encoded = format.encoder().encode(forecast);
+            assertThat(format.decoder().decode(encoded)).isEqualTo(forecast);
+
+            double encodeMicros = time(() -> format.encoder().encode(forecast));
+            double decodeMicros = time(() -> format.decoder().decode(encoded));
+            System.out.printf("%-9s %8d %8d %12.2f %12.2f%n",
+                    format.name(), encoded.length, gzippedSize(encoded), encodeMicros, decodeMicros);
+        }
+    }
+
+    /** Mean microseconds per call after a warmup; each result is published so the JIT cannot drop the work. */
+    private static double time(Operation operation) throws IOException {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            blackhole = operation.run();
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            blackhole = operation.run();
+        }
+        return (System.nanoTime() - started) / 1_000.0 / MEASURED_ITERATIONS;
+    }
+
+    private static int gzippedSize(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.size();
+    }
+
+    private static Format jackson(String name, ObjectMapper mapper) {
+        return new Format(name, mapper::writeValueAsBytes, bytes -> mapper.readValue(bytes, ForecastResponse.class));
+    }
+
+    /** Five days of three-hourly slots with values of the precision the database stores. */
+    private static ForecastResponse fortySlotForecast() {
+        Instant start = Instant.parse("2024-06-01T00:00:00Z");
+        WeatherCondition[] conditions = {WeatherCondition.CLEAR, WeatherCondition.CLOUDS, WeatherCondition.RAIN};
+        List<ForecastResponse.ForecastItem> items = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            WeatherCondition condition = conditions[i % conditions.length];
+            items.add(new ForecastResponse.ForecastItem(
+                    start.plusSeconds(i * 10_800L),
+                    BigDecimal.valueOf(1200 + (i * 37) % 900, 2),
+                    55 + i % 40,
+                    BigDecimal.valueOf(150 + (i * 13) % 600, 2),
+                    condition,
+                    condition == WeatherCondition.RAIN ? "light rain" : condition == WeatherCondition.CLOUDS ? "scattered clouds" : "clear sky",
+                    condition == WeatherCondition.RAIN ? BigDecimal.valueOf(10 + i * 7, 2) : null,
+                    BigDecimal.valueOf((i * 11) % 100, 2)));
+        }
+        return new ForecastResponse("London", "GB", items);
+    }
+
+    private record Format(String name, Encoder encoder, Decoder decoder) {
+    }
+
+    private interface Encoder {
+        byte[] encode(ForecastResponse forecast) throws IOException;
+    }
+
+    private interface Decoder {
+        ForecastResponse decode(byte[] bytes) throws IOException;
+    }
+
+    private interface Operation {
+        Object run() throws IOException;
+    }
+}
@@ -0,0 +1,17 @@
+package com.weather.forecast.benchmark;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=false",
+        "server.tomcat.threads.max=50"
+})
+@ActiveProfiles("test")
+class PlatformThreadBenchmarkTest extends SlowUpstreamBenchmark {
+
+    @Override
+    String mode() {
+        return "platform";
+    }
+}
@@ -0,0 +1,85 @@
+package com.weather.forecast.benchmark;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Writes {@code scaling-<time>.csv} (operation, cities, p50/p90/p99/max in milliseconds) and a gnuplot script next
+ * to it; {@code gnuplot scaling-<time>.gp} draws p50 against city count per operation into a PNG. The printed
+ * table shows each operation's growth exponent: how p50 grows with the city count on a log-log scale, about 0
+ * for an index lookup and 1 for a scan.
+ */
+final class ScalingReport {
+
+    private ScalingReport() {
+    }
+
+    static Path write(Path directory, String database, List<Row> rows) throws IOException {
+        Files.createDirectories(directory);
+        String run = "scaling-" + database + "-" + Instant.now().toString().replace(":", "");
+
+        Path csv = directory.resolve(run + ".csv");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csv))) {
+            out.println("operation,cities,p50_ms,p90_ms,p99_ms,max_ms");
+            for (Row row : rows) {
+                out.printf(Locale.ROOT, "%s,%d,%.3f,%.3f,%.3f,%.3f%n", row.operation(), row.cities(), row.percentileMillis(50),
+                        row.percentileMillis(90), row.percentileMillis(99), row.latency().getMaxValue() / 1000.0);
+            }
+        }
+
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(directory.resolve(run + ".gp")))) {
+            out.printf("set terminal pngcairo size 1400,900%nset output '%s.png'%n", run);
+            out.printf("set title 'p50 latency by city count (%s)'%n", database);
+            out.println("set datafile separator ','");
+            out.println("set logscale xy");
+            out.println("set xlabel 'cities'");
+            out.println("set ylabel 'p50 (ms)'");
+            out.println("set key outside right");
+            String plots = operations(rows).keySet().stream()
+                    .map(operation -> "'%s.csv' using (strcol(1) eq '%s' ? $2 : NaN):3 with linespoints title '%s'"
+                            .formatted(run, operation, operation))
+                    .collect(Collectors.joining(", \\\n     "));
+            out.println("plot " + plots);
+        }
+        return csv;
+    }
+
+    static void print(List<Row> rows) {
+        operations(rows).forEach((operation, measured) -> {
+            StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "%-70s", operation));
+            for (Row row : measured) {
+                line.append(String.format(Locale.ROOT, " %8d: %8.2f ms", row.cities(), row.percentileMillis(50)));
+            }
+            if (measured.size() > 1) {
+                Row first = measured.get(0);
+                Row last = measured.get(measured.size() - 1);
+                double exponent = Math.log(last.percentileMillis(50) / first.percentileMillis(50))
+                        / Math.log((double) last.cities() / first.cities());
+                line.append(String.format(Locale.ROOT, "   growth ~n^%.2f", exponent));
+            }
+            System.out.println(line);
+        });
+    }
+
+    private static Map<String, List<Row>> operations(List<Row> rows) {
+        return rows.stream().collect(Collectors.groupingBy(Row::operation, LinkedHashMap::new, Collectors.toList()));
+    }
+
+    /** Latency in microseconds of one operation at one dataset size. */
+    record Row(String operation, long cities, Histogram latency) {
+
+        double percentileMillis(double percentile) {
+            return latency.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.weather.forecast.benchmark;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives {@code /api/weather/current} with many concurrent cache misses against an upstream stub that
+ * answers after {@link #UPSTREAM_DELAY_MS}. Subclasses pick the thread mode; compare their printed
+ * throughput and p99. Run with {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+abstract class SlowUpstreamBenchmark {
+
+    static final long UPSTREAM_DELAY_MS = 250;
+    static final int CONCURRENT_REQUESTS = 400;
+
+    // Shared by both modes for the lifetime of the test JVM
+    static final MockWebServer upstream = startUpstream();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void upstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("openweathermap.api.url", () -> upstream.url("/data/2.5").toString());
+    }
+
+    abstract String mode();
+
+    @Test
+    void concurrentCacheMisses() throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        long[] latenciesNanos = new long[CONCURRENT_REQUESTS];
+        List<Future<Integer>> results = new ArrayList<>();
+
+        long started = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                int index = i;
+                results.add(clients.submit(() -> {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(
+                            "http://localhost:" + port + "/api/weather/current?city=Bench" + mode() + index)).build();
+                    long requestStart = System.nanoTime();
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    latenciesNanos[index] = System.nanoTime() - requestStart;
+                    return response.statusCode();
+                }));
+            }
+            for (Future<Integer> result : results) {
+                assertThat(result.get(2, TimeUnit.MINUTES)).isEqualTo(200);
+            }
+        }
+        long elapsedNanos = System.nanoTime() - started;
+
+        Arrays.sort(latenciesNanos);
+        System.out.printf("[%s] %d requests in %d ms (%.1f req/s), p50=%d ms, p99=%d ms, max=%d ms%n",
+                mode(), CONCURRENT_REQUESTS, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                CONCURRENT_REQUESTS / (elapsedNanos / 1e9),
+                TimeUnit.NANOSECONDS.toMillis(percentile(latenciesNanos, 0.50)),
+                TimeUnit.NANOSECONDS.toMillis(percentile(latenciesNanos, 0.99)),
+                TimeUnit.NANOSECONDS.toMillis(latenciesNanos[latenciesNanos.length - 1]));
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        return sorted[(int) Math.ceil(quantile * sorted.length) - 1];
+    }
+
+    private static MockWebServer startUpstream() {
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String city = request.getRequestUrl().queryParameter("q");
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setHeadersDelay(UPSTREAM_DELAY_MS, TimeUnit.MILLISECONDS)
+                        .setBody("""
+                                {"coord":{"lon":0.0,"lat":0.0},
+                                 "weather":[{"id":800,"main":"Clear","description":"clear sky","icon":"01d"}],
+                                 "main":{"temp":15.0,"pressure":1013,"humidity":50},
+                                 "wind":{"speed":3.0,"deg":180},
+                                 "dt":%d,"sys":{"country":"GB","sunrise":0,"sunset":0},
+                                 "name":"%s","cod":200}
+                                """.formatted(System.currentTimeMillis() / 1000, city));
+            }
+        });
+        try {
+            server.start();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start upstream stub", e);
+        }
+        return server;
+    }
+}
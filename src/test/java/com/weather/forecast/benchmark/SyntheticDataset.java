@@ -0,0 +1,233 @@
+package com.weather.forecast.benchmark;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.SplittableRandom;
+import java.util.function.BiConsumer;
+
+/**
+ * Fills the schema with synthetic cities, each with current weather, {@value #SLOTS_PER_CITY} forecast slots and
+ * {@value #DAYS_PER_CITY} daily summaries. Rows are derived from the city id, so a dataset grown from 10k to 100k
+ * cities holds the same first 10k as one generated at 10k. Search counts fall off with the id like real
+ * popularity; a quarter of current weather rows are older than the freshness window.
+ * <p>
+ * PostgreSQL is loaded with {@code COPY}, anything else (H2) with batched inserts. Ids are written explicitly,
+ * after which the identity columns are moved past them so the application can keep inserting.
+ * <p>
+ * Also runnable on its own against a database migrated by Flyway:
+ * {@code SyntheticDataset <jdbc-url> <user> <password> <cities>}.
+ */
+final class SyntheticDataset {
+
+    static final int SLOTS_PER_CITY = 40;
+    static final int DAYS_PER_CITY = 6;
+
+    private static final int BATCH_SIZE = 5_000;
+    private static final String[] CONDITIONS = {"CLEAR", "CLOUDS", "RAIN", "DRIZZLE", "SNOW", "MIST"};
+
+    private final DataSource dataSource;
+    private final Instant now;
+
+    SyntheticDataset(DataSource dataSource, Instant now) {
+        this.dataSource = dataSource;
+        this.now = now.truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    static String cityName(long cityId) {
+        return "City" + cityId;
+    }
+
+    /** Adds cities {@code existing + 1} to {@code target} with all their weather rows. */
+    void grow(long existing, long target) throws SQLException {
+        if (target <= existing) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            boolean postgres = connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("PostgreSQL");
+            write(connection, postgres, "cities",
+                    "id, name, country, latitude, longitude, last_searched, search_count, next_refresh_at, utc_offset_seconds",
+                    existing, target, 1, this::city);
+            write(connection, postgres, "current_weather",
+                    "id, city_id, timestamp, temperature, humidity, wind_speed, wind_direction, pressure, weather_main, "
+                            + "weather_description, sunset, sunrise, last_updated",
+                    existing, target, 1, this::currentWeather);
+            write(connection, postgres, "forecasts",
+                    "id, city_id, forecast_date, temperature, wind_speed, wind_direction, pressure, humidity, weather_main, "
+                            + "weather_description, rain_volume, probability, fetched_at",
+                    existing, target, SLOTS_PER_CITY, this::forecast);
+            write(connection, postgres, "daily_forecasts",
+                    "id, city_id, forecast_date, min_temperature, max_temperature, precipitation, probability, weather_main, "
+                            + "weather_description, slot_count",
+                    existing, target, DAYS_PER_CITY, this::dailyForecast);
+            restartIdentity(connection, postgres, "cities", target + 1);
+            restartIdentity(connection, postgres, "current_weather", target + 1);
+            restartIdentity(connection, postgres, "forecasts", target * SLOTS_PER_CITY + 1);
+            restartIdentity(connection, postgres, "daily_forecasts", target * DAYS_PER_CITY + 1);
+            connection.commit();
+        }
+    }
+
+    void clear() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for (String table : new String[]{"daily_forecasts", "forecasts", "current_weather", "refresh_leases", "cities"}) {
+                statement.executeUpdate("DELETE FROM " + table);
+            }
+        }
+    }
+
+    private Object[] city(long cityId, int index) {
+        SplittableRandom random = new SplittableRandom(cityId);
+        return new Object[]{cityId, cityName(cityId), "C" + (char) ('A' + cityId % 26),
+                random.nextDouble(-60, 70), random.nextDouble(-180, 180),
+                time(now.minusSeconds(random.nextLong(30 * 86_400))), (int) Math.max(1, 1_000_000 / cityId),
+                time(now.plusSeconds(random.nextLong(3 * 3_600))), (int) (random.nextInt(-12, 15) * 3_600L)};
+    }
+
+    private Object[] currentWeather(long cityId, int index) {
+        SplittableRandom random = new SplittableRandom(cityId * 31);
+        // Within the 30-minute freshness window for three cities in four
+        Instant updated = now.minusSeconds(cityId % 4 == 0 ? 3_600 + random.nextInt(7_200) : random.nextInt(1_500));
+        return new Object[]{cityId, cityId, time(updated), decimal(random.nextDouble(-20, 40)), random.nextInt(10, 100),
+                decimal(random.nextDouble(0, 20)), random.nextInt(360), random.nextInt(980, 1040),
+                CONDITIONS[random.nextInt(CONDITIONS.length)], "synthetic", time(updated.plusSeconds(36_000)),
+                time(updated.minusSeconds(36_000)), time(updated)};
+    }
+
+    private Object[] forecast(long cityId, int slot) {
+        SplittableRandom random = new SplittableRandom(cityId * SLOTS_PER_CITY + slot);
+        Instant firstSlot = now.truncatedTo(ChronoUnit.HOURS).plus(Duration.ofHours(3));
+        return new Object[]{(cityId - 1) * SLOTS_PER_CITY + slot + 1, cityId, time(firstSlot.plus(Duration.ofHours(3L * slot))),
+                decimal(random.nextDouble(-20, 40)), decimal(random.nextDouble(0, 20)), random.nextInt(360),
+                random.nextInt(980, 1040), random.nextInt(10, 100), CONDITIONS[random.nextInt(CONDITIONS.length)],
+                "synthetic", decimal(random.nextDouble(0, 5)), decimal(random.nextDouble()), time(now.minusSeconds(600))};
+    }
+
+    private Object[] dailyForecast(long cityId, int day) {
+        SplittableRandom random = new SplittableRandom(cityId * DAYS_PER_CITY + day);
+        double min = random.nextDouble(-20, 30);
+        return new Object[]{(cityId - 1) * DAYS_PER_CITY + day + 1, cityId, LocalDate.ofInstant(now, ZoneOffset.UTC).plusDays(day),
+                decimal(min), decimal(min + random.nextDouble(0, 10)), decimal(random.nextDouble(0, 20)),
+                decimal(random.nextDouble()), CONDITIONS[random.nextInt(CONDITIONS.length)], "synthetic", 8};
+    }
+
+    private void write(Connection connection, boolean postgres, String table, String columns, long existing, long target,
+                       int rowsPerCity, RowGenerator rows) throws SQLException {
+        if (postgres) {
+            copy(connection, table, columns, existing, target, rowsPerCity, rows);
+            return;
+        }
+        int columnCount = columns.split(",").length;
+        String sql = "INSERT INTO " + table + " (" + columns + ") VALUES (" + "?, ".repeat(columnCount - 1) + "?)";
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            forEachRow(existing, target, rowsPerCity, rows, (row, last) -> {
+                try {
+                    for (int i = 0; i < row.length; i++) {
+                        insert.setObject(i + 1, row[i]);
+                    }
+                    insert.addBatch();
+                    if (last) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Could not insert into " + table, e);
+                }
+            });
+        }
+    }
+
+    private void copy(Connection connection, String table, String columns, long existing, long target, int rowsPerCity,
+                      RowGenerator rows) throws SQLException {
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn("COPY " + table + " (" + columns + ") FROM STDIN WITH (FORMAT csv)");
+        StringBuilder csv = new StringBuilder();
+        forEachRow(existing, target, rowsPerCity, rows, (row, last) -> {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    csv.append(',');
+                }
+                if (row[i] != null) {
+                    csv.append(row[i] instanceof String text ? '"' + text.replace("\"", "\"\"") + '"' : row[i].toString());
+                }
+            }
+            csv.append('\n');
+            if (last) {
+                try {
+                    byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+                    copyIn.writeToCopy(bytes, 0, bytes.length);
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Could not copy into " + table, e);
+                }
+                csv.setLength(0);
+            }
+        });
+        copyIn.endCopy();
+    }
+
+    /** Calls {@code sink} per row, flagging the last row of each batch and of the whole range. */
+    private static void forEachRow(long existing, long target, int rowsPerCity, RowGenerator rows, BiConsumer<Object[], Boolean> sink) {
+        long written = 0;
+        for (long cityId = existing + 1; cityId <= target; cityId++) {
+            for (int index = 0; index < rowsPerCity; index++) {
+                written++;
+                boolean last = written % BATCH_SIZE == 0 || (cityId == target && index == rowsPerCity - 1);
+                sink.accept(rows.row(cityId, index), last);
+            }
+        }
+    }
+
+    private static void restartIdentity(Connection connection, boolean postgres, String table, long next) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            if (postgres) {
+                statement.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), " + (next - 1) + ")");
+            } else {
+                statement.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+            }
+        }
+    }
+
+    private static OffsetDateTime time(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+
+    private static BigDecimal decimal(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @FunctionalInterface
+    private interface RowGenerator {
+        Object[] row(long cityId, int index);
+    }
+
+    public static void main(String[] args) throws SQLException {
+        if (args.length != 4) {
+            System.err.println("Usage: SyntheticDataset <jdbc-url> <user> <password> <cities>");
+            System.exit(2);
+        }
+        long cities = Long.parseLong(args[3]);
+        DataSource dataSource = new DriverManagerDataSource(args[0], args[1], args[2]);
+        long started = System.nanoTime();
+        SyntheticDataset dataset = new SyntheticDataset(dataSource, Instant.now());
+        dataset.clear();
+        dataset.grow(0, cities);
+        System.out.printf("Generated %d cities and %d forecasts in %d s%n", cities, cities * SLOTS_PER_CITY,
+                Duration.ofNanos(System.nanoTime() - started).toSeconds());
+    }
+}
@@ -0,0 +1,17 @@
+package com.weather.forecast.benchmark;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=true",
+        "weather.upstream.max-concurrency=64"
+})
+@ActiveProfiles("test")
+class VirtualThreadBenchmarkTest extends SlowUpstreamBenchmark {
+
+    @Override
+    String mode() {
+        return "virtual";
+    }
+}
@@ -0,0 +1,34 @@
+package com.weather.forecast.config;
+
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FirstRequestTimerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void filter_ShouldRecordOnlyTheFirstRequest() throws Exception {
+        long jvmStart = System.currentTimeMillis() - 5_000;
+        FirstRequestTimer timer = new FirstRequestTimer(meterRegistry, jvmStart);
+
+        timer.doFilter(new MockHttpServletRequest("GET", "/"), new MockHttpServletResponse(), new MockFilterChain());
+        TimeGauge gauge = meterRegistry.get(FirstRequestTimer.METRIC).timeGauge();
+        double first = gauge.value(TimeUnit.MILLISECONDS);
+
+        Thread.sleep(20);
+        timer.doFilter(new MockHttpServletRequest("GET", "/"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertTrue(first >= 5_000, String.valueOf(first));
+        assertEquals(first, gauge.value(TimeUnit.MILLISECONDS));
+        assertEquals(1, meterRegistry.find(FirstRequestTimer.METRIC).meters().size());
+    }
+}
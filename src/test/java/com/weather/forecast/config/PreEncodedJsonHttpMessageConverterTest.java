@@ -0,0 +1,143 @@
+package com.weather.forecast.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weather.forecast.dto.ForecastResponse;
+import com.weather.forecast.dto.WeatherResponse;
+import com.weather.forecast.model.WeatherCondition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PreEncodedJsonHttpMessageConverterTest {
+
+    private final ObjectMapper objectMapper = spy(Jackson2ObjectMapperBuilder.json().build());
+    private final PreEncodedJsonHttpMessageConverter converter = new PreEncodedJsonHttpMessageConverter(objectMapper, 1024, 100);
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+    @BeforeEach
+    void setUp() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void write_ShouldEncodeEachInstanceOnce() throws Exception {
+        WeatherResponse weather = weather("20.00");
+
+        MockHttpOutputMessage first = write(weather);
+        MockHttpOutputMessage second = write(weather);
+        write(weather("21.00"));
+
+        assertEquals(first.getBodyAsString(), second.getBodyAsString());
+        assertTrue(first.getBodyAsString().contains("\"temperature\":20.00"));
+        verify(objectMapper, times(2)).writeValueAsBytes(any());
+    }
+
+    @Test
+    void write_ShouldSendGzipCopyWhenAccepted() throws Exception {
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br");
+        ForecastResponse forecast = largeForecast();
+
+        MockHttpOutputMessage output = write(forecast);
+
+        assertEquals("gzip", output.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, output.getHeaders().getFirst(HttpHeaders.VARY));
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(output.getBodyAsBytes()))) {
+            assertArrayEquals(objectMapper.writeValueAsBytes(forecast), gzip.readAllBytes());
+        }
+    }
+
+    @Test
+    void write_ShouldTagGzipCopySeparately() throws Exception {
+        ForecastResponse forecast = largeForecast();
+        MockHttpOutputMessage identity = new MockHttpOutputMessage();
+        identity.getHeaders().setETag("\"fc-abc\"");
+        converter.write(forecast, MediaType.APPLICATION_JSON, identity);
+
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        MockHttpOutputMessage gzipped = new MockHttpOutputMessage();
+        gzipped.getHeaders().setETag("\"fc-abc\"");
+        converter.write(forecast, MediaType.APPLICATION_JSON, gzipped);
+
+        assertEquals("\"fc-abc\"", identity.getHeaders().getETag());
+        assertEquals("\"fc-abc.gzip\"", gzipped.getHeaders().getETag());
+    }
+
+    @Test
+    void write_ShouldSendIdentityWhenGzipNotAcceptedOrBodySmall() throws Exception {
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0");
+
+        MockHttpOutputMessage large = write(largeForecast());
+        request.removeHeader(HttpHeaders.ACCEPT_ENCODING);
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        MockHttpOutputMessage small = write(weather("20.00"));
+
+        assertNull(large.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertNull(small.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertNull(small.getHeaders().getFirst(HttpHeaders.VARY));
+        assertEquals(small.getBodyAsBytes().length, small.getHeaders().getContentLength());
+    }
+
+    @Test
+    void read_ShouldBeLeftToJackson() {
+        MockHttpInputMessage input = new MockHttpInputMessage("{}".getBytes());
+
+        assertFalse(converter.canRead(WeatherResponse.class, MediaType.APPLICATION_JSON));
+        assertThrows(HttpMessageNotReadableException.class, () -> converter.read(WeatherResponse.class, input));
+    }
+
+    @Test
+    void acceptsGzip_ShouldHonourQualityAndWildcard() {
+        assertTrue(PreEncodedJsonHttpMessageConverter.acceptsGzip("br, gzip;q=0.5"));
+        assertTrue(PreEncodedJsonHttpMessageConverter.acceptsGzip("*;q=0, gzip"));
+        assertTrue(PreEncodedJsonHttpMessageConverter.acceptsGzip("*"));
+        assertFalse(PreEncodedJsonHttpMessageConverter.acceptsGzip("gzip; q=0.000"));
+        assertFalse(PreEncodedJsonHttpMessageConverter.acceptsGzip("br"));
+        assertFalse(PreEncodedJsonHttpMessageConverter.acceptsGzip(null));
+    }
+
+    private MockHttpOutputMessage write(Object body) throws Exception {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(body, MediaType.APPLICATION_JSON, output);
+        return output;
+    }
+
+    private static WeatherResponse weather(String temperature) {
+        return new WeatherResponse("London", "GB", Instant.parse("2024-06-01T12:00:00Z"), new BigDecimal(temperature),
+                50, new BigDecimal("5.00"), 180, 1013, WeatherCondition.CLEAR, "clear sky", null, null);
+    }
+
+    private static ForecastResponse largeForecast() {
+        List<ForecastResponse.ForecastItem> items = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            items.add(new ForecastResponse.ForecastItem(Instant.parse("2024-06-01T00:00:00Z").plusSeconds(i * 10_800L),
+                    new BigDecimal("18.00"), 60, new BigDecimal("4.80"), WeatherCondition.CLOUDS, "scattered clouds",
+                    null, new BigDecimal("0.20")));
+        }
+        return new ForecastResponse("London", "GB", items);
+    }
+}
@@ -0,0 +1,106 @@
+package com.weather.forecast.config;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerTimingFilterTest {
+
+    private final ObservationRegistry observationRegistry = ObservationRegistry.create();
+    private final ServerTimingFilter filter = new ServerTimingFilter();
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    ServerTimingFilterTest() {
+        observationRegistry.observationConfig().observationHandler(new ServerTimingObservationHandler());
+    }
+
+    @Test
+    void filter_ShouldReportObservedWorkBeforeTheBody() throws Exception {
+        FilterChain chain = (request, response) -> {
+            observe("weather.db");
+            observe("weather.db");
+            observe("http.client.requests");
+            response.getWriter().write("{}");
+            response.flushBuffer();
+        };
+
+        filter.doFilter(new MockHttpServletRequest(), response, chain);
+
+        String header = response.getHeader(ServerTimingFilter.HEADER);
+        assertNotNull(header);
+        assertTrue(header.matches("db;dur=\\d+\\.\\d;desc=\"2 calls\", total;dur=\\d+\\.\\d"), header);
+        assertTrue(response.isCommitted());
+        assertNull(ServerTiming.current());
+    }
+
+    @Test
+    void filter_ShouldTimeNestedEntriesOfOneMetricOnce() throws Exception {
+        FilterChain chain = (request, response) -> Observation.createNotStarted("weather.load", observationRegistry)
+                .observe(() -> {
+                    sleep(20);
+                    observe("weather.load");
+                });
+
+        filter.doFilter(new MockHttpServletRequest(), response, chain);
+
+        String header = response.getHeader(ServerTimingFilter.HEADER);
+        assertTrue(header.startsWith("load;dur="), header);
+        assertTrue(header.contains("desc=\"2 calls\""), header);
+        double load = Double.parseDouble(header.replaceAll("^load;dur=([\\d.]+);.*", "$1"));
+        double total = Double.parseDouble(header.replaceAll(".*total;dur=([\\d.]+)$", "$1"));
+        assertTrue(load >= 20 && load <= total, header);
+    }
+
+    @Test
+    void filter_WithoutBody_ShouldWriteHeaderAtTheEnd() throws Exception {
+        filter.doFilter(new MockHttpServletRequest(), response, (request, response) -> observe("weather.render"));
+
+        assertTrue(response.getHeader(ServerTimingFilter.HEADER).startsWith("render;dur="));
+    }
+
+    @Test
+    void filter_ShouldCountWorkOnAContextPropagatingExecutor() throws Exception {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("page-");
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        FilterChain chain = (request, response) -> {
+            try {
+                executor.submit(() -> observe("weather.owm")).get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+
+        filter.doFilter(new MockHttpServletRequest(), response, chain);
+
+        assertTrue(response.getHeader(ServerTimingFilter.HEADER).startsWith("owm;dur="));
+    }
+
+    @Test
+    void observation_OutsideARequest_ShouldBeIgnored() {
+        observe("weather.owm");
+
+        assertNull(ServerTiming.current());
+    }
+
+    private void observe(String name) {
+        Observation.createNotStarted(name, observationRegistry).observe(() -> {
+        });
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
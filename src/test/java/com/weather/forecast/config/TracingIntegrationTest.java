@@ -0,0 +1,125 @@
+package com.weather.forecast.config;
+
+import com.weather.forecast.model.City;
+import com.weather.forecast.model.CurrentWeather;
+import com.weather.forecast.model.WeatherCondition;
+import com.weather.forecast.repository.CityRepository;
+import com.weather.forecast.repository.CurrentWeatherRepository;
+import com.weather.forecast.service.OpenWeatherMapClient;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** A request served from fresh stored data, traced end to end into the in-memory exporter. */
+@SpringBootTest(properties = "management.tracing.sampling.probability=1.0")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(metrics = false)
+@ActiveProfiles("test")
+class TracingIntegrationTest {
+
+    @TestConfiguration
+    static class InMemoryExporterConfig {
+
+        @Bean
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private InMemorySpanExporter spanExporter;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Autowired
+    private CurrentWeatherRepository currentWeatherRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private OpenWeatherMapClient weatherClient;
+
+    @BeforeEach
+    void setUp() {
+        currentWeatherRepository.deleteAll();
+        cityRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        seedCity("London");
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+        spanExporter.reset();
+    }
+
+    @Test
+    void currentWeather_ShouldReportServerTimingAndExportOneTrace() throws Exception {
+        String serverTiming = mockMvc.perform(get("/api/weather/current").param("city", "London"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("Server-Timing");
+
+        assertThat(serverTiming).contains("handler;dur=", "load;dur=", "db;dur=", "total;dur=");
+        verifyNoInteractions(weatherClient);
+
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+        List<SpanData> spans = spanExporter.getFinishedSpanItems();
+        SpanData handler = span(spans, "WeatherApiController.getCurrentWeather");
+        SpanData load = span(spans, "weather.load");
+        assertThat(load.getParentSpanId()).isEqualTo(handler.getSpanId());
+        assertThat(spans).allMatch(span -> span.getTraceId().equals(handler.getTraceId()));
+        assertThat(spans).anyMatch(span -> span.getName().startsWith("CurrentWeatherRepository.")
+                && span.getParentSpanId().equals(load.getSpanId()));
+    }
+
+    private static SpanData span(List<SpanData> spans, String name) {
+        return spans.stream().filter(span -> span.getName().equals(name)).findFirst()
+                .orElseThrow(() -> new AssertionError("No span " + name + " in " + spans));
+    }
+
+    private void seedCity(String name) {
+        City city = new City();
+        city.setName(name);
+        city.setCountry("GB");
+        city.setSearchCount(1);
+        city.setLastSearched(Instant.now());
+        city = cityRepository.save(city);
+
+        CurrentWeather weather = new CurrentWeather();
+        weather.setCity(city);
+        weather.setTimestamp(Instant.now());
+        weather.setTemperature(new BigDecimal("12.00"));
+        weather.setHumidity(70);
+        weather.setWeatherMain(WeatherCondition.CLOUDS);
+        weather.setWeatherDescription("overcast clouds");
+        weather.setLastUpdated(Instant.now().minus(5, ChronoUnit.MINUTES));
+        currentWeatherRepository.save(weather);
+    }
+}
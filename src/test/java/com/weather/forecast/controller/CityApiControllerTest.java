@@ -0,0 +1,44 @@
+package com.weather.forecast.controller;
+
+import com.weather.forecast.dto.CitySuggestion;
+import com.weather.forecast.service.CitySuggestionIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CityApiController.class)
+class CityApiControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CitySuggestionIndex citySuggestionIndex;
+
+    @Test
+    void suggest_ShouldReturnMatchingCities() throws Exception {
+        // Given
+        when(citySuggestionIndex.suggest("lon", 10)).thenReturn(List.of(new CitySuggestion("London", "GB")));
+
+        // When & Then
+        mockMvc.perform(get("/api/cities/suggest").param("prefix", "lon"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("London"))
+                .andExpect(jsonPath("$[0].country").value("GB"));
+    }
+
+    @Test
+    void suggest_WithBlankPrefix_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/cities/suggest").param("prefix", " "))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -1,28 +1,53 @@
 package com.weather.forecast.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.weather.forecast.config.ContentNegotiationConfig;
+import com.weather.forecast.config.WeatherProtobufHttpMessageConverter;
+import com.weather.forecast.dto.BatchResponse;
+import com.weather.forecast.dto.DailyForecastResponse;
 import com.weather.forecast.dto.ForecastResponse;
+import com.weather.forecast.dto.LocatedWeather;
 import com.weather.forecast.dto.WeatherResponse;
 import com.weather.forecast.exception.CityNotFoundException;
 import com.weather.forecast.exception.WeatherApiException;
 import com.weather.forecast.model.WeatherCondition;
+import com.weather.forecast.service.CityService;
+import com.weather.forecast.service.NearbyWeatherService;
+import com.weather.forecast.service.WeatherDataVersions;
 import com.weather.forecast.service.WeatherService;
+import com.weather.forecast.util.WeatherProtobufCodec;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(WeatherApiController.class)
@@ -34,6 +59,15 @@ class WeatherApiControllerTest {
     @MockBean
     private WeatherService weatherService;
 
+    @MockBean
+    private NearbyWeatherService nearbyWeatherService;
+
+    @MockBean
+    private CityService cityService;
+
+    @MockBean
+    private WeatherDataVersions dataVersions;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -193,6 +227,190 @@ class WeatherApiControllerTest {
                 .andExpect(jsonPath("$.forecasts[1].rainVolume").value(2.50));
     }
 
+    @Test
+    void getForecast_WithLimitAndFields_ShouldReturnOnlyRequestedSlice() throws Exception {
+        // Given
+        when(weatherService.getForecast("London")).thenReturn(testForecastResponse);
+
+        // When & Then
+        mockMvc.perform(get("/api/weather/forecast")
+                        .param("city", "London")
+                        .param("limit", "1")
+                        .param("fields", "date,temperature"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.city").value("London"))
+                .andExpect(jsonPath("$.forecasts").value(hasSize(1)))
+                .andExpect(jsonPath("$.forecasts[0].temperature").value(22.00))
+                .andExpect(jsonPath("$.forecasts[0].date").exists())
+                .andExpect(jsonPath("$.forecasts[0].humidity").doesNotExist())
+                .andExpect(jsonPath("$.forecasts[0].conditions").doesNotExist());
+    }
+
+    @Test
+    void getForecast_WithTimeWindow_ShouldReturnSlotsFromInclusiveToExclusive() throws Exception {
+        // Given
+        Instant second = testForecastResponse.forecasts().get(1).date();
+        when(weatherService.getForecast("London")).thenReturn(testForecastResponse);
+
+        // When & Then
+        mockMvc.perform(get("/api/weather/forecast")
+                        .param("city", "London")
+                        .param("from", second.toString())
+                        .param("to", second.plusSeconds(1).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.forecasts").value(hasSize(1)))
+                .andExpect(jsonPath("$.forecasts[0].temperature").value(18.00));
+
+        mockMvc.perform(get("/api/weather/forecast")
+                        .param("city", "London")
+                        .param("to", second.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.forecasts").value(hasSize(1)))
+                .andExpect(jsonPath("$.forecasts[0].temperature").value(22.00));
+    }
+
+    @Test
+    void getForecast_WithUnknownField_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/weather/forecast")
+                        .param("city", "London")
+                        .param("fields", "pressure"))
+                .andExpect(status().isBadRequest());
+
+        verify(weatherService, never()).getForecast("London");
+    }
+
+    @Test
+    void getCurrentWeather_WithKnownVersion_ShouldSendValidators() throws Exception {
+        // Given
+        WeatherDataVersions.DataVersion version = freshVersion();
+        when(dataVersions.find(WeatherDataVersions.Kind.CURRENT, "London")).thenReturn(Optional.of(version));
+        when(weatherService.getCurrentWeather("London")).thenReturn(testWeatherResponse);
+
+        // When & Then
+        mockMvc.perform(get("/api/weather/current").param("city", "London"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"cw-abc\""))
+                .andExpect(header().dateValue("Last-Modified", version.lastModified().toEpochMilli()))
+                .andExpect(header().string("Cache-Control", matchesPattern("max-age=(59[0-9]|600)")));
+    }
+
+    @Test
+    void getCurrentWeather_WithMatchingETag_ShouldReturnNotModifiedWithoutLoading() throws Exception {
+        // Given
+        when(dataVersions.find(WeatherDataVersions.Kind.CURRENT, "London")).thenReturn(Optional.of(freshVersion()));
+
+        // When & Then
+        mockMvc.perform(get("/api/weather/current")
+                        .param("city", "London")
+                        .header("If-None-Match", "\"other\", \"cw-abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"cw-abc\""))
+                .andExpect(content().string(""));
+
+        verify(weatherService, never()).getCurrentWeather("London");
+    }
+
+    @Test
+    void getCurrentWeather_WithCborAccept_ShouldTagCborRepresentation() throws Exception {
+        // Given
+        when(dataVersions.find(WeatherDataVersions.Kind.CURRENT, "London")).thenReturn(Optional.of(freshVersion()));
+        when(weatherService.getCurrentWeather("London")).thenReturn(testWeatherResponse);
+
+        // When & Then
+        mockMvc.perform(get("/api/weather/current").param("city", "London").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"cw-abc.cbor\""))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")));
+    }
+
+    @Test
+    void getCurrentWeather_WithMatchingRepresentationETag_ShouldEchoItOnNotModified() throws Exception {
+        // Given
+        when(dataVersions.find(WeatherDataVersions.Kind.CURRENT, "London")).thenReturn(Optional.of(freshVersion()));
+
+        // When & Then
+        mockMvc.perform(get("/api/weather/current")
+                        .param("city", "London")
+                        .accept("application/cbor")
+                        .header("If-None-Match", "\"cw-abc.cbor\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"cw-abc.cbor\""))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")));
+
+        verify(weatherService, never()).getCurrentWeather("London");
+    }
+
+    @Test
+    void getForecast_WithIfModifiedSince_ShouldReturnNotModifiedWithoutLoading() throws Exception {
+        // Given
+        WeatherDataVersions.DataVersion version = freshVersion();
+        when(dataVersions.find(WeatherDataVersions.Kind.FORECAST, "London")).thenReturn(Optional.of(version));
+
+        // When & Then
+        mockMvc.perform(get("/api/weather/forecast")
+                        .param("city", "London")
+                        .header("If-Modified-Since", DateTimeFormatter.RFC_1123_DATE_TIME.format(version.lastModified().atZone(ZoneOffset.UTC))))
+                .andExpect(status().isNotModified());
+
+        verify(weatherService, never()).getForecast("London");
+    }
+
+    @Test
+    void getCurrentWeather_WithStaleETag_ShouldReturnFullResponse() throws Exception {
+        // Given
+        when(dataVersions.find(WeatherDataVersions.Kind.CURRENT, "London")).thenReturn(Optional.of(freshVersion()));
+        when(weatherService.getCurrentWeather("London")).thenReturn(testWeatherResponse);
+
+        // When & Then
+        mockMvc.perform(get("/api/weather/current")
+                        .param("city", "London")
+                        .header("If-None-Match", "\"cw-old\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.city").value("London"));
+    }
+
+    @Test
+    void getCurrentWeather_WithCborAccept_ShouldReturnCbor() throws Exception {
+        // Given
+        when(weatherService.getCurrentWeather("London")).thenReturn(testWeatherResponse);
+        ObjectMapper cborMapper = ContentNegotiationConfig.binaryMapper(Jackson2ObjectMapperBuilder.json(), new CBORFactory());
+
+        // When
+        byte[] body = mockMvc.perform(get("/api/weather/current")
+                        .param("city", "London")
+                        .accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        WeatherResponse decoded = cborMapper.readValue(body, WeatherResponse.class);
+        assertEquals("London", decoded.city());
+        assertEquals(new BigDecimal("20.00"), decoded.temperature());
+        assertEquals(testWeatherResponse.timestamp().toEpochMilli(), decoded.timestamp().toEpochMilli());
+    }
+
+    @Test
+    void getForecast_WithProtobufAccept_ShouldReturnProtobuf() throws Exception {
+        // Given
+        when(weatherService.getForecast("London")).thenReturn(testForecastResponse);
+
+        // When
+        byte[] body = mockMvc.perform(get("/api/weather/forecast")
+                        .param("city", "London")
+                        .accept(WeatherProtobufHttpMessageConverter.PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(WeatherProtobufHttpMessageConverter.PROTOBUF))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        ForecastResponse decoded = WeatherProtobufCodec.readForecast(new ByteArrayInputStream(body));
+        assertEquals(2, decoded.forecasts().size());
+        assertEquals(WeatherCondition.RAIN, decoded.forecasts().get(1).conditions());
+        assertEquals(new BigDecimal("2.50"), decoded.forecasts().get(1).rainVolume());
+    }
+
     @Test
     void getForecast_WithCityNotFound_ShouldReturnNotFound() throws Exception {
         // Given
@@ -257,4 +475,135 @@ class WeatherApiControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
     }
+
+    @Test
+    void getCurrentWeatherBatch_ShouldReturnResultsAndPerCityErrors() throws Exception {
+        // Given
+        when(weatherService.getCurrentWeatherBatch(List.of("London", "Nowhere")))
+                .thenReturn(new BatchResponse<>(Map.of("London", testWeatherResponse), Map.of("Nowhere", "City not found: Nowhere")));
+
+        // When & Then
+        mockMvc.perform(post("/api/weather/current/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"cities\":[\"London\",\"Nowhere\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results.London.temperature").value(20.00))
+                .andExpect(jsonPath("$.errors.Nowhere").value("City not found: Nowhere"));
+    }
+
+    @Test
+    void getForecastBatch_ShouldReturnForecastsByCity() throws Exception {
+        // Given
+        when(weatherService.getForecastBatch(List.of("London")))
+                .thenReturn(new BatchResponse<>(Map.of("London", testForecastResponse), Map.of()));
+
+        // When & Then
+        mockMvc.perform(post("/api/weather/forecast/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"cities\":[\"London\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results.London.forecasts").value(hasSize(2)));
+    }
+
+    @Test
+    void getCurrentWeatherBatch_WithEmptyCityList_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/weather/current/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"cities\":[]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+    }
+
+    @Test
+    void getNearbyWeather_ShouldReturnCitiesWithDistance() throws Exception {
+        // Given
+        when(nearbyWeatherService.findNearby(51.5, -0.1, 25.0, 50))
+                .thenReturn(List.of(new LocatedWeather("London", 51.51, -0.13, 2.1, testWeatherResponse)));
+
+        // When & Then
+        mockMvc.perform(get("/api/weather/nearby")
+                        .param("lat", "51.5")
+                        .param("lon", "-0.1")
+                        .param("radius", "25"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].city").value("London"))
+                .andExpect(jsonPath("$[0].distanceKm").value(2.1))
+                .andExpect(jsonPath("$[0].weather.temperature").value(20.00));
+    }
+
+    @Test
+    void getNearbyWeather_WithInvalidLatitude_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/weather/nearby")
+                        .param("lat", "91")
+                        .param("lon", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getCurrentWeather_WithMisspelledKnownCity_ShouldServeCorrectedCity() throws Exception {
+        // Given
+        when(cityService.findCorrection("Londn")).thenReturn(Optional.of("London"));
+        when(weatherService.getCurrentWeather("London")).thenReturn(testWeatherResponse);
+
+        // When & Then
+        mockMvc.perform(get("/api/weather/current").param("city", "Londn"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Resolved-City", "London"))
+                .andExpect(jsonPath("$.city").value("London"));
+
+        verify(weatherService, never()).getCurrentWeather("Londn");
+    }
+
+    @Test
+    void getCurrentWeather_WhenUpstreamRejectsName_ShouldRetryWithCorrection() throws Exception {
+        // Given
+        when(cityService.findCorrection("Londn")).thenReturn(Optional.empty(), Optional.of("London"));
+        when(weatherService.getCurrentWeather("Londn")).thenThrow(new CityNotFoundException("City not found: Londn"));
+        when(weatherService.getCurrentWeather("London")).thenReturn(testWeatherResponse);
+
+        // When & Then
+        mockMvc.perform(get("/api/weather/current").param("city", "Londn"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Resolved-City", "London"))
+                .andExpect(jsonPath("$.city").value("London"));
+    }
+
+    @Test
+    void getCurrentWeather_WithExactName_ShouldNotCorrect() throws Exception {
+        // Given
+        when(weatherService.getCurrentWeather("Londn")).thenThrow(new CityNotFoundException("City not found: Londn"));
+
+        // When & Then
+        mockMvc.perform(get("/api/weather/current").param("city", "Londn").param("exact", "true"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist("X-Resolved-City"));
+
+        verify(cityService, never()).findCorrection(anyString());
+        verify(weatherService, never()).getCurrentWeather("London");
+    }
+
+    @Test
+    void getDailyForecast_ShouldReturnOneRowPerDay() throws Exception {
+        // Given
+        DailyForecastResponse daily = new DailyForecastResponse("London", "GB", 3600, List.of(
+                new DailyForecastResponse.DailyItem(LocalDate.of(2024, 6, 1), new BigDecimal("12.00"), new BigDecimal("19.50"),
+                        new BigDecimal("1.40"), new BigDecimal("0.60"), WeatherCondition.RAIN, "light rain", 8)));
+        when(weatherService.getDailyForecast("London")).thenReturn(daily);
+
+        // When & Then
+        mockMvc.perform(get("/api/weather/forecast/daily").param("city", "London"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.days").value(hasSize(1)))
+                .andExpect(jsonPath("$.days[0].date").value("2024-06-01"))
+                .andExpect(jsonPath("$.days[0].maxTemperature").value(19.50))
+                .andExpect(jsonPath("$.days[0].conditions").value("Rain"));
+    }
+
+    /** Stored ten seconds ago, fresh for another 600 seconds. */
+    private static WeatherDataVersions.DataVersion freshVersion() {
+        Instant stored = Instant.now().minusSeconds(10).truncatedTo(ChronoUnit.SECONDS);
+        return new WeatherDataVersions.DataVersion("cw-abc", stored, Instant.now().plusSeconds(600));
+    }
 }
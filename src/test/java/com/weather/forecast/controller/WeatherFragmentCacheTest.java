@@ -0,0 +1,109 @@
+package com.weather.forecast.controller;
+
+import com.weather.forecast.controller.WeatherFragmentCache.Fragment;
+import com.weather.forecast.controller.WeatherFragmentCache.Lookup;
+import com.weather.forecast.dto.WeatherResponse;
+import com.weather.forecast.model.WeatherCondition;
+import com.weather.forecast.service.CacheInvalidationBus;
+import com.weather.forecast.service.WeatherDataVersions;
+import com.weather.forecast.service.WeatherUpdatedEvent;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WeatherFragmentCacheTest {
+
+    private final CacheInvalidationBus cacheInvalidationBus = mock(CacheInvalidationBus.class);
+    private final WeatherDataVersions dataVersions = new WeatherDataVersions(cacheInvalidationBus, 100);
+    private final WeatherFragmentCache fragmentCache = new WeatherFragmentCache(templateEngine(), dataVersions, cacheInvalidationBus, 100);
+
+    private final WeatherResponse weather = new WeatherResponse("London", "GB", Instant.now(), new BigDecimal("20.00"), 65,
+            new BigDecimal("5.20"), 180, 1012, WeatherCondition.CLOUDS, "scattered clouds", Instant.now(), Instant.now());
+
+    @Test
+    void render_ShouldCacheFragmentUnderCurrentVersion() {
+        dataVersions.record(WeatherDataVersions.Kind.CURRENT, "london", Instant.now());
+        Lookup miss = fragmentCache.lookup(Fragment.CURRENT_CARD, "London", Locale.UK);
+
+        String html = fragmentCache.render(miss, Map.of("weather", weather));
+
+        assertNull(miss.html());
+        assertTrue(html.contains("scattered clouds"), html);
+        assertEquals(html, fragmentCache.lookup(Fragment.CURRENT_CARD, "london", Locale.UK).html());
+        assertNull(fragmentCache.lookup(Fragment.CURRENT_CARD, "london", Locale.FRANCE).html());
+    }
+
+    @Test
+    void lookup_AfterNewVersion_ShouldMiss() {
+        Instant stored = Instant.now().minusSeconds(60);
+        dataVersions.record(WeatherDataVersions.Kind.CURRENT, "london", stored);
+        fragmentCache.render(fragmentCache.lookup(Fragment.CURRENT_CARD, "london", Locale.UK), Map.of("weather", weather));
+
+        dataVersions.record(WeatherDataVersions.Kind.CURRENT, "london", stored.plusSeconds(30));
+
+        assertNull(fragmentCache.lookup(Fragment.CURRENT_CARD, "london", Locale.UK).html());
+    }
+
+    @Test
+    void render_WhenVersionChangedWhileLoading_ShouldNotCache() {
+        Instant stored = Instant.now().minusSeconds(60);
+        dataVersions.record(WeatherDataVersions.Kind.CURRENT, "london", stored);
+        Lookup before = fragmentCache.lookup(Fragment.CURRENT_CARD, "london", Locale.UK);
+
+        dataVersions.record(WeatherDataVersions.Kind.CURRENT, "london", stored.plusSeconds(30));
+        fragmentCache.render(before, Map.of("weather", weather));
+        dataVersions.record(WeatherDataVersions.Kind.CURRENT, "london", stored);
+
+        assertNull(fragmentCache.lookup(Fragment.CURRENT_CARD, "london", Locale.UK).html());
+    }
+
+    @Test
+    void render_WithoutVersion_ShouldNotCache() {
+        fragmentCache.render(fragmentCache.lookup(Fragment.CURRENT_CARD, "london", Locale.UK), Map.of("weather", weather));
+
+        dataVersions.record(WeatherDataVersions.Kind.CURRENT, "london", Instant.now());
+
+        assertNull(fragmentCache.lookup(Fragment.CURRENT_CARD, "london", Locale.UK).html());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void updates_ShouldDropFragmentsOfThatCity() {
+        Instant stored = Instant.now();
+        dataVersions.record(WeatherDataVersions.Kind.CURRENT, "london", stored);
+        dataVersions.record(WeatherDataVersions.Kind.CURRENT, "paris", stored);
+        fragmentCache.render(fragmentCache.lookup(Fragment.CURRENT_CARD, "london", Locale.UK), Map.of("weather", weather));
+        fragmentCache.render(fragmentCache.lookup(Fragment.CURRENT_CARD, "paris", Locale.UK), Map.of("weather", weather));
+
+        fragmentCache.onWeatherUpdated(new WeatherUpdatedEvent("london", weather));
+
+        assertNull(fragmentCache.lookup(Fragment.CURRENT_CARD, "london", Locale.UK).html());
+        assertNotNull(fragmentCache.lookup(Fragment.CURRENT_CARD, "paris", Locale.UK).html());
+
+        ArgumentCaptor<Consumer<Set<String>>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(cacheInvalidationBus, times(2)).subscribe(listener.capture());
+        listener.getAllValues().get(1).accept(Set.of("paris"));
+
+        assertNull(fragmentCache.lookup(Fragment.CURRENT_CARD, "paris", Locale.UK).html());
+    }
+
+    private static SpringTemplateEngine templateEngine() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        return templateEngine;
+    }
+}
@@ -2,15 +2,23 @@ package com.weather.forecast.controller;
 
 import com.weather.forecast.dto.ForecastResponse;
 import com.weather.forecast.dto.WeatherResponse;
+import com.weather.forecast.exception.CityNotFoundException;
 import com.weather.forecast.model.City;
 import com.weather.forecast.model.WeatherCondition;
+import com.weather.forecast.service.CacheInvalidationBus;
 import com.weather.forecast.service.CityService;
+import com.weather.forecast.service.WeatherDataVersions;
 import com.weather.forecast.service.WeatherService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
@@ -19,15 +27,35 @@ import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@WebMvcTest(WebController.class)
+@WebMvcTest(controllers = WebController.class, properties = "weather.page.deadline=500ms")
+@Import(WeatherFragmentCache.class)
 class WebControllerTest {
 
+    @TestConfiguration
+    static class PageExecutorConfig {
+
+        @Bean
+        AsyncTaskExecutor pageExecutor() {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("page-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+    }
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -37,6 +65,12 @@ class WebControllerTest {
     @MockBean
     private CityService cityService;
 
+    @MockBean
+    private WeatherDataVersions dataVersions;
+
+    @MockBean
+    private CacheInvalidationBus cacheInvalidationBus;
+
     private WeatherResponse testWeatherResponse;
     private ForecastResponse testForecastResponse;
     private List<City> testCities;
@@ -122,6 +156,37 @@ class WebControllerTest {
                 .andExpect(model().attribute("recentCities", testCities));
     }
 
+    @Test
+    void getWeather_WithMisspelledKnownCity_ShouldShowCorrectedCity() throws Exception {
+        // Given
+        when(cityService.findCorrection("Londn")).thenReturn(Optional.of("London"));
+        when(weatherService.getCurrentWeather("London")).thenReturn(testWeatherResponse);
+        when(weatherService.getForecast("London")).thenReturn(testForecastResponse);
+        when(cityService.getRecentlySearchedCities(5)).thenReturn(testCities);
+
+        // When & Then
+        mockMvc.perform(get("/weather").param("city", "Londn"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("weather"))
+                .andExpect(model().attribute("weather", testWeatherResponse))
+                .andExpect(model().attribute("correctedFrom", "Londn"));
+    }
+
+    @Test
+    void getWeather_WhenUpstreamRejectsName_ShouldShowCorrectedCity() throws Exception {
+        // Given
+        when(cityService.findCorrection("Londn")).thenReturn(Optional.empty(), Optional.of("London"));
+        when(weatherService.getCurrentWeather("Londn")).thenThrow(new CityNotFoundException("City not found: Londn"));
+        when(weatherService.getCurrentWeather("London")).thenReturn(testWeatherResponse);
+        when(weatherService.getForecast("London")).thenReturn(testForecastResponse);
+
+        // When & Then
+        mockMvc.perform(get("/weather").param("city", "Londn"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("weather", testWeatherResponse))
+                .andExpect(model().attribute("correctedFrom", "Londn"));
+    }
+
     @Test
     void getWeather_WithEmptyCity_ShouldRedirectToHome() throws Exception {
         // When & Then
@@ -222,4 +287,125 @@ class WebControllerTest {
         // The order is implicit in the fact that all three model attributes are present
         // which means all three service calls were successful
     }
+
+    @Test
+    void getWeather_WithSlowForecast_ShouldRenderWithoutItAtTheDeadline() throws Exception {
+        // Given
+        when(weatherService.getCurrentWeather("London")).thenReturn(testWeatherResponse);
+        when(weatherService.getForecast("London")).thenAnswer(invocation -> {
+            Thread.sleep(3_000);
+            return testForecastResponse;
+        });
+        when(cityService.getRecentlySearchedCities(5)).thenReturn(testCities);
+
+        // When & Then
+        long started = System.nanoTime();
+        mockMvc.perform(get("/weather").param("city", "London"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("weather"))
+                .andExpect(model().attribute("weather", testWeatherResponse))
+                .andExpect(model().attribute("forecast", (Object) null))
+                .andExpect(model().attribute("recentCities", testCities))
+                .andExpect(content().string(containsString("The forecast is taking longer than usual")));
+        assertTrue(System.nanoTime() - started < 2_000_000_000L);
+    }
+
+    @Test
+    void getWeather_WithSlowCurrentWeather_ShouldRenderForecast() throws Exception {
+        // Given
+        when(weatherService.getCurrentWeather("London")).thenAnswer(invocation -> {
+            Thread.sleep(3_000);
+            return testWeatherResponse;
+        });
+        when(weatherService.getForecast("London")).thenReturn(testForecastResponse);
+        when(cityService.getRecentlySearchedCities(5)).thenReturn(testCities);
+
+        // When & Then
+        mockMvc.perform(get("/weather").param("city", "London"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("weather", (Object) null))
+                .andExpect(model().attribute("forecast", testForecastResponse))
+                .andExpect(content().string(containsString("Current weather is taking longer than usual")));
+    }
+
+    @Test
+    void getWeather_WhenRecentCitiesFail_ShouldRenderWithoutThem() throws Exception {
+        // Given
+        when(weatherService.getCurrentWeather("London")).thenReturn(testWeatherResponse);
+        when(weatherService.getForecast("London")).thenReturn(testForecastResponse);
+        when(cityService.getRecentlySearchedCities(5)).thenThrow(new IllegalStateException("database unavailable"));
+
+        // When & Then
+        mockMvc.perform(get("/weather").param("city", "London"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("weather", testWeatherResponse))
+                .andExpect(model().attribute("recentCities", Collections.emptyList()));
+    }
+
+    @Test
+    void getWeather_WithNewCity_ShouldCreateItBeforeLoading() throws Exception {
+        // Given
+        when(cityService.findByName("London")).thenReturn(Optional.empty());
+        when(weatherService.getCurrentWeather("London")).thenReturn(testWeatherResponse);
+        when(weatherService.getForecast("London")).thenReturn(testForecastResponse);
+
+        // When
+        mockMvc.perform(get("/weather").param("city", "London")).andExpect(status().isOk());
+
+        // Then
+        verify(cityService).findOrCreateCity("London");
+    }
+
+    @Test
+    void getWeather_WithKnownCity_ShouldNotCreateIt() throws Exception {
+        // Given
+        when(cityService.findByName("London")).thenReturn(Optional.of(testCities.get(0)));
+        when(weatherService.getCurrentWeather("London")).thenReturn(testWeatherResponse);
+        when(weatherService.getForecast("London")).thenReturn(testForecastResponse);
+
+        // When
+        mockMvc.perform(get("/weather").param("city", "London")).andExpect(status().isOk());
+
+        // Then
+        verify(cityService, never()).findOrCreateCity(anyString());
+    }
+
+    @Test
+    void getWeather_ForHotCity_ShouldServeCachedFragmentsWithoutLoadingWeather() throws Exception {
+        // Given
+        Instant stored = Instant.now();
+        when(dataVersions.find(any(), anyString()))
+                .thenReturn(Optional.of(new WeatherDataVersions.DataVersion("cw-1", stored, stored.plusSeconds(1800))));
+        when(weatherService.getCurrentWeather("London")).thenReturn(testWeatherResponse);
+        when(weatherService.getForecast("London")).thenReturn(testForecastResponse);
+        when(cityService.getRecentlySearchedCities(5)).thenReturn(testCities);
+        mockMvc.perform(get("/weather").param("city", "London")).andExpect(status().isOk());
+
+        // When & Then
+        mockMvc.perform(get("/weather").param("city", "London"))
+                .andExpect(status().isOk())
+                .andExpect(model().attributeDoesNotExist("weather", "forecast"))
+                .andExpect(content().string(containsString("scattered clouds")))
+                .andExpect(content().string(containsString("forecast-container")));
+        verify(weatherService, times(1)).getCurrentWeather("London");
+        verify(weatherService, times(1)).getForecast("London");
+    }
+
+    @Test
+    void getWeather_WithMisspelledCity_ShouldNotServeCachedCard() throws Exception {
+        // Given
+        Instant stored = Instant.now();
+        when(dataVersions.find(any(), anyString()))
+                .thenReturn(Optional.of(new WeatherDataVersions.DataVersion("cw-2", stored, stored.plusSeconds(1800))));
+        when(cityService.findCorrection("Londn")).thenReturn(Optional.of("London"));
+        when(weatherService.getCurrentWeather("London")).thenReturn(testWeatherResponse);
+        when(weatherService.getForecast("London")).thenReturn(testForecastResponse);
+        mockMvc.perform(get("/weather").param("city", "London")).andExpect(status().isOk());
+
+        // When & Then
+        mockMvc.perform(get("/weather").param("city", "Londn"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("you searched for")));
+        verify(weatherService, times(2)).getCurrentWeather("London");
+    }
 }
@@ -0,0 +1,77 @@
+package com.weather.forecast.jfr;
+
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecorderEndpointTest {
+
+    private final FlightRecorderEndpoint endpoint = new FlightRecorderEndpoint();
+    private FlightRecorderEndpoint.RecordingInfo started;
+
+    @AfterEach
+    void tearDown() {
+        if (started != null) {
+            endpoint.close(started.id());
+        }
+    }
+
+    @Test
+    void startStopDump_ShouldCaptureWeatherEvents() throws Exception {
+        started = endpoint.start("test", null, null, null);
+        assertEquals(RecordingState.RUNNING, started.state());
+        assertTrue(endpoint.recordings().stream().anyMatch(recording -> recording.id() == started.id()));
+
+        ForecastPersistEvent event = new ForecastPersistEvent();
+        event.begin();
+        event.city = "London";
+        event.slots = 40;
+        event.days = 6;
+        event.commit();
+        CacheMissEvent.coalesced("forecast", "London");
+
+        assertEquals(RecordingState.STOPPED, endpoint.stop(started.id()).getBody().state());
+        WebEndpointResponse<Resource> dump = endpoint.dump(started.id());
+
+        assertEquals(WebEndpointResponse.STATUS_OK, dump.getStatus());
+        List<RecordedEvent> events = read(dump.getBody());
+        RecordedEvent persisted = find(events, ForecastPersistEvent.NAME);
+        assertEquals("London", persisted.getString("city"));
+        assertEquals(40, persisted.getInt("slots"));
+        assertTrue(find(events, CacheMissEvent.NAME).getBoolean("coalesced"));
+        assertFalse(Files.exists(dump.getBody().getFile().toPath()));
+    }
+
+    @Test
+    void unknownRecording_ShouldBeNotFound() throws Exception {
+        assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, endpoint.stop(-1).getStatus());
+        assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, endpoint.dump(-1).getStatus());
+        assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, endpoint.close(-1).getStatus());
+    }
+
+    private static List<RecordedEvent> read(Resource dump) throws Exception {
+        Path copy = Files.createTempFile("dump", ".jfr");
+        try (InputStream in = dump.getInputStream()) {
+            Files.write(copy, in.readAllBytes());
+            return RecordingFile.readAllEvents(copy);
+        } finally {
+            Files.delete(copy);
+        }
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).findFirst()
+                .orElseThrow(() -> new AssertionError("No " + name + " event"));
+    }
+}
@@ -0,0 +1,79 @@
+package com.weather.forecast.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class OwmFetchRecorderTest {
+
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+    private final Recording recording = new Recording();
+
+    @BeforeEach
+    void setUp() {
+        restTemplate.getInterceptors().add(new OwmFetchRecorder());
+        recording.enable(OwmFetchEvent.NAME);
+        recording.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        recording.close();
+    }
+
+    @Test
+    void fetch_ShouldRecordCityEndpointSizeAndStatus() throws Exception {
+        String body = "{\"name\":\"São Paulo\"}";
+        server.expect(requestTo("https://owm.test/data/2.5/weather?q=S%C3%A3o%20Paulo&appid=secret"))
+                .andRespond(withSuccess(body, MediaType.APPLICATION_JSON));
+        server.expect(requestTo("https://owm.test/data/2.5/forecast?q=Nowhere&appid=secret"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+        restTemplate.getForObject("https://owm.test/data/2.5/weather?q=São Paulo&appid=secret", String.class);
+        assertThrows(HttpClientErrorException.NotFound.class,
+                () -> restTemplate.getForObject("https://owm.test/data/2.5/forecast?q=Nowhere&appid=secret", String.class));
+
+        List<RecordedEvent> events = recordedEvents();
+        assertEquals(2, events.size());
+        RecordedEvent weather = events.get(0);
+        assertEquals("São Paulo", weather.getString("city"));
+        assertEquals("weather", weather.getString("endpoint"));
+        assertEquals(200, weather.getInt("status"));
+        assertEquals(body.getBytes().length, weather.getLong("bytes"));
+        RecordedEvent forecast = events.get(1);
+        assertEquals("forecast", forecast.getString("endpoint"));
+        assertEquals(404, forecast.getInt("status"));
+    }
+
+    private List<RecordedEvent> recordedEvents() throws Exception {
+        recording.stop();
+        Path file = Files.createTempFile("owm-fetch", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals(OwmFetchEvent.NAME))
+                    .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                    .toList();
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.weather.forecast.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Sends requests from virtual threads and records their latency, in microseconds, in an HdrHistogram.
+ * <p>
+ * With a target rate the load is open: requests are started on a fixed schedule whatever the server's speed,
+ * and latency is measured from when a request was due, so a stall counts against every request it delays
+ * (no coordinated omission). Without one, {@code clients} threads each send their next request as soon as the
+ * last one returns, which finds the throughput ceiling. Requests during the warm-up are sent but not recorded.
+ */
+final class LoadGenerator {
+
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final HttpClient client;
+    private final Settings settings;
+
+    LoadGenerator(HttpClient client, Settings settings) {
+        this.client = client;
+        this.settings = settings;
+    }
+
+    Result run(String name, Supplier<HttpRequest> nextRequest) throws InterruptedException {
+        Recorder recorder = new Recorder(HIGHEST_LATENCY_MICROS, 3);
+        LongAdder errors = new LongAdder();
+        long measureFrom = System.nanoTime() + settings.warmup().toNanos();
+        long until = measureFrom + settings.duration().toNanos();
+
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (settings.targetRate() > 0) {
+                long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / settings.targetRate());
+                for (long due = System.nanoTime(); due < until; due += intervalNanos) {
+                    long wait = due - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    long scheduled = due;
+                    HttpRequest request = nextRequest.get();
+                    threads.execute(() -> send(request, scheduled, measureFrom, recorder, errors));
+                }
+            } else {
+                for (int i = 0; i < settings.clients(); i++) {
+                    threads.execute(() -> {
+                        while (System.nanoTime() < until) {
+                            send(nextRequest.get(), System.nanoTime(), measureFrom, recorder, errors);
+                        }
+                    });
+                }
+            }
+        }
+        Histogram latency = recorder.getIntervalHistogram();
+        return new Result(name, latency, errors.sum(), settings.duration());
+    }
+
+    private void send(HttpRequest request, long startedNanos, long measureFrom, Recorder recorder, LongAdder errors) {
+        boolean ok;
+        try {
+            ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            ok = false;
+        }
+        if (startedNanos < measureFrom) {
+            return;
+        }
+        if (ok) {
+            recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startedNanos), HIGHEST_LATENCY_MICROS));
+        } else {
+            errors.increment();
+        }
+    }
+
+    /** @param targetRate requests per second; 0 for closed-loop load from {@code clients} threads */
+    record Settings(int clients, double targetRate, Duration warmup, Duration duration) {
+    }
+
+    /** Successful requests in {@code latency}; failed ones (errors and statuses of 400 and up) only counted. */
+    record Result(String name, Histogram latency, long errors, Duration duration) {
+
+        double requestsPerSecond() {
+            return latency.getTotalCount() / (duration.toNanos() / 1e9);
+        }
+
+        double percentileMillis(double percentile) {
+            return latency.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.weather.forecast.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a run as {@code load-<time>.json} (settings, then per scenario: requests, errors, throughput and
+ * latency percentiles in milliseconds) plus one HdrHistogram percentile distribution ({@code .hgrm}) per
+ * scenario, which HdrHistogram's plotter can overlay across runs.
+ */
+final class LoadReport {
+
+    private static final Map<String, Double> PERCENTILES = Map.of("p50", 50.0, "p90", 90.0, "p99", 99.0, "p999", 99.9);
+
+    private LoadReport() {
+    }
+
+    static Path write(Path directory, Map<String, Object> settings, List<LoadGenerator.Result> results) throws IOException {
+        Files.createDirectories(directory);
+        String run = "load-" + Instant.now().toString().replace(":", "");
+
+        Map<String, Object> scenarios = new LinkedHashMap<>();
+        for (LoadGenerator.Result result : results) {
+            Map<String, Object> scenario = new LinkedHashMap<>();
+            scenario.put("requests", result.latency().getTotalCount());
+            scenario.put("errors", result.errors());
+            scenario.put("requestsPerSecond", round(result.requestsPerSecond()));
+            Map<String, Object> latency = new LinkedHashMap<>();
+            PERCENTILES.entrySet().stream().sorted(Map.Entry.comparingByValue())
+                    .forEach(percentile -> latency.put(percentile.getKey(), round(result.percentileMillis(percentile.getValue()))));
+            latency.put("max", round(result.latency().getMaxValue() / 1000.0));
+            latency.put("mean", round(result.latency().getMean() / 1000.0));
+            scenario.put("latencyMillis", latency);
+            scenarios.put(result.name(), scenario);
+
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(run + "-" + result.name() + ".hgrm")))) {
+                result.latency().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("time", Instant.now().toString());
+        report.put("settings", settings);
+        report.put("scenarios", scenarios);
+        Path file = directory.resolve(run + ".json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        return file;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
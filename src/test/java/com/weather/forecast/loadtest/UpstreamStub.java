@@ -0,0 +1,80 @@
+package com.weather.forecast.loadtest;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * OpenWeatherMap stand-in answering {@code /weather} and {@code /forecast} for any city after a fixed delay,
+ * so a load test or benchmark measures the service rather than the network. Counts the calls it answers.
+ */
+public final class UpstreamStub implements AutoCloseable {
+
+    private final MockWebServer server = new MockWebServer();
+    private final LongAdder calls = new LongAdder();
+
+    public UpstreamStub(Duration delay) throws IOException {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                calls.increment();
+                String city = request.getRequestUrl().queryParameter("q");
+                String path = request.getRequestUrl().encodedPath();
+                String body = path.endsWith("/forecast") ? forecast(city) : current(city);
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setHeadersDelay(delay.toMillis(), TimeUnit.MILLISECONDS)
+                        .setBody(body);
+            }
+        });
+        server.start();
+    }
+
+    public String baseUrl() {
+        return server.url("/data/2.5").toString();
+    }
+
+    public long calls() {
+        return calls.sum();
+    }
+
+    private static String current(String city) {
+        return """
+                {"coord":{"lon":-0.13,"lat":51.51},
+                 "weather":[{"id":800,"main":"Clear","description":"clear sky","icon":"01d"}],
+                 "main":{"temp":15.0,"feels_like":14.2,"pressure":1013,"humidity":50},
+                 "wind":{"speed":3.0,"deg":180},"clouds":{"all":0},
+                 "dt":%d,"timezone":0,"sys":{"country":"GB","sunrise":0,"sunset":0},
+                 "id":1,"name":"%s","cod":200}
+                """.formatted(System.currentTimeMillis() / 1000, city);
+    }
+
+    private static String forecast(String city) {
+        long start = System.currentTimeMillis() / 1000 / 10_800 * 10_800 + 10_800;
+        StringJoiner items = new StringJoiner(",");
+        for (int i = 0; i < 40; i++) {
+            items.add(String.format(Locale.ROOT, """
+                    {"dt":%d,"main":{"temp":%.1f,"temp_min":%.1f,"temp_max":%.1f,"pressure":1012,"humidity":60},
+                     "weather":[{"id":802,"main":"Clouds","description":"scattered clouds","icon":"03d"}],
+                     "clouds":{"all":40},"wind":{"speed":4.1,"deg":200},"pop":0.2}
+                    """, start + i * 10_800L, 12.0 + i % 8, 11.0 + i % 8, 13.0 + i % 8));
+        }
+        return """
+                {"cod":"200","message":0,"cnt":40,"list":[%s],
+                 "city":{"id":1,"name":"%s","coord":{"lat":51.51,"lon":-0.13},"country":"GB","timezone":0}}
+                """.formatted(items, city);
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+}
@@ -0,0 +1,184 @@
+package com.weather.forecast.loadtest;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures throughput and p50/p90/p99/p99.9 latency of {@code /api/weather/current}, {@code /api/weather/forecast}
+ * and the {@code /weather} page, one scenario after another, on the H2 profile against {@link UpstreamStub}.
+ * Cities are drawn from a Zipf popularity mix; {@code load.miss-ratio} of requests name a city never asked for
+ * before, which misses every cache. Results go to a JSON report under {@code load.report-dir} together with the
+ * settings they were measured under, so runs can be compared across releases and configurations.
+ * <p>
+ * Run with {@code ./mvnw test -Pload-test}; every {@code load.*} setting below and any application property
+ * (e.g. {@code -Dweather.cache.max-size=1000 -Dspring.datasource.hikari.maximum-pool-size=20}) can be passed
+ * as {@code -D} options.
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "logging.level.com.weather.forecast=WARN",
+        "logging.level.org.springframework.web=WARN"
+})
+@ActiveProfiles("test")
+class WeatherLoadTest {
+
+    private static final Map<String, String> SCENARIO_PATHS = Map.of(
+            "current", "/api/weather/current?city=",
+            "forecast", "/api/weather/forecast?city=",
+            "page", "/weather?city=");
+
+    /** Settings of the application under test copied into the report. */
+    private static final List<String> REPORTED_PROPERTIES = List.of("spring.threads.virtual.enabled",
+            "weather.upstream.max-concurrency", "weather.cache.max-size", "spring.datasource.hikari.maximum-pool-size",
+            "server.tomcat.threads.max");
+
+    // Missed cities are numbered from here so they never collide with the popular ones
+    private static final long FIRST_MISS = 1L << 40;
+
+    static final UpstreamStub upstream = startUpstream();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${load.scenarios:current,forecast,page}")
+    private List<String> scenarios;
+
+    @Value("${load.clients:64}")
+    private int clients;
+
+    @Value("${load.rate:0}")
+    private double rate;
+
+    @Value("${load.warmup:PT5S}")
+    private Duration warmup;
+
+    @Value("${load.duration:PT20S}")
+    private Duration duration;
+
+    @Value("${load.cities:1000}")
+    private int cities;
+
+    @Value("${load.zipf-exponent:1.0}")
+    private double zipfExponent;
+
+    @Value("${load.miss-ratio:0.05}")
+    private double missRatio;
+
+    @Value("${load.report-dir:target/load-reports}")
+    private Path reportDirectory;
+
+    @DynamicPropertySource
+    static void upstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("openweathermap.api.url", upstream::baseUrl);
+    }
+
+    @AfterAll
+    static void stopUpstream() throws IOException {
+        upstream.close();
+    }
+
+    @Test
+    void measure() throws Exception {
+        ZipfDistribution popularity = new ZipfDistribution(cities, zipfExponent);
+        AtomicLong missed = new AtomicLong(FIRST_MISS);
+        Supplier<String> nextCity = () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            return cityName(random.nextDouble() < missRatio ? missed.incrementAndGet() : popularity.sample(random));
+        };
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10)).build();
+        LoadGenerator generator = new LoadGenerator(client, new LoadGenerator.Settings(clients, rate, warmup, duration));
+        List<LoadGenerator.Result> results = new ArrayList<>();
+        for (String scenario : scenarios) {
+            String target = "http://localhost:" + port + SCENARIO_PATHS.get(scenario);
+            results.add(generator.run(scenario, () -> HttpRequest.newBuilder(
+                    URI.create(target + URLEncoder.encode(nextCity.get(), StandardCharsets.UTF_8)))
+                    .timeout(Duration.ofSeconds(30)).build()));
+        }
+
+        Path report = LoadReport.write(reportDirectory, settings(), results);
+        for (LoadGenerator.Result result : results) {
+            System.out.printf("[%s] %.1f req/s, p50=%.2f ms, p99=%.2f ms, p99.9=%.2f ms, errors=%d%n", result.name(),
+                    result.requestsPerSecond(), result.percentileMillis(50), result.percentileMillis(99),
+                    result.percentileMillis(99.9), result.errors());
+        }
+        System.out.printf("Report: %s (%d upstream calls)%n", report.toAbsolutePath(), upstream.calls());
+
+        assertThat(results).allSatisfy(result -> assertThat(result.latency().getTotalCount()).isPositive());
+    }
+
+    private Map<String, Object> settings() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("load.clients", rate > 0 ? null : clients);
+        settings.put("load.rate", rate);
+        settings.put("load.warmup", warmup.toString());
+        settings.put("load.duration", duration.toString());
+        settings.put("load.cities", cities);
+        settings.put("load.zipf-exponent", zipfExponent);
+        settings.put("load.miss-ratio", missRatio);
+        settings.put("load.upstream-delay", upstreamDelay().toString());
+        settings.put("java.version", System.getProperty("java.version"));
+        settings.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        for (String property : REPORTED_PROPERTIES) {
+            settings.put(property, environment.getProperty(property, "default"));
+        }
+        return settings;
+    }
+
+    /**
+     * A pronounceable-looking name derived from the number, so names are stable across runs and far apart in edit
+     * distance: the service would otherwise "correct" one load-test city into another.
+     */
+    static String cityName(long number) {
+        SplittableRandom random = new SplittableRandom(number);
+        char[] name = new char[10];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = (char) ((i == 0 ? 'A' : 'a') + random.nextInt(26));
+        }
+        return new String(name);
+    }
+
+    private static Duration upstreamDelay() {
+        return Duration.parse(System.getProperty("load.upstream-delay", "PT0.1S"));
+    }
+
+    private static UpstreamStub startUpstream() {
+        try {
+            return new UpstreamStub(upstreamDelay());
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start upstream stub", e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.weather.forecast.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZipfDistributionTest {
+
+    @Test
+    void sample_ShouldFavourLowRanksInProportion() {
+        ZipfDistribution zipf = new ZipfDistribution(100, 1.0);
+        SplittableRandom random = new SplittableRandom(42);
+        int[] counts = new int[100];
+
+        for (int i = 0; i < 200_000; i++) {
+            counts[zipf.sample(random)]++;
+        }
+
+        assertEquals(1.0 / 5.187, zipf.probability(0), 0.001);
+        assertEquals(zipf.probability(0), counts[0] / 200_000.0, 0.005);
+        assertEquals(2.0, (double) counts[0] / counts[1], 0.1);
+        assertTrue(counts[99] > 0);
+    }
+
+    @Test
+    void sample_WithOneRank_ShouldAlwaysReturnIt() {
+        ZipfDistribution zipf = new ZipfDistribution(1, 1.2);
+
+        assertEquals(0, zipf.sample(new SplittableRandom(1)));
+        assertEquals(1.0, zipf.probability(0), 1e-9);
+    }
+}
@@ -0,0 +1,112 @@
+package com.weather.forecast.service;
+
+import com.weather.forecast.model.City;
+import com.weather.forecast.repository.CityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CityNameResolverTest {
+
+    private final CityRepository cityRepository = mock(CityRepository.class);
+    private CityNameResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        resolver = new CityNameResolver(cityRepository, Duration.ofHours(1));
+        for (String name : List.of("London", "Berlin", "New York", "Paris", "Rome", "São Paulo", "Austin", "Boston")) {
+            resolver.add(city(name, "XX"));
+        }
+    }
+
+    @Test
+    void correct_ShouldFixSingleEditTypos() {
+        assertEquals(Optional.of("London"), resolver.correct("Londn"));
+        assertEquals(Optional.of("Berlin"), resolver.correct("berln"));
+    }
+
+    @Test
+    void correct_ShouldCountTranspositionAsOneEdit() {
+        assertEquals(Optional.of("New York"), resolver.correct("New Yrok"));
+    }
+
+    @Test
+    void correct_ShouldIgnoreAccents() {
+        assertEquals(Optional.of("São Paulo"), resolver.correct("Sao Paolo"));
+    }
+
+    @Test
+    void correct_ShouldNotCorrectKnownNames() {
+        assertEquals(Optional.empty(), resolver.correct("london"));
+    }
+
+    @Test
+    void correct_ShouldNotCorrectShortNames() {
+        assertEquals(Optional.empty(), resolver.correct("Rime"));
+    }
+
+    @Test
+    void correct_ShouldNotGuessWhenTooFarOrAmbiguous() {
+        resolver.add(city("Lyon", "FR"));
+        resolver.add(city("Lyons", "US"));
+
+        assertEquals(Optional.empty(), resolver.correct("Manchester"));
+        assertEquals(Optional.empty(), resolver.correct("Lyonz"));
+        assertEquals(Optional.of("Austin"), resolver.correct("Auston"));
+    }
+
+    @Test
+    void correctNotFound_ShouldOnlyCorrectNamesUpstreamDoesNotKnow() {
+        assertEquals(Optional.empty(), resolver.correctNotFound("Bolton"));
+
+        resolver.markNotFound("Bostn");
+
+        assertEquals(Optional.of("Boston"), resolver.correctNotFound("bostn"));
+        assertEquals(Optional.empty(), resolver.correctNotFound("Bolton"));
+    }
+
+    @Test
+    void add_ShouldForgetThatUpstreamDidNotKnowTheName() {
+        resolver.markNotFound("Bolton");
+
+        resolver.add(city("Bolton", "GB"));
+
+        assertEquals(Optional.empty(), resolver.correctNotFound("Bolton"));
+    }
+
+    @Test
+    void add_ShouldSkipUnconfirmedCities() {
+        resolver.add(city("Lodnon", null));
+
+        assertEquals(Optional.of("London"), resolver.correct("Lodnon"));
+    }
+
+    @Test
+    void reload_ShouldIndexLocatedCities() {
+        when(cityRepository.findByLatitudeIsNotNullAndLongitudeIsNotNull()).thenReturn(List.of(city("Madrid", "ES")));
+
+        resolver.reload();
+
+        assertEquals(Optional.of("Madrid"), resolver.correct("Madird"));
+    }
+
+    @Test
+    void editDistance_ShouldMatchOptimalStringAlignment() {
+        assertEquals(1, CityNameResolver.editDistance("yrok", "york"));
+        assertEquals(2, CityNameResolver.levenshtein("yrok", "york"));
+        assertEquals(3, CityNameResolver.editDistance("kitten", "sitting"));
+    }
+
+    private static City city(String name, String country) {
+        City city = new City();
+        city.setName(name);
+        city.setCountry(country);
+        return city;
+    }
+}
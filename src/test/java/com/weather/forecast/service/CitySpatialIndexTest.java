@@ -0,0 +1,89 @@
+package com.weather.forecast.service;
+
+import com.weather.forecast.model.City;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CitySpatialIndexTest {
+
+    private final CityService cityService = mock(CityService.class);
+    private CitySpatialIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CitySpatialIndex(cityService, 1.0);
+        index.update(city(1L, "London", 51.51, -0.13));
+        index.update(city(2L, "Reading", 51.45, -0.97));
+        index.update(city(3L, "Paris", 48.85, 2.35));
+        index.update(city(4L, "Suva", -18.14, 178.44));
+        index.update(city(5L, "Apia", -13.83, -171.77));
+    }
+
+    @Test
+    void nearby_ShouldReturnCitiesWithinRadiusNearestFirst() {
+        List<CitySpatialIndex.Match> matches = index.nearby(51.5, -0.1, 100, 10);
+
+        assertEquals(List.of("London", "Reading"), matches.stream().map(match -> match.city().name()).toList());
+        assertTrue(matches.get(0).distanceKm() < 5);
+    }
+
+    @Test
+    void nearby_ShouldRespectLimit() {
+        assertEquals(1, index.nearby(51.5, -0.1, 500, 1).size());
+    }
+
+    @Test
+    void nearby_ShouldSearchAcrossAntimeridian() {
+        // Suva and Apia are about 1150 km apart on either side of 180°
+        List<CitySpatialIndex.Match> matches = index.nearby(-18.14, 178.44, 1300, 10);
+
+        assertEquals(List.of("Suva", "Apia"), matches.stream().map(match -> match.city().name()).toList());
+    }
+
+    @Test
+    void within_ShouldReturnCitiesInsideBox() {
+        List<CitySpatialIndex.IndexedCity> cities = index.within(48, -1, 52, 3, 10);
+
+        assertEquals(3, cities.size());
+        assertFalse(cities.stream().anyMatch(city -> city.name().equals("Suva")));
+    }
+
+    @Test
+    void within_ShouldHandleBoxCrossingAntimeridian() {
+        List<CitySpatialIndex.IndexedCity> cities = index.within(-20, 170, -10, -170, 10);
+
+        assertEquals(List.of("Apia", "Suva"), cities.stream().map(CitySpatialIndex.IndexedCity::name).sorted().toList());
+    }
+
+    @Test
+    void update_ShouldMoveCityWhenCoordinatesChange() {
+        index.update(city(3L, "Paris", 33.66, -95.56));
+
+        assertTrue(index.within(48, 2, 49, 3, 10).isEmpty());
+        assertEquals(1, index.within(33, -96, 34, -95, 10).size());
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void reload_ShouldIndexLocatedCitiesFromDatabase() {
+        when(cityService.findLocatedCities()).thenReturn(List.of(city(6L, "Berlin", 52.52, 13.40)));
+
+        index.reload();
+
+        assertEquals(1, index.within(52, 13, 53, 14, 10).size());
+    }
+
+    private static City city(Long id, String name, double latitude, double longitude) {
+        City city = new City();
+        city.setId(id);
+        city.setName(name);
+        city.setLatitude(latitude);
+        city.setLongitude(longitude);
+        return city;
+    }
+}
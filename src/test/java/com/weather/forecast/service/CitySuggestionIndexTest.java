@@ -0,0 +1,91 @@
+package com.weather.forecast.service;
+
+import com.weather.forecast.dto.CitySuggestion;
+import com.weather.forecast.model.City;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CitySuggestionIndexTest {
+
+    private final CityService cityService = mock(CityService.class);
+    private CitySuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        ByteArrayResource gazetteer = new ByteArrayResource("""
+                # name,country,population
+                London,GB,9300000
+                Lisbon,PT,2960000
+                Lima,PE,10900000
+                São Paulo,BR,22400000
+                """.getBytes(StandardCharsets.UTF_8));
+        index = new CitySuggestionIndex(cityService, gazetteer, 3);
+    }
+
+    @Test
+    void suggest_ShouldRankGazetteerCitiesByPopulation() {
+        assertEquals(List.of("Lima", "London", "Lisbon"), names(index.suggest("l", 10)));
+        assertEquals(List.of("Lisbon"), names(index.suggest("LIS", 10)));
+    }
+
+    @Test
+    void suggest_ShouldIgnoreAccents() {
+        assertEquals(List.of(new CitySuggestion("São Paulo", "BR")), index.suggest("sao p", 10));
+    }
+
+    @Test
+    void suggest_ShouldReturnEmptyForUnknownPrefix() {
+        assertTrue(index.suggest("xyz", 10).isEmpty());
+    }
+
+    @Test
+    void update_ShouldRankSearchedCitiesAboveGazetteerOnes() {
+        index.update(city("Lisbon", "PT", 5));
+
+        assertEquals(List.of("Lisbon", "Lima", "London"), names(index.suggest("l", 10)));
+    }
+
+    @Test
+    void update_ShouldAddConfirmedCitiesAndKeepOnlyTopResultsPerPrefix() {
+        index.update(city("Leeds", "GB", 2));
+
+        assertEquals(List.of("Leeds", "Lima", "London"), names(index.suggest("l", 10)));
+        assertEquals(List.of("Leeds"), names(index.suggest("le", 10)));
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void update_ShouldSkipCitiesUpstreamNeverResolved() {
+        index.update(city("Londn", null, 1));
+
+        assertEquals(List.of("London"), names(index.suggest("lond", 10)));
+    }
+
+    @Test
+    void reload_ShouldIndexLocatedCities() {
+        when(cityService.findLocatedCities()).thenReturn(List.of(city("Berlin", "DE", 1)));
+
+        index.reload();
+
+        assertEquals(List.of("Berlin"), names(index.suggest("ber", 10)));
+    }
+
+    private static List<String> names(List<CitySuggestion> suggestions) {
+        return suggestions.stream().map(CitySuggestion::name).toList();
+    }
+
+    private static City city(String name, String country, int searchCount) {
+        City city = new City();
+        city.setName(name);
+        city.setCountry(country);
+        city.setSearchCount(searchCount);
+        return city;
+    }
+}
@@ -2,7 +2,11 @@ package com.weather.forecast.service;
 
 import com.weather.forecast.dto.OpenWeatherMapForecastResponse;
 import com.weather.forecast.dto.OpenWeatherMapResponse;
+import com.weather.forecast.exception.CityNotFoundException;
 import com.weather.forecast.exception.WeatherApiException;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,9 +14,12 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -41,7 +48,7 @@ class OpenWeatherMapClientTest {
         apiKey = "test-api-key";
         units = "metric";
 
-        openWeatherMapClient = new OpenWeatherMapClient(restTemplate, apiUrl, apiKey, units);
+        openWeatherMapClient = new OpenWeatherMapClient(restTemplate, apiUrl, apiKey, units, ObservationRegistry.NOOP);
     }
 
     @Test
@@ -65,6 +72,14 @@ class OpenWeatherMapClientTest {
         verify(restTemplate).getForObject(anyString(), eq(OpenWeatherMapResponse.class));
     }
 
+    @Test
+    void getCurrentWeather_WhenUpstreamHasNoSuchCity_ShouldThrowCityNotFoundException() {
+        when(restTemplate.getForObject(anyString(), eq(OpenWeatherMapResponse.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+
+        assertThrows(CityNotFoundException.class, () -> openWeatherMapClient.getCurrentWeather("Londn"));
+    }
+
     @Test
     void getCurrentWeather_WhenRestClientException_ShouldThrowWeatherApiException() {
         // Given
@@ -220,4 +235,36 @@ class OpenWeatherMapClientTest {
         assertNull(result);
         verify(restTemplate).getForObject(anyString(), eq(OpenWeatherMapResponse.class));
     }
+
+    @Test
+    void getForecast_ShouldObserveCallWithUpstreamStatus() {
+        // Given
+        List<Observation.Context> observed = new ArrayList<>();
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new ObservationHandler<Observation.Context>() {
+            @Override
+            public void onStop(Observation.Context context) {
+                observed.add(context);
+            }
+
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return true;
+            }
+        });
+        openWeatherMapClient = new OpenWeatherMapClient(restTemplate, apiUrl, apiKey, units, observationRegistry);
+        when(restTemplate.getForObject(anyString(), eq(OpenWeatherMapForecastResponse.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", null, null, null));
+
+        // When
+        assertThrows(WeatherApiException.class, () -> openWeatherMapClient.getForecast("London"));
+
+        // Then
+        assertEquals(1, observed.size());
+        Observation.Context context = observed.get(0);
+        assertEquals("weather.owm", context.getName());
+        assertEquals("forecast", context.getLowCardinalityKeyValue("endpoint").getValue());
+        assertEquals("429", context.getLowCardinalityKeyValue("outcome").getValue());
+        assertInstanceOf(HttpClientErrorException.class, context.getError());
+    }
 }
@@ -0,0 +1,105 @@
+package com.weather.forecast.service;
+
+import com.weather.forecast.config.NodeIdentity;
+import com.weather.forecast.model.City;
+import com.weather.forecast.repository.CityRepository;
+import com.weather.forecast.repository.RefreshLeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RefreshLeaseManagerTest {
+
+    @Autowired
+    private RefreshLeaseRepository leaseRepository;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    private City city;
+
+    @BeforeEach
+    void setUp() {
+        leaseRepository.deleteAll();
+        city = cityRepository.findByNameIgnoreCase("LeaseCity").orElseGet(() -> {
+            City newCity = new City();
+            newCity.setName("LeaseCity");
+            return cityRepository.save(newCity);
+        });
+    }
+
+    @Test
+    void tryClaim_WhenLeaseHeldByAnotherNode_ShouldFail() {
+        RefreshLeaseManager nodeA = manager("node-a", Duration.ofMinutes(5));
+        RefreshLeaseManager nodeB = manager("node-b", Duration.ofMinutes(5));
+
+        assertTrue(nodeA.tryClaim(city));
+        assertFalse(nodeB.tryClaim(city));
+        assertEquals("node-a", leaseRepository.findById(city.getId()).orElseThrow().getOwner());
+    }
+
+    @Test
+    void tryClaim_WhenOwnLease_ShouldRenew() {
+        RefreshLeaseManager nodeA = manager("node-a", Duration.ofMinutes(5));
+
+        assertTrue(nodeA.tryClaim(city));
+        assertTrue(nodeA.tryClaim(city));
+    }
+
+    @Test
+    void tryClaim_WhenOwnerDiedAndLeaseExpired_ShouldFailOver() {
+        RefreshLeaseManager deadNode = manager("node-a", Duration.ofSeconds(-1));
+        RefreshLeaseManager survivor = manager("node-b", Duration.ofMinutes(5));
+
+        assertTrue(deadNode.tryClaim(city));
+        assertTrue(survivor.tryClaim(city));
+        assertEquals("node-b", leaseRepository.findById(city.getId()).orElseThrow().getOwner());
+    }
+
+    @Test
+    void holdUntil_ShouldKeepPeersAwayUntilNextDue() {
+        RefreshLeaseManager nodeA = manager("node-a", Duration.ofSeconds(-1));
+        RefreshLeaseManager nodeB = manager("node-b", Duration.ofMinutes(5));
+
+        assertTrue(nodeA.tryClaim(city));
+        nodeA.holdUntil(city, Instant.now().plus(1, ChronoUnit.HOURS));
+
+        assertFalse(nodeB.tryClaim(city));
+    }
+
+    @Test
+    void release_ShouldLetPeersClaimRightAway() {
+        RefreshLeaseManager nodeA = manager("node-a", Duration.ofMinutes(5));
+        RefreshLeaseManager nodeB = manager("node-b", Duration.ofMinutes(5));
+
+        assertTrue(nodeA.tryClaim(city));
+        nodeA.release(city);
+
+        assertTrue(nodeB.tryClaim(city));
+    }
+
+    @Test
+    void release_ShouldNotDropAPeersLease() {
+        RefreshLeaseManager nodeA = manager("node-a", Duration.ofMinutes(5));
+        RefreshLeaseManager nodeB = manager("node-b", Duration.ofMinutes(5));
+
+        assertTrue(nodeA.tryClaim(city));
+        nodeB.release(city);
+
+        assertEquals("node-a", leaseRepository.findById(city.getId()).orElseThrow().getOwner());
+    }
+
+    private RefreshLeaseManager manager(String nodeId, Duration processingLease) {
+        return new RefreshLeaseManager(leaseRepository, new NodeIdentity(nodeId), processingLease);
+    }
+}
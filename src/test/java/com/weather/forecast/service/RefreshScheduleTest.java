@@ -0,0 +1,113 @@
+package com.weather.forecast.service;
+
+import com.weather.forecast.model.City;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefreshScheduleTest {
+
+    private RefreshSchedule schedule;
+    private Instant now;
+
+    @BeforeEach
+    void setUp() {
+        schedule = new RefreshSchedule(10, Duration.ofMinutes(15), Duration.ofHours(3), 0.0);
+        now = Instant.now();
+    }
+
+    @Test
+    void intervalFor_ShouldRefreshPopularCitiesMoreOften() {
+        City popular = city(1L, "London", 400);
+        City quiet = city(2L, "Leeds", 4);
+        schedule.reload(List.of(popular, quiet), Map.of(), now);
+
+        assertTrue(schedule.intervalFor(popular).compareTo(schedule.intervalFor(quiet)) < 0);
+    }
+
+    @Test
+    void intervalFor_WithEqualPopularity_ShouldSpendExactlyTheQuota() {
+        List<City> cities = List.of(city(1L, "A", 1), city(2L, "B", 1), city(3L, "C", 1), city(4L, "D", 1), city(5L, "E", 1));
+        schedule.reload(cities, Map.of(), now);
+
+        // 5 cities sharing 10 refreshes per hour: every 30 minutes each
+        assertEquals(Duration.ofMinutes(30), schedule.intervalFor(cities.get(0)));
+    }
+
+    @Test
+    void intervalFor_ShouldNeverExceedStalenessDeadline() {
+        City popular = city(1L, "London", 1_000_000);
+        City quiet = city(2L, "Leeds", 1);
+        schedule.reload(List.of(popular, quiet), Map.of(), now);
+
+        assertEquals(Duration.ofHours(3), schedule.intervalFor(quiet));
+        assertEquals(Duration.ofMinutes(15), schedule.intervalFor(popular));
+    }
+
+    @Test
+    void pollDue_ShouldReturnMostOverdueFirstAndSkipFutureCities() {
+        City overdue = city(1L, "London", 1);
+        City slightlyOverdue = city(2L, "Paris", 1);
+        City future = city(3L, "Berlin", 1);
+        overdue.setNextRefreshAt(now.minus(20, ChronoUnit.MINUTES));
+        slightlyOverdue.setNextRefreshAt(now.minus(1, ChronoUnit.MINUTES));
+        future.setNextRefreshAt(now.plus(10, ChronoUnit.MINUTES));
+        schedule.reload(List.of(future, slightlyOverdue, overdue), Map.of(
+                1L, now.minus(1, ChronoUnit.HOURS),
+                2L, now.minus(1, ChronoUnit.HOURS),
+                3L, now.minus(1, ChronoUnit.HOURS)), now);
+
+        List<City> due = schedule.pollDue(now, 10);
+
+        assertEquals(List.of(overdue, slightlyOverdue), due);
+        assertEquals(1, schedule.size());
+    }
+
+    @Test
+    void reload_ShouldCapPersistedDueTimeAtStalenessDeadline() {
+        City city = city(1L, "London", 1);
+        city.setNextRefreshAt(now.plus(1, ChronoUnit.DAYS));
+        schedule.reload(List.of(city), Map.of(1L, now.minus(4, ChronoUnit.HOURS)), now);
+
+        assertEquals(List.of(city), schedule.pollDue(now, 10));
+    }
+
+    @Test
+    void reload_ShouldNotRequeueCitiesBeingRefreshed() {
+        City city = city(1L, "London", 1);
+        city.setNextRefreshAt(now.minus(1, ChronoUnit.MINUTES));
+        schedule.reload(List.of(city), Map.of(1L, now.minus(1, ChronoUnit.HOURS)), now);
+        schedule.pollDue(now, 10);
+
+        schedule.reload(List.of(city), Map.of(1L, now.minus(1, ChronoUnit.HOURS)), now);
+
+        assertEquals(0, schedule.size());
+    }
+
+    @Test
+    void reschedule_ShouldQueueCityOneIntervalAhead() {
+        City city = city(1L, "London", 1);
+        schedule.reload(List.of(city), Map.of(1L, now), now);
+        schedule.pollDue(now.plus(1, ChronoUnit.DAYS), 10);
+
+        Instant due = schedule.reschedule(city, now);
+
+        assertEquals(now.plus(schedule.intervalFor(city)), due);
+        assertTrue(schedule.pollDue(now, 10).isEmpty());
+    }
+
+    private City city(Long id, String name, int searchCount) {
+        City city = new City();
+        city.setId(id);
+        city.setName(name);
+        city.setSearchCount(searchCount);
+        return city;
+    }
+}
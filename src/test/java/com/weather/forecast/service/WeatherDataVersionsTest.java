@@ -0,0 +1,67 @@
+package com.weather.forecast.service;
+
+import com.weather.forecast.util.WeatherMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WeatherDataVersionsTest {
+
+    private final CacheInvalidationBus cacheInvalidationBus = mock(CacheInvalidationBus.class);
+    private final WeatherDataVersions versions = new WeatherDataVersions(cacheInvalidationBus, 100);
+
+    @Test
+    void record_ShouldDeriveVersionFromStorageTime() {
+        Instant stored = Instant.now().minusSeconds(60);
+
+        versions.record(WeatherDataVersions.Kind.CURRENT, "London", stored);
+
+        WeatherDataVersions.DataVersion version = versions.find(WeatherDataVersions.Kind.CURRENT, "london").orElseThrow();
+        assertEquals(stored.getEpochSecond(), version.lastModified().getEpochSecond());
+        assertEquals(0, version.lastModified().getNano());
+        assertEquals(stored.plus(WeatherMapper.FRESHNESS), version.freshUntil());
+        assertTrue(versions.find(WeatherDataVersions.Kind.FORECAST, "london").isEmpty());
+    }
+
+    @Test
+    void record_ShouldChangeETagWhenDataIsStoredAgain() {
+        Instant stored = Instant.now().minusSeconds(60);
+        versions.record(WeatherDataVersions.Kind.FORECAST, "london", stored);
+        String first = versions.find(WeatherDataVersions.Kind.FORECAST, "london").orElseThrow().etag();
+
+        versions.record(WeatherDataVersions.Kind.FORECAST, "london", stored.plusMillis(1));
+
+        assertNotEquals(first, versions.find(WeatherDataVersions.Kind.FORECAST, "london").orElseThrow().etag());
+    }
+
+    @Test
+    void record_WithoutStorageTime_ShouldForgetVersion() {
+        versions.record(WeatherDataVersions.Kind.CURRENT, "london", Instant.now());
+
+        versions.record(WeatherDataVersions.Kind.CURRENT, "london", null);
+
+        assertTrue(versions.find(WeatherDataVersions.Kind.CURRENT, "london").isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void peerUpdate_ShouldForgetVersionsOfThatCity() {
+        ArgumentCaptor<Consumer<Set<String>>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(cacheInvalidationBus).subscribe(listener.capture());
+        versions.record(WeatherDataVersions.Kind.CURRENT, "london", Instant.now());
+        versions.record(WeatherDataVersions.Kind.FORECAST, "london", Instant.now());
+        versions.record(WeatherDataVersions.Kind.CURRENT, "paris", Instant.now());
+
+        listener.getValue().accept(Set.of("london"));
+
+        assertTrue(versions.find(WeatherDataVersions.Kind.CURRENT, "london").isEmpty());
+        assertTrue(versions.find(WeatherDataVersions.Kind.FORECAST, "london").isEmpty());
+        assertTrue(versions.find(WeatherDataVersions.Kind.CURRENT, "paris").isPresent());
+    }
+}
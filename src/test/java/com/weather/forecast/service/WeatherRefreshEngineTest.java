@@ -0,0 +1,146 @@
+package com.weather.forecast.service;
+
+import com.weather.forecast.model.City;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WeatherRefreshEngineTest {
+
+    @Mock
+    private WeatherService weatherService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void refresh_ShouldRefreshEveryCity() {
+        List<City> cities = cities(50);
+        when(weatherService.refreshWeatherData(any(City.class))).thenReturn(true);
+
+        WeatherRefreshEngine.RefreshReport report = engine(Duration.ofMinutes(1)).refresh(cities);
+
+        assertEquals(50, report.succeeded());
+        assertEquals(0, report.failed());
+        assertEquals(0, report.unfinished());
+        verify(weatherService, times(50)).refreshWeatherData(any(City.class));
+        assertEquals(50.0, meterRegistry.get("weather.refresh.cities").tag("outcome", "succeeded").counter().count());
+    }
+
+    @Test
+    void refresh_WhenCityFailsOnce_ShouldRetryItWithoutFailingOthers() {
+        List<City> cities = cities(3);
+        when(weatherService.refreshWeatherData(any(City.class))).thenReturn(true);
+        when(weatherService.refreshWeatherData(cities.get(1))).thenReturn(false, true);
+
+        WeatherRefreshEngine.RefreshReport report = engine(Duration.ofMinutes(1)).refresh(cities);
+
+        assertEquals(3, report.succeeded());
+        assertEquals(1, report.retries());
+        assertEquals(Set.of(0L, 1L, 2L), report.refreshedCityIds());
+        verify(weatherService, times(2)).refreshWeatherData(cities.get(1));
+    }
+
+    @Test
+    void refresh_WhenCityKeepsFailing_ShouldGiveUpAfterMaxAttempts() {
+        List<City> cities = cities(2);
+        when(weatherService.refreshWeatherData(cities.get(0))).thenReturn(true);
+        when(weatherService.refreshWeatherData(cities.get(1))).thenThrow(new RuntimeException("DB down"));
+
+        WeatherRefreshEngine.RefreshReport report = engine(Duration.ofMinutes(1)).refresh(cities);
+
+        assertEquals(1, report.succeeded());
+        assertEquals(1, report.failed());
+        assertEquals(Set.of(0L), report.refreshedCityIds());
+        verify(weatherService, times(3)).refreshWeatherData(cities.get(1));
+    }
+
+    @Test
+    void refresh_WhenDeadlinePassed_ShouldNotStartNewCities() {
+        List<City> cities = cities(10);
+
+        WeatherRefreshEngine.RefreshReport report = engine(Duration.ofSeconds(-1)).refresh(cities);
+
+        assertEquals(0, report.succeeded());
+        assertEquals(10, report.unfinished());
+        verify(weatherService, never()).refreshWeatherData(any(City.class));
+    }
+
+    @Test
+    void refresh_WhenCityFails_ShouldBackOffBeforeRetrying() {
+        List<City> cities = cities(1);
+        when(weatherService.refreshWeatherData(cities.get(0))).thenReturn(false, false, true);
+
+        long started = System.nanoTime();
+        WeatherRefreshEngine.RefreshReport report = engine(Duration.ofMinutes(1), Duration.ofMillis(100)).refresh(cities);
+
+        assertEquals(1, report.succeeded());
+        assertEquals(2, report.retries());
+        // 100 ms, then 200 ms
+        assertTrue(System.nanoTime() - started >= 300_000_000L);
+    }
+
+    @Test
+    void refresh_WhenBackoffRunsPastDeadline_ShouldLeaveCityUnfinished() {
+        List<City> cities = cities(1);
+        when(weatherService.refreshWeatherData(cities.get(0))).thenReturn(false);
+
+        WeatherRefreshEngine.RefreshReport report = engine(Duration.ofSeconds(1), Duration.ofMinutes(1)).refresh(cities);
+
+        assertEquals(0, report.failed());
+        assertEquals(1, report.unfinished());
+        verify(weatherService, times(1)).refreshWeatherData(cities.get(0));
+    }
+
+    @Test
+    void refresh_ShouldReuseOnePoolAcrossCycles() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        when(weatherService.refreshWeatherData(any(City.class))).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return true;
+        });
+        WeatherRefreshEngine engine = engine(Duration.ofMinutes(1));
+
+        for (int cycle = 0; cycle < 5; cycle++) {
+            engine.refresh(cities(8));
+        }
+
+        assertTrue(threads.size() <= 4, threads.toString());
+    }
+
+    private WeatherRefreshEngine engine(Duration deadline) {
+        return engine(deadline, Duration.ZERO);
+    }
+
+    private WeatherRefreshEngine engine(Duration deadline, Duration retryBackoff) {
+        return new WeatherRefreshEngine(weatherService, meterRegistry, 4, 3, deadline, retryBackoff, false);
+    }
+
+    private List<City> cities(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            City city = new City();
+            city.setId((long) i);
+            city.setName("City" + i);
+            return city;
+        }).toList();
+    }
+}
@@ -0,0 +1,207 @@
+package com.weather.forecast.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weather.forecast.dto.WeatherResponse;
+import com.weather.forecast.model.WeatherCondition;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WeatherUpdateBroadcasterTest {
+
+    private final WeatherService weatherService = mock(WeatherService.class);
+    private final CacheInvalidationBus cacheInvalidationBus = mock(CacheInvalidationBus.class);
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("currentWeather");
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private ExecutorService sendExecutor;
+    private ScheduledExecutorService watchdog;
+    private WeatherUpdateBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        sendExecutor = Executors.newSingleThreadExecutor();
+        watchdog = Executors.newSingleThreadScheduledExecutor();
+        // The watchdog's own runs are far off; tests trigger heartbeats and the stall check themselves
+        broadcaster = broadcaster(Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        sendExecutor.shutdownNow();
+        watchdog.shutdownNow();
+    }
+
+    private WeatherUpdateBroadcaster broadcaster(Duration writeTimeoutCheck) {
+        return new WeatherUpdateBroadcaster(weatherService, cacheManager, objectMapper, cacheInvalidationBus, new SimpleMeterRegistry(),
+                2, Duration.ofMinutes(1), Duration.ofMillis(50), Duration.ofMinutes(1), writeTimeoutCheck, sendExecutor, watchdog);
+    }
+
+    @Test
+    void onWeatherUpdated_ShouldPushOnlyToSubscribersOfThatCity() throws Exception {
+        RecordingEmitter london = new RecordingEmitter();
+        RecordingEmitter paris = new RecordingEmitter();
+        broadcaster.register(london, List.of("London"), null);
+        broadcaster.register(paris, List.of("Paris"), null);
+
+        broadcaster.onWeatherUpdated(new WeatherUpdatedEvent("london", weather("20.00", WeatherCondition.CLEAR)));
+        awaitSends();
+
+        assertEquals(1, london.events.size());
+        assertTrue(london.events.get(0).contains("\"temperature\":20.00"));
+        assertTrue(paris.events.isEmpty());
+    }
+
+    @Test
+    void register_ShouldStartWithCachedWeather() throws Exception {
+        cacheManager.getCache("currentWeather").put("london", weather("18.00", WeatherCondition.CLOUDS));
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        broadcaster.register(emitter, List.of("London"), null);
+        awaitSends();
+
+        assertEquals(1, emitter.events.size());
+    }
+
+    @Test
+    void onWeatherUpdated_ShouldSuppressChangesBelowThreshold() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.register(emitter, List.of("London"), new BigDecimal("1.0"));
+
+        broadcaster.onWeatherUpdated(new WeatherUpdatedEvent("london", weather("20.00", WeatherCondition.CLEAR)));
+        awaitSends();
+        broadcaster.onWeatherUpdated(new WeatherUpdatedEvent("london", weather("20.50", WeatherCondition.CLEAR)));
+        awaitSends();
+        broadcaster.onWeatherUpdated(new WeatherUpdatedEvent("london", weather("20.50", WeatherCondition.RAIN)));
+        awaitSends();
+        broadcaster.onWeatherUpdated(new WeatherUpdatedEvent("london", weather("21.60", WeatherCondition.RAIN)));
+        awaitSends();
+
+        assertEquals(3, emitter.events.size());
+    }
+
+    @Test
+    void register_ShouldRejectSubscribersOverTheLimit() {
+        assertTrue(broadcaster.register(new RecordingEmitter(), List.of("London"), null));
+        assertTrue(broadcaster.register(new RecordingEmitter(), List.of("Paris"), null));
+
+        assertFalse(broadcaster.register(new RecordingEmitter(), List.of("Berlin"), null));
+        assertEquals(2, broadcaster.subscriberCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onPeerUpdate_ShouldPushStoredWeatherForWatchedCities() throws Exception {
+        ArgumentCaptor<Consumer<Set<String>>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(cacheInvalidationBus).subscribe(listener.capture());
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.register(emitter, List.of("London"), null);
+        when(weatherService.getStoredCurrentWeather(Set.of("london")))
+                .thenReturn(Map.of("london", weather("19.00", WeatherCondition.CLEAR)));
+
+        listener.getValue().accept(Set.of("london", "paris"));
+        awaitSends();
+        awaitSends();
+
+        assertEquals(1, emitter.events.size());
+        verify(weatherService).getStoredCurrentWeather(Set.of("london"));
+    }
+
+    @Test
+    void dropStalledSubscribers_ShouldFreeTheSendThreadForOtherClients() throws Exception {
+        StalledEmitter stalled = new StalledEmitter();
+        RecordingEmitter london = new RecordingEmitter();
+        broadcaster.register(stalled, List.of("Paris"), null);
+        broadcaster.register(london, List.of("London"), null);
+
+        broadcaster.onWeatherUpdated(new WeatherUpdatedEvent("paris", weather("15.00", WeatherCondition.RAIN)));
+        stalled.sending.await();
+        broadcaster.onWeatherUpdated(new WeatherUpdatedEvent("london", weather("20.00", WeatherCondition.CLEAR)));
+        Thread.sleep(100);
+        broadcaster.dropStalledSubscribers();
+        awaitSends();
+
+        assertTrue(stalled.interrupted);
+        assertEquals(1, london.events.size());
+        assertEquals(1, broadcaster.subscriberCount());
+    }
+
+    @Test
+    void watchdog_ShouldDropStalledSubscribersOnItsOwnThread() throws Exception {
+        WeatherUpdateBroadcaster watched = broadcaster(Duration.ofMillis(10));
+        StalledEmitter stalled = new StalledEmitter();
+        watched.register(stalled, List.of("Paris"), null);
+
+        watched.onWeatherUpdated(new WeatherUpdatedEvent("paris", weather("15.00", WeatherCondition.RAIN)));
+        stalled.sending.await();
+        // Nothing calls the check: the watchdog alone has to find the stalled send
+        stalled.interruptedLatch.await(5, TimeUnit.SECONDS);
+
+        assertTrue(stalled.interrupted);
+        awaitSends();
+        assertEquals(0, watched.subscriberCount());
+    }
+
+    /** Sends run one at a time on the single thread, so anything queued before this marker has finished. */
+    private void awaitSends() throws Exception {
+        sendExecutor.submit(() -> { }).get();
+    }
+
+    private static WeatherResponse weather(String temperature, WeatherCondition condition) {
+        return new WeatherResponse("London", "GB", Instant.parse("2024-06-01T12:00:00Z"), new BigDecimal(temperature),
+                50, new BigDecimal("5.00"), 180, 1013, condition, "test", null, null);
+    }
+
+    /** A client that never reads: every send blocks until the sending thread is interrupted. */
+    private static class StalledEmitter extends SseEmitter {
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch interruptedLatch = new CountDownLatch(1);
+        private volatile boolean interrupted;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+                interruptedLatch.countDown();
+                throw new IOException("Broken pipe");
+            }
+        }
+    }
+
+    /** Records the JSON payload of each event instead of writing to a response. */
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            builder.build().stream()
+                    .filter(data -> MediaType.APPLICATION_JSON.equals(data.getMediaType()))
+                    .forEach(data -> events.add((String) data.getData()));
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.weather.forecast.service.impl;
 
 import com.weather.forecast.model.City;
 import com.weather.forecast.repository.CityRepository;
+import com.weather.forecast.service.CityNameResolver;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -29,6 +30,9 @@ class CityServiceImplTest {
     @Mock
     private CityRepository cityRepository;
 
+    @Mock
+    private CityNameResolver cityNameResolver;
+
     @InjectMocks
     private CityServiceImpl cityService;
 
@@ -155,6 +159,14 @@ class CityServiceImplTest {
         assertNotNull(result);
         assertEquals(testCity, result);
         verify(cityRepository).save(testCity);
+        verify(cityNameResolver).add(testCity);
+    }
+
+    @Test
+    void findCorrection_ShouldDelegateToResolver() {
+        when(cityNameResolver.correctNotFound("Londn")).thenReturn(Optional.of("London"));
+
+        assertEquals(Optional.of("London"), cityService.findCorrection("Londn"));
     }
 
     @Test
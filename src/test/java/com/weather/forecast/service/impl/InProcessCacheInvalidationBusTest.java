@@ -0,0 +1,63 @@
+package com.weather.forecast.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InProcessCacheInvalidationBusTest {
+
+    private InProcessCacheInvalidationBus nodeA;
+    private InProcessCacheInvalidationBus nodeB;
+    private final List<Set<String>> receivedByA = new CopyOnWriteArrayList<>();
+    private final List<Set<String>> receivedByB = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Long window so batches are only sent by the explicit flush() calls below
+        InProcessCacheInvalidationBus.Hub hub = new InProcessCacheInvalidationBus.Hub();
+        nodeA = new InProcessCacheInvalidationBus("node-a", Duration.ofHours(1), hub);
+        nodeB = new InProcessCacheInvalidationBus("node-b", Duration.ofHours(1), hub);
+        nodeA.subscribe(receivedByA::add);
+        nodeB.subscribe(receivedByB::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    void flush_ShouldSendBurstOfUpdatesAsOneMessageToPeers() {
+        nodeA.publish("london");
+        nodeA.publish("paris");
+        nodeA.publish("london");
+
+        nodeA.flush();
+
+        assertEquals(List.of(Set.of("london", "paris")), receivedByB);
+    }
+
+    @Test
+    void flush_ShouldNotDeliverToSender() {
+        nodeA.publish("london");
+
+        nodeA.flush();
+
+        assertTrue(receivedByA.isEmpty());
+    }
+
+    @Test
+    void flush_WithNothingPublished_ShouldSendNothing() {
+        nodeA.flush();
+
+        assertTrue(receivedByB.isEmpty());
+    }
+}
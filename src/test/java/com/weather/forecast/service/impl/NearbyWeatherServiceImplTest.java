@@ -0,0 +1,62 @@
+package com.weather.forecast.service.impl;
+
+import com.weather.forecast.dto.LocatedWeather;
+import com.weather.forecast.dto.WeatherResponse;
+import com.weather.forecast.model.WeatherCondition;
+import com.weather.forecast.service.CitySpatialIndex;
+import com.weather.forecast.service.CitySpatialIndex.IndexedCity;
+import com.weather.forecast.service.CitySpatialIndex.Match;
+import com.weather.forecast.service.WeatherService;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class NearbyWeatherServiceImplTest {
+
+    private final CitySpatialIndex citySpatialIndex = mock(CitySpatialIndex.class);
+    private final WeatherService weatherService = mock(WeatherService.class);
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("currentWeather");
+    private final NearbyWeatherServiceImpl nearbyWeatherService = new NearbyWeatherServiceImpl(citySpatialIndex, weatherService, cacheManager);
+
+    private final IndexedCity reading = new IndexedCity(1L, "Reading", 51.45, -0.97);
+    private final IndexedCity slough = new IndexedCity(2L, "Slough", 51.51, -0.59);
+    private final IndexedCity london = new IndexedCity(3L, "London", 51.51, -0.13);
+
+    @Test
+    void findNearby_ShouldSkipCitiesWithoutWeatherBeforeApplyingLimit() {
+        WeatherResponse sloughWeather = weather("Slough");
+        WeatherResponse londonWeather = weather("London");
+        when(citySpatialIndex.nearby(51.45, -0.97, 100, Integer.MAX_VALUE))
+                .thenReturn(List.of(new Match(reading, 0), new Match(slough, 27), new Match(london, 58)));
+        when(weatherService.getStoredCurrentWeather(List.of("reading", "slough"))).thenReturn(Map.of("slough", sloughWeather));
+        cacheManager.getCache("currentWeather").put("london", londonWeather);
+
+        List<LocatedWeather> result = nearbyWeatherService.findNearby(51.45, -0.97, 100, 2);
+
+        assertEquals(List.of("Slough", "London"), result.stream().map(LocatedWeather::city).toList());
+        assertEquals(27.0, result.get(0).distanceKm());
+    }
+
+    @Test
+    void findWithin_ShouldStopLookingOnceLimitIsReached() {
+        when(citySpatialIndex.within(51, -1, 52, 0, Integer.MAX_VALUE)).thenReturn(List.of(reading, slough, london));
+        when(weatherService.getStoredCurrentWeather(List.of("reading"))).thenReturn(Map.of("reading", weather("Reading")));
+
+        List<LocatedWeather> result = nearbyWeatherService.findWithin(51, -1, 52, 0, 1);
+
+        assertEquals(List.of("Reading"), result.stream().map(LocatedWeather::city).toList());
+        verify(weatherService, times(1)).getStoredCurrentWeather(anyCollection());
+    }
+
+    private static WeatherResponse weather(String city) {
+        return new WeatherResponse(city, "GB", Instant.parse("2024-06-01T12:00:00Z"), new BigDecimal("18.00"),
+                50, new BigDecimal("5.00"), 180, 1013, WeatherCondition.CLOUDS, "test", null, null);
+    }
+}
@@ -1,32 +1,54 @@
 package com.weather.forecast.service.impl;
 
+import com.weather.forecast.dto.BatchResponse;
+import com.weather.forecast.dto.DailyForecastResponse;
 import com.weather.forecast.dto.ForecastResponse;
 import com.weather.forecast.dto.OpenWeatherMapForecastResponse;
 import com.weather.forecast.dto.OpenWeatherMapResponse;
 import com.weather.forecast.dto.WeatherResponse;
+import com.weather.forecast.exception.CityNotFoundException;
 import com.weather.forecast.exception.WeatherApiException;
 import com.weather.forecast.model.City;
 import com.weather.forecast.model.CurrentWeather;
+import com.weather.forecast.model.DailyForecast;
 import com.weather.forecast.model.Forecast;
 import com.weather.forecast.model.WeatherCondition;
 import com.weather.forecast.repository.CurrentWeatherRepository;
+import com.weather.forecast.repository.DailyForecastRepository;
 import com.weather.forecast.repository.ForecastRepository;
+import com.weather.forecast.service.CacheInvalidationBus;
 import com.weather.forecast.service.CityService;
 import com.weather.forecast.service.OpenWeatherMapClient;
+import com.weather.forecast.service.WeatherDataVersions;
+import com.weather.forecast.service.WeatherUpdatedEvent;
 import com.weather.forecast.util.WeatherMapper;
+import io.micrometer.observation.ObservationRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -35,6 +57,10 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class WeatherServiceImplTest {
 
+    private static final Duration STALE_GRACE = Duration.ofHours(2);
+    private static final Duration REFRESH_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration REVALIDATION_BACKOFF = Duration.ofMinutes(1);
+
     @Mock
     private OpenWeatherMapClient weatherClient;
 
@@ -47,10 +73,27 @@ class WeatherServiceImplTest {
     @Mock
     private ForecastRepository forecastRepository;
 
+    @Mock
+    private DailyForecastRepository dailyForecastRepository;
+
     @Mock
     private WeatherMapper weatherMapper;
 
-    @InjectMocks
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private WeatherDataVersions dataVersions;
+
     private WeatherServiceImpl weatherService;
 
     private City testCity;
@@ -60,6 +103,9 @@ class WeatherServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        // Upstream calls and background refreshes run inline so interactions stay deterministic
+        weatherService = service(Runnable::run, Runnable::run, REFRESH_TIMEOUT);
+
         testCity = new City();
         testCity.setId(1L);
         testCity.setName("London");
@@ -96,6 +142,7 @@ class WeatherServiceImplTest {
         assertEquals("London", result.city());
         verify(cityService).incrementSearchCount(testCity);
         verify(weatherClient, never()).getCurrentWeather(anyString());
+        verify(dataVersions).record(WeatherDataVersions.Kind.CURRENT, "London", testCurrentWeather.getLastUpdated());
     }
 
     @Test
@@ -115,6 +162,7 @@ class WeatherServiceImplTest {
         verify(weatherClient).getCurrentWeather("London");
         verify(weatherMapper).updateCityFromResponse(testCity, testApiResponse);
         verify(currentWeatherRepository).save(testCurrentWeather);
+        verify(cacheInvalidationBus).publish("london");
     }
 
     @Test
@@ -142,11 +190,22 @@ class WeatherServiceImplTest {
         assertThrows(WeatherApiException.class, () -> weatherService.getCurrentWeather("London"));
     }
 
+    @Test
+    void getCurrentWeather_WhenUpstreamHasNoSuchCity_ShouldRememberTheName() {
+        when(cityService.findOrCreateCity("Londn")).thenReturn(testCity);
+        when(currentWeatherRepository.findByCityId(1L)).thenReturn(Optional.empty());
+        when(weatherClient.getCurrentWeather("Londn")).thenThrow(new CityNotFoundException("City not found: Londn"));
+
+        assertThrows(CityNotFoundException.class, () -> weatherService.getCurrentWeather("Londn"));
+        verify(cityService).markNotFound("Londn");
+    }
+
     @Test
     void getForecast_WhenFreshDataExists_ShouldReturnCachedData() {
         Forecast forecast1 = new Forecast();
         forecast1.setForecastDate(Instant.now().plus(1, ChronoUnit.DAYS));
         forecast1.setTemperature(new BigDecimal("22.00"));
+        forecast1.setFetchedAt(Instant.now().minus(10, ChronoUnit.MINUTES));
 
         Forecast forecast2 = new Forecast();
         forecast2.setForecastDate(Instant.now().plus(2, ChronoUnit.DAYS));
@@ -191,8 +250,122 @@ class WeatherServiceImplTest {
         assertNotNull(result);
         assertEquals("London", result.city());
         verify(weatherClient).getForecast("London");
-        verify(forecastRepository).deleteByCityId(1L);
-        verify(forecastRepository).saveAll(newForecasts);
+        // Stored in one transaction that first takes the city's lock
+        InOrder store = inOrder(transactionManager, cityService, forecastRepository, dailyForecastRepository);
+        store.verify(transactionManager).getTransaction(any());
+        store.verify(cityService).lockForUpdate(testCity);
+        store.verify(forecastRepository).deleteByCityId(1L);
+        store.verify(forecastRepository).saveAll(newForecasts);
+        store.verify(dailyForecastRepository).deleteByCityId(1L);
+        store.verify(transactionManager).commit(any());
+    }
+
+    private WeatherServiceImpl service(Executor upstreamExecutor, Executor revalidationExecutor, Duration refreshTimeout) {
+        return new WeatherServiceImpl(weatherClient, cityService, currentWeatherRepository, forecastRepository, dailyForecastRepository,
+                weatherMapper, upstreamExecutor, revalidationExecutor, transactionManager, cacheInvalidationBus, cacheManager, eventPublisher,
+                dataVersions, ObservationRegistry.NOOP, STALE_GRACE, refreshTimeout, REVALIDATION_BACKOFF);
+    }
+
+    @Test
+    void getCurrentWeather_WhenStaleWithinGrace_ShouldServeStoredDataAndRefreshOnceInBackground() {
+        List<Runnable> background = new ArrayList<>();
+        WeatherServiceImpl service = service(Runnable::run, background::add, REFRESH_TIMEOUT);
+        Cache currentWeatherCache = new ConcurrentMapCache("currentWeather");
+        when(cacheManager.getCache("currentWeather")).thenReturn(currentWeatherCache);
+        when(cityService.findOrCreateCity("London")).thenReturn(testCity);
+        when(currentWeatherRepository.findByCityId(1L)).thenReturn(Optional.of(testCurrentWeather));
+        when(weatherMapper.isDataFresh(any(Instant.class))).thenReturn(false);
+        when(weatherMapper.isDataServable(testCurrentWeather.getLastUpdated(), STALE_GRACE)).thenReturn(true);
+        when(weatherMapper.mapToWeatherResponse(testCurrentWeather)).thenReturn(testWeatherResponse);
+
+        WeatherResponse first = service.getCurrentWeather("London");
+        WeatherResponse second = service.getCurrentWeather("London");
+
+        assertSame(testWeatherResponse, first);
+        assertSame(testWeatherResponse, second);
+        assertEquals(1, background.size());
+        verify(weatherClient, never()).getCurrentWeather(anyString());
+        // Neither cached nor versioned, so the refresh's write-through is never overwritten by the stale data
+        assertNull(currentWeatherCache.get("london"));
+        verify(dataVersions, never()).record(any(), anyString(), any());
+    }
+
+    @Test
+    void getCurrentWeather_WhenStaleWithinGrace_ShouldLeaveRefreshedDataInCache() {
+        ConcurrentMapCacheManager caches = new ConcurrentMapCacheManager("currentWeather", "forecast", "dailyForecast");
+        when(cacheManager.getCache(anyString())).thenAnswer(invocation -> caches.getCache(invocation.getArgument(0)));
+        CurrentWeather refreshedWeather = new CurrentWeather();
+        refreshedWeather.setCity(testCity);
+        refreshedWeather.setLastUpdated(Instant.now());
+        WeatherResponse refreshedResponse = new WeatherResponse(
+                "London", "GB", refreshedWeather.getLastUpdated(), new BigDecimal("21.00"),
+                50, new BigDecimal("5.00"), 180, 1013,
+                WeatherCondition.CLEAR, "Clear sky", Instant.now(), Instant.now()
+        );
+        OpenWeatherMapForecastResponse forecastResponse = new OpenWeatherMapForecastResponse("200", 0, 0, List.of(), null);
+
+        when(cityService.findOrCreateCity("London")).thenReturn(testCity);
+        when(currentWeatherRepository.findByCityId(1L)).thenReturn(Optional.of(testCurrentWeather));
+        when(weatherMapper.isDataFresh(any(Instant.class))).thenReturn(false);
+        when(weatherMapper.isDataServable(testCurrentWeather.getLastUpdated(), STALE_GRACE)).thenReturn(true);
+        when(weatherMapper.mapToWeatherResponse(testCurrentWeather)).thenReturn(testWeatherResponse);
+        when(weatherClient.getCurrentWeather("London")).thenReturn(testApiResponse);
+        when(weatherClient.getForecast("London")).thenReturn(forecastResponse);
+        when(weatherMapper.mapToCurrentWeather(testCity, testApiResponse)).thenReturn(refreshedWeather);
+        when(currentWeatherRepository.save(refreshedWeather)).thenReturn(refreshedWeather);
+        when(weatherMapper.mapToWeatherResponse(refreshedWeather)).thenReturn(refreshedResponse);
+
+        // The refresh runs, and finishes, before the stale response is returned
+        assertSame(testWeatherResponse, weatherService.getCurrentWeather("London"));
+
+        assertSame(refreshedResponse, caches.getCache("currentWeather").get("london", WeatherResponse.class));
+        verify(dataVersions).record(WeatherDataVersions.Kind.CURRENT, "london", refreshedWeather.getLastUpdated());
+        verify(dataVersions, never()).record(WeatherDataVersions.Kind.CURRENT, "London", testCurrentWeather.getLastUpdated());
+
+        // Coalescing is released once the refresh is done, so the next stale read refreshes again
+        caches.getCache("currentWeather").clear();
+        weatherService.getCurrentWeather("London");
+        verify(weatherClient, times(2)).getCurrentWeather("London");
+    }
+
+    @Test
+    void getCurrentWeather_WhenBackgroundRefreshFails_ShouldNotRetryUpstreamWithinBackoff() {
+        when(cityService.findOrCreateCity("London")).thenReturn(testCity);
+        when(currentWeatherRepository.findByCityId(1L)).thenReturn(Optional.of(testCurrentWeather));
+        when(weatherMapper.isDataFresh(any(Instant.class))).thenReturn(false);
+        when(weatherMapper.isDataServable(testCurrentWeather.getLastUpdated(), STALE_GRACE)).thenReturn(true);
+        when(weatherMapper.mapToWeatherResponse(testCurrentWeather)).thenReturn(testWeatherResponse);
+        when(weatherClient.getCurrentWeather("London")).thenThrow(new WeatherApiException("429 Too Many Requests"));
+
+        // The refresh runs inline and fails during the first request
+        assertSame(testWeatherResponse, weatherService.getCurrentWeather("London"));
+        assertSame(testWeatherResponse, weatherService.getCurrentWeather("London"));
+
+        verify(weatherClient, times(1)).getCurrentWeather("London");
+        verify(weatherClient, times(1)).getForecast("London");
+    }
+
+    @Test
+    void getForecast_WhenStaleWithinGrace_ShouldServeStoredSlotsAndRefreshInBackground() {
+        List<Runnable> background = new ArrayList<>();
+        WeatherServiceImpl service = service(Runnable::run, background::add, REFRESH_TIMEOUT);
+        Forecast slot = new Forecast();
+        slot.setForecastDate(Instant.now().plus(2, ChronoUnit.HOURS));
+        slot.setFetchedAt(Instant.now().minus(1, ChronoUnit.HOURS));
+        ForecastResponse testForecastResponse = new ForecastResponse("London", "GB", List.of());
+
+        when(cityService.findOrCreateCity("London")).thenReturn(testCity);
+        when(forecastRepository.findByCityIdAndForecastDateGreaterThanOrderByForecastDateAsc(eq(1L), any(Instant.class)))
+                .thenReturn(List.of(slot));
+        when(weatherMapper.isDataFresh(any(Instant.class))).thenReturn(false);
+        when(weatherMapper.isDataServable(slot.getFetchedAt(), STALE_GRACE)).thenReturn(true);
+        when(weatherMapper.mapToForecastResponse(testCity, List.of(slot))).thenReturn(testForecastResponse);
+
+        ForecastResponse result = service.getForecast("London");
+
+        assertSame(testForecastResponse, result);
+        assertEquals(1, background.size());
+        verify(weatherClient, never()).getForecast(anyString());
     }
 
     @Test
@@ -214,22 +387,224 @@ class WeatherServiceImplTest {
         when(forecastRepository.saveAll(forecasts)).thenReturn(forecasts);
         doNothing().when(forecastRepository).deleteByCityId(1L);
 
-        weatherService.refreshWeatherData(testCity);
+        assertTrue(weatherService.refreshWeatherData(testCity));
 
         verify(weatherClient).getCurrentWeather("London");
         verify(weatherClient).getForecast("London");
         verify(currentWeatherRepository).save(testCurrentWeather);
         verify(forecastRepository).deleteByCityId(1L);
         verify(forecastRepository).saveAll(forecasts);
+        verify(cacheInvalidationBus).publish("london");
+    }
+
+    @Test
+    void refreshWeatherData_ShouldWriteNewResponsesThroughToCaches() {
+        OpenWeatherMapResponse currentResponse = new OpenWeatherMapResponse(
+                null, null, null, null, null, null, null, null, null,
+                System.currentTimeMillis() / 1000, null, null, 1L, "London", 200
+        );
+        OpenWeatherMapForecastResponse forecastResponse = new OpenWeatherMapForecastResponse(
+                "200", 0, 0, List.of(), null
+        );
+        List<Forecast> forecasts = Arrays.asList(new Forecast());
+        ForecastResponse testForecastResponse = new ForecastResponse("London", "GB", List.of());
+        Cache currentWeatherCache = mock(Cache.class);
+        Cache forecastCache = mock(Cache.class);
+
+        when(weatherClient.getCurrentWeather("London")).thenReturn(currentResponse);
+        when(weatherClient.getForecast("London")).thenReturn(forecastResponse);
+        when(weatherMapper.mapToCurrentWeather(testCity, currentResponse)).thenReturn(testCurrentWeather);
+        when(currentWeatherRepository.save(testCurrentWeather)).thenReturn(testCurrentWeather);
+        when(weatherMapper.mapToForecasts(testCity, forecastResponse)).thenReturn(forecasts);
+        when(forecastRepository.saveAll(forecasts)).thenReturn(forecasts);
+        when(weatherMapper.mapToWeatherResponse(testCurrentWeather)).thenReturn(testWeatherResponse);
+        when(weatherMapper.mapToForecastResponse(testCity, forecasts)).thenReturn(testForecastResponse);
+        when(cacheManager.getCache("currentWeather")).thenReturn(currentWeatherCache);
+        when(cacheManager.getCache("forecast")).thenReturn(forecastCache);
+        when(cacheManager.getCache("dailyForecast")).thenReturn(mock(Cache.class));
+
+        assertTrue(weatherService.refreshWeatherData(testCity));
+
+        verify(currentWeatherCache).put("london", testWeatherResponse);
+        verify(forecastCache).put("london", testForecastResponse);
+        verify(eventPublisher).publishEvent(new WeatherUpdatedEvent("london", testWeatherResponse));
     }
 
     @Test
     void refreshWeatherData_WhenAPIFails_ShouldLogErrorAndContinue() {
         when(weatherClient.getCurrentWeather("London")).thenThrow(new WeatherApiException("API Error"));
 
-        assertDoesNotThrow(() -> weatherService.refreshWeatherData(testCity));
+        assertDoesNotThrow(() -> assertFalse(weatherService.refreshWeatherData(testCity)));
 
         verify(weatherClient).getCurrentWeather("London");
         verify(currentWeatherRepository, never()).save(any());
+        verify(cacheInvalidationBus, never()).publish(anyString());
+    }
+
+    @Test
+    void refreshWeatherData_WhenCurrentWeatherFails_ShouldCancelQueuedForecastCall() {
+        List<Runnable> queued = new ArrayList<>();
+        WeatherServiceImpl service = service(queued::add, Runnable::run, REFRESH_TIMEOUT);
+        when(weatherClient.getCurrentWeather("London")).thenThrow(new WeatherApiException("API Error"));
+
+        assertFalse(service.refreshWeatherData(testCity));
+        queued.forEach(Runnable::run);
+
+        verify(weatherClient, never()).getForecast(anyString());
+    }
+
+    @Test
+    void refreshWeatherData_WhenForecastCallDoesNotAnswerInTime_ShouldGiveUp() {
+        List<Runnable> queued = new ArrayList<>();
+        WeatherServiceImpl service = service(queued::add, Runnable::run, Duration.ofMillis(50));
+        when(weatherClient.getCurrentWeather("London")).thenReturn(testApiResponse);
+
+        assertFalse(service.refreshWeatherData(testCity));
+        queued.forEach(Runnable::run);
+
+        verify(weatherClient, never()).getForecast(anyString());
+        verify(currentWeatherRepository, never()).save(any());
+    }
+
+    @Test
+    void getCurrentWeatherBatch_ShouldUseCacheThenDatabaseThenUpstream() {
+        Cache currentWeatherCache = spy(new ConcurrentMapCache("currentWeather"));
+        City paris = new City();
+        paris.setId(2L);
+        paris.setName("Paris");
+        CurrentWeather parisWeather = new CurrentWeather();
+        parisWeather.setCity(paris);
+        parisWeather.setLastUpdated(Instant.now());
+        WeatherResponse parisResponse = new WeatherResponse(
+                "Paris", "FR", Instant.now(), new BigDecimal("18.00"),
+                60, new BigDecimal("3.00"), 90, 1015,
+                WeatherCondition.CLOUDS, "few clouds", Instant.now(), Instant.now()
+        );
+        City nowhere = new City();
+        nowhere.setId(3L);
+        nowhere.setName("Nowhere");
+
+        currentWeatherCache.put("london", testWeatherResponse);
+        when(cacheManager.getCache("currentWeather")).thenReturn(currentWeatherCache);
+        when(cityService.findByNames(List.of("paris", "nowhere"))).thenReturn(List.of(paris));
+        when(currentWeatherRepository.findByCityIdIn(List.of(2L))).thenReturn(List.of(parisWeather));
+        when(weatherMapper.isDataFresh(any(Instant.class))).thenReturn(true);
+        when(weatherMapper.mapToWeatherResponse(parisWeather)).thenReturn(parisResponse);
+        when(cityService.findOrCreateCity("Nowhere")).thenReturn(nowhere);
+        when(currentWeatherRepository.findByCityId(3L)).thenReturn(Optional.empty());
+        when(weatherClient.getCurrentWeather("Nowhere")).thenThrow(new WeatherApiException("City not found"));
+        when(cityService.findByName("Nowhere")).thenReturn(Optional.empty());
+
+        BatchResponse<WeatherResponse> result = weatherService.getCurrentWeatherBatch(List.of("London", "Paris", "Nowhere"));
+
+        assertEquals(Map.of("London", testWeatherResponse, "Paris", parisResponse), result.results());
+        assertEquals(Map.of("Nowhere", "City not found"), result.errors());
+        verify(weatherClient, never()).getCurrentWeather("London");
+        verify(weatherClient, never()).getCurrentWeather("Paris");
+        verify(currentWeatherCache).put("paris", parisResponse);
+    }
+
+    @Test
+    void getStoredCurrentWeather_WhenNamesDifferOnlyInCase_ShouldKeepLatest() {
+        City lowerCase = new City();
+        lowerCase.setId(2L);
+        lowerCase.setName("london");
+        CurrentWeather older = new CurrentWeather();
+        older.setCity(lowerCase);
+        older.setLastUpdated(Instant.now().minus(1, ChronoUnit.HOURS));
+
+        when(cityService.findByNames(List.of("london"))).thenReturn(List.of(testCity, lowerCase));
+        when(currentWeatherRepository.findByCityIdIn(List.of(1L, 2L))).thenReturn(List.of(testCurrentWeather, older));
+        when(weatherMapper.mapToWeatherResponse(testCurrentWeather)).thenReturn(testWeatherResponse);
+
+        Map<String, WeatherResponse> result = weatherService.getStoredCurrentWeather(Set.of("London"));
+
+        assertEquals(Map.of("london", testWeatherResponse), result);
+    }
+
+    @Test
+    void getForecastBatch_ShouldServeRecentlyFetchedSlotsFromDatabase() {
+        Forecast slot = new Forecast();
+        slot.setCity(testCity);
+        slot.setForecastDate(Instant.now().plus(2, ChronoUnit.HOURS));
+        slot.setFetchedAt(Instant.now().minus(10, ChronoUnit.MINUTES));
+        ForecastResponse expected = new ForecastResponse("London", "GB", List.of());
+
+        when(cityService.findByNames(List.of("london"))).thenReturn(List.of(testCity));
+        when(forecastRepository.findByCityIdInAndForecastDateGreaterThan(eq(List.of(1L)), any(Instant.class))).thenReturn(List.of(slot));
+        when(weatherMapper.isDataFresh(slot.getFetchedAt())).thenReturn(true);
+        when(weatherMapper.mapToForecastResponse(testCity, List.of(slot))).thenReturn(expected);
+
+        BatchResponse<ForecastResponse> result = weatherService.getForecastBatch(List.of("London"));
+
+        assertEquals(Map.of("London", expected), result.results());
+        verify(weatherClient, never()).getForecast(anyString());
+    }
+
+    @Test
+    void getDailyForecast_ShouldServeStoredSummariesForFreshForecast() {
+        Forecast slot = new Forecast();
+        slot.setForecastDate(Instant.now().plus(3, ChronoUnit.HOURS));
+        slot.setFetchedAt(Instant.now().minus(10, ChronoUnit.MINUTES));
+        List<Forecast> slots = List.of(slot);
+        List<DailyForecast> days = List.of(new DailyForecast());
+        DailyForecastResponse expected = new DailyForecastResponse("London", "GB", 3600, List.of());
+
+        when(cityService.findOrCreateCity("London")).thenReturn(testCity);
+        when(forecastRepository.findByCityIdAndForecastDateGreaterThanOrderByForecastDateAsc(eq(1L), any(Instant.class))).thenReturn(slots);
+        when(weatherMapper.isDataFresh(any(Instant.class))).thenReturn(true);
+        when(weatherMapper.utcOffset(testCity)).thenReturn(ZoneOffset.UTC);
+        when(dailyForecastRepository.findByCityIdAndForecastDateGreaterThanEqualOrderByForecastDateAsc(1L, LocalDate.now(ZoneOffset.UTC)))
+                .thenReturn(days);
+        when(weatherMapper.mapToDailyForecastResponse(testCity, days)).thenReturn(expected);
+
+        assertEquals(expected, weatherService.getDailyForecast("London"));
+        verify(weatherClient, never()).getForecast(anyString());
+    }
+
+    @Test
+    void getDailyForecast_ShouldReadTheForecastThroughItsCache() {
+        ConcurrentMapCacheManager caches = new ConcurrentMapCacheManager("forecast", "dailyForecast");
+        when(cacheManager.getCache(anyString())).thenAnswer(invocation -> caches.getCache(invocation.getArgument(0)));
+        caches.getCache("forecast").put("london", new ForecastResponse("London", "GB", List.of()));
+        List<DailyForecast> days = List.of(new DailyForecast());
+        DailyForecastResponse expected = new DailyForecastResponse("London", "GB", 3600, List.of());
+
+        when(cityService.findOrCreateCity("London")).thenReturn(testCity);
+        when(weatherMapper.utcOffset(testCity)).thenReturn(ZoneOffset.UTC);
+        when(dailyForecastRepository.findByCityIdAndForecastDateGreaterThanEqualOrderByForecastDateAsc(1L, LocalDate.now(ZoneOffset.UTC)))
+                .thenReturn(days);
+        when(weatherMapper.mapToDailyForecastResponse(testCity, days)).thenReturn(expected);
+
+        assertEquals(expected, weatherService.getDailyForecast("London"));
+        verify(forecastRepository, never()).findByCityIdAndForecastDateGreaterThanOrderByForecastDateAsc(anyLong(), any(Instant.class));
+        assertSame(expected, caches.getCache("dailyForecast").get("london", DailyForecastResponse.class));
+    }
+
+    @Test
+    void getDailyForecast_WhenForecastIsServedStale_ShouldNotCacheSummaries() {
+        List<Runnable> background = new ArrayList<>();
+        WeatherServiceImpl service = service(Runnable::run, background::add, REFRESH_TIMEOUT);
+        ConcurrentMapCacheManager caches = new ConcurrentMapCacheManager("forecast", "dailyForecast");
+        when(cacheManager.getCache(anyString())).thenAnswer(invocation -> caches.getCache(invocation.getArgument(0)));
+        Forecast slot = new Forecast();
+        slot.setForecastDate(Instant.now().plus(2, ChronoUnit.HOURS));
+        slot.setFetchedAt(Instant.now().minus(1, ChronoUnit.HOURS));
+        List<DailyForecast> days = List.of(new DailyForecast());
+        DailyForecastResponse expected = new DailyForecastResponse("London", "GB", 3600, List.of());
+
+        when(cityService.findOrCreateCity("London")).thenReturn(testCity);
+        when(forecastRepository.findByCityIdAndForecastDateGreaterThanOrderByForecastDateAsc(eq(1L), any(Instant.class)))
+                .thenReturn(List.of(slot));
+        when(weatherMapper.isDataFresh(any(Instant.class))).thenReturn(false);
+        when(weatherMapper.isDataServable(slot.getFetchedAt(), STALE_GRACE)).thenReturn(true);
+        when(weatherMapper.utcOffset(testCity)).thenReturn(ZoneOffset.UTC);
+        when(dailyForecastRepository.findByCityIdAndForecastDateGreaterThanEqualOrderByForecastDateAsc(1L, LocalDate.now(ZoneOffset.UTC)))
+                .thenReturn(days);
+        when(weatherMapper.mapToDailyForecastResponse(testCity, days)).thenReturn(expected);
+
+        assertEquals(expected, service.getDailyForecast("London"));
+        assertEquals(1, background.size());
+        assertNull(caches.getCache("dailyForecast").get("london"));
     }
 }
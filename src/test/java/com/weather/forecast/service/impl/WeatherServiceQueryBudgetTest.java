@@ -0,0 +1,154 @@
+package com.weather.forecast.service.impl;
+
+import com.weather.forecast.dto.OpenWeatherMapResponse;
+import com.weather.forecast.dto.WeatherResponse;
+import com.weather.forecast.exception.WeatherApiException;
+import com.weather.forecast.model.City;
+import com.weather.forecast.model.CurrentWeather;
+import com.weather.forecast.model.WeatherCondition;
+import com.weather.forecast.repository.CityRepository;
+import com.weather.forecast.repository.CurrentWeatherRepository;
+import com.weather.forecast.repository.ForecastRepository;
+import com.weather.forecast.service.OpenWeatherMapClient;
+import com.weather.forecast.service.WeatherService;
+import com.weather.forecast.support.QueryBudget;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Query and allocation budgets for {@link WeatherService#getCurrentWeather(String)}.
+ * A change that adds round trips to one of these paths must raise the budget here explicitly.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.weather.forecast.support.StatementCountingInspector"
+})
+@ActiveProfiles("test")
+class WeatherServiceQueryBudgetTest {
+
+    private static final int FRESH_HIT_STATEMENTS = 6;
+    // Stale rows are seeded past weather.stale-while-revalidate.grace, so these paths still wait on upstream
+    private static final int STALE_MISS_STATEMENTS = 12;
+    private static final int UPSTREAM_FAILURE_STATEMENTS = 9;
+    private static final long ALLOCATION_BUDGET_BYTES = 8L * 1024 * 1024;
+
+    @Autowired
+    private WeatherService weatherService;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Autowired
+    private CurrentWeatherRepository currentWeatherRepository;
+
+    @Autowired
+    private ForecastRepository forecastRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private OpenWeatherMapClient weatherClient;
+
+    private QueryBudget queryBudget;
+
+    @BeforeEach
+    void setUp() {
+        forecastRepository.deleteAll();
+        currentWeatherRepository.deleteAll();
+        cityRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        queryBudget = new QueryBudget(entityManagerFactory);
+
+        // Warm up query plans so the allocation figures reflect steady state
+        seedCity("Warmup", Instant.now());
+        weatherService.getCurrentWeather("Warmup");
+    }
+
+    @Test
+    void getCurrentWeather_FreshHit_ShouldStayWithinBudget() {
+        seedCity("London", Instant.now().minus(5, ChronoUnit.MINUTES));
+
+        WeatherResponse result = queryBudget.measure(() -> weatherService.getCurrentWeather("London"))
+                .assertWithin("fresh hit", FRESH_HIT_STATEMENTS, ALLOCATION_BUDGET_BYTES)
+                .result();
+
+        assertEquals("London", result.city());
+    }
+
+    @Test
+    void getCurrentWeather_StaleMiss_ShouldStayWithinBudget() {
+        seedCity("London", Instant.now().minus(6, ChronoUnit.HOURS));
+        when(weatherClient.getCurrentWeather(anyString())).thenReturn(apiResponse("London"));
+
+        WeatherResponse result = queryBudget.measure(() -> weatherService.getCurrentWeather("London"))
+                .assertWithin("stale miss", STALE_MISS_STATEMENTS, ALLOCATION_BUDGET_BYTES)
+                .result();
+
+        assertEquals(new BigDecimal("18.5"), result.temperature());
+    }
+
+    @Test
+    void getCurrentWeather_UpstreamFailure_ShouldStayWithinBudget() {
+        seedCity("London", Instant.now().minus(6, ChronoUnit.HOURS));
+        when(weatherClient.getCurrentWeather(anyString())).thenThrow(new WeatherApiException("API Error"));
+
+        WeatherResponse result = queryBudget.measure(() -> weatherService.getCurrentWeather("London"))
+                .assertWithin("upstream failure", UPSTREAM_FAILURE_STATEMENTS, ALLOCATION_BUDGET_BYTES)
+                .result();
+
+        assertEquals("London", result.city());
+    }
+
+    private void seedCity(String name, Instant lastUpdated) {
+        City city = new City();
+        city.setName(name);
+        city.setCountry("GB");
+        city.setSearchCount(1);
+        city.setLastSearched(Instant.now());
+        city = cityRepository.save(city);
+
+        CurrentWeather weather = new CurrentWeather();
+        weather.setCity(city);
+        weather.setTimestamp(lastUpdated);
+        weather.setTemperature(new BigDecimal("12.00"));
+        weather.setHumidity(70);
+        weather.setWeatherMain(WeatherCondition.CLOUDS);
+        weather.setWeatherDescription("overcast clouds");
+        weather.setLastUpdated(lastUpdated);
+        currentWeatherRepository.save(weather);
+    }
+
+    private OpenWeatherMapResponse apiResponse(String name) {
+        return new OpenWeatherMapResponse(
+                new OpenWeatherMapResponse.Coord(-0.13, 51.51),
+                List.of(new OpenWeatherMapResponse.Weather(800L, "Clear", "clear sky", "01d")),
+                "stations",
+                new OpenWeatherMapResponse.Main(18.5, 18.0, 17.0, 20.0, 1015, 60, null, null),
+                10000,
+                new OpenWeatherMapResponse.Wind(3.1, 200, null),
+                null, null, null,
+                Instant.now().getEpochSecond(),
+                new OpenWeatherMapResponse.Sys(1, 1L, "GB", 1L, 2L),
+                0, 1L, name, 200
+        );
+    }
+}
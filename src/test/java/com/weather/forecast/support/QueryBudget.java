@@ -0,0 +1,68 @@
+package com.weather.forecast.support;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the SQL statements and heap allocation of a single service call and
+ * fails the test when the call exceeds its declared budget.
+ */
+public final class QueryBudget {
+
+    private final Statistics statistics;
+    private final com.sun.management.ThreadMXBean threadBean;
+
+    public QueryBudget(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    }
+
+    public <T> Measurement<T> measure(Supplier<T> call) {
+        statistics.clear();
+        StatementCountingInspector.reset();
+        long allocatedBefore = threadBean.getCurrentThreadAllocatedBytes();
+
+        T result = call.get();
+
+        long allocated = threadBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        return new Measurement<>(
+                result,
+                StatementCountingInspector.total(),
+                StatementCountingInspector.count(StatementCountingInspector.Kind.SELECT),
+                StatementCountingInspector.count(StatementCountingInspector.Kind.INSERT),
+                StatementCountingInspector.count(StatementCountingInspector.Kind.UPDATE),
+                StatementCountingInspector.count(StatementCountingInspector.Kind.DELETE),
+                statistics.getPrepareStatementCount(),
+                statistics.getEntityLoadCount(),
+                allocated
+        );
+    }
+
+    public record Measurement<T>(
+            T result,
+            long statements,
+            long selects,
+            long inserts,
+            long updates,
+            long deletes,
+            long preparedStatements,
+            long entityLoads,
+            long allocatedBytes
+    ) {
+        public Measurement<T> assertWithin(String scenario, int maxStatements, long maxAllocatedBytes) {
+            assertThat(statements)
+                    .as("%s issued %d statements (budget %d): %s", scenario, statements, maxStatements, this)
+                    .isLessThanOrEqualTo(maxStatements);
+            assertThat(allocatedBytes)
+                    .as("%s allocated %d bytes (budget %d)", scenario, allocatedBytes, maxAllocatedBytes)
+                    .isLessThanOrEqualTo(maxAllocatedBytes);
+            return this;
+        }
+    }
+}
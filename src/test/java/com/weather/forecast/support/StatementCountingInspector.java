@@ -0,0 +1,60 @@
+package com.weather.forecast.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts every SQL statement Hibernate sends to the driver, grouped by kind.
+ * Registered through {@code hibernate.session_factory.statement_inspector}, so counters are JVM-wide.
+ */
+public class StatementCountingInspector implements StatementInspector {
+
+    public enum Kind { SELECT, INSERT, UPDATE, DELETE, OTHER }
+
+    private static final Map<Kind, LongAdder> COUNTERS = new EnumMap<>(Kind.class);
+
+    static {
+        for (Kind kind : Kind.values()) {
+            COUNTERS.put(kind, new LongAdder());
+        }
+    }
+
+    @Override
+    public String inspect(String sql) {
+        COUNTERS.get(classify(sql)).increment();
+        return sql;
+    }
+
+    public static void reset() {
+        COUNTERS.values().forEach(LongAdder::reset);
+    }
+
+    public static long count(Kind kind) {
+        return COUNTERS.get(kind).sum();
+    }
+
+    public static long total() {
+        return COUNTERS.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    private static Kind classify(String sql) {
+        String head = sql.stripLeading().toLowerCase(Locale.ROOT);
+        if (head.startsWith("select") || head.startsWith("with")) {
+            return Kind.SELECT;
+        }
+        if (head.startsWith("insert")) {
+            return Kind.INSERT;
+        }
+        if (head.startsWith("update")) {
+            return Kind.UPDATE;
+        }
+        if (head.startsWith("delete")) {
+            return Kind.DELETE;
+        }
+        return Kind.OTHER;
+    }
+}
@@ -0,0 +1,87 @@
+package com.weather.forecast.util;
+
+import com.weather.forecast.model.City;
+import com.weather.forecast.model.DailyForecast;
+import com.weather.forecast.model.Forecast;
+import com.weather.forecast.model.WeatherCondition;
+import com.weather.forecast.repository.CurrentWeatherRepository;
+import com.weather.forecast.service.CityService;
+import com.weather.forecast.service.CitySpatialIndex;
+import com.weather.forecast.service.CitySuggestionIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class WeatherMapperTest {
+
+    private WeatherMapper weatherMapper;
+    private City city;
+
+    @BeforeEach
+    void setUp() {
+        weatherMapper = new WeatherMapper(mock(CityService.class), mock(CurrentWeatherRepository.class),
+                mock(CitySpatialIndex.class), mock(CitySuggestionIndex.class));
+
+        city = new City();
+        city.setName("New York");
+        city.setCountry("US");
+        city.setUtcOffsetSeconds(-4 * 3600);
+    }
+
+    @Test
+    void mapToDailyForecasts_ShouldGroupSlotsByLocalDay() {
+        List<Forecast> slots = List.of(
+                slot("2024-06-01T03:00:00Z", "18.50", null, "0.10", WeatherCondition.CLOUDS),
+                slot("2024-06-01T06:00:00Z", "16.00", "1.20", "0.60", WeatherCondition.RAIN),
+                slot("2024-06-01T09:00:00Z", "17.25", "0.80", "0.40", WeatherCondition.RAIN),
+                slot("2024-06-01T12:00:00Z", "21.00", null, "0.20", WeatherCondition.CLOUDS)
+        );
+
+        List<DailyForecast> days = weatherMapper.mapToDailyForecasts(city, slots);
+
+        // 03:00Z is still 23:00 on 31 May in New York
+        assertEquals(2, days.size());
+        DailyForecast lastOfMay = days.get(0);
+        assertEquals(LocalDate.of(2024, 5, 31), lastOfMay.getForecastDate());
+        assertEquals(1, lastOfMay.getSlotCount());
+        assertEquals(0, BigDecimal.ZERO.compareTo(lastOfMay.getPrecipitation()));
+
+        DailyForecast firstOfJune = days.get(1);
+        assertEquals(LocalDate.of(2024, 6, 1), firstOfJune.getForecastDate());
+        assertEquals(3, firstOfJune.getSlotCount());
+        assertEquals(new BigDecimal("16.00"), firstOfJune.getMinTemperature());
+        assertEquals(new BigDecimal("21.00"), firstOfJune.getMaxTemperature());
+        assertEquals(new BigDecimal("2.00"), firstOfJune.getPrecipitation());
+        assertEquals(new BigDecimal("0.60"), firstOfJune.getProbability());
+        assertEquals(WeatherCondition.RAIN, firstOfJune.getWeatherMain());
+    }
+
+    @Test
+    void mapToDailyForecasts_WithoutKnownOffset_ShouldUseUtc() {
+        city.setUtcOffsetSeconds(null);
+
+        List<DailyForecast> days = weatherMapper.mapToDailyForecasts(city,
+                List.of(slot("2024-06-01T03:00:00Z", "18.50", null, null, WeatherCondition.CLEAR)));
+
+        assertEquals(LocalDate.of(2024, 6, 1), days.get(0).getForecastDate());
+    }
+
+    private Forecast slot(String time, String temperature, String rain, String probability, WeatherCondition condition) {
+        Forecast forecast = new Forecast();
+        forecast.setCity(city);
+        forecast.setForecastDate(Instant.parse(time));
+        forecast.setTemperature(new BigDecimal(temperature));
+        forecast.setRainVolume(rain != null ? new BigDecimal(rain) : null);
+        forecast.setProbability(probability != null ? new BigDecimal(probability) : null);
+        forecast.setWeatherMain(condition);
+        forecast.setWeatherDescription(condition.name().toLowerCase());
+        return forecast;
+    }
+}
@@ -0,0 +1,172 @@
+package com.weather.forecast.util;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.WireFormat;
+import com.weather.forecast.dto.ForecastResponse;
+import com.weather.forecast.dto.ForecastSlice;
+import com.weather.forecast.dto.WeatherResponse;
+import com.weather.forecast.model.WeatherCondition;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherProtobufCodecTest {
+
+    private static final Instant NOON = Instant.parse("2024-06-01T12:00:00Z");
+    private static final Pattern ENUM_VALUE = Pattern.compile("(\\w+)\\s*=\\s*(\\d+);");
+    private static final Pattern FIELD = Pattern.compile("(?:optional\\s+|repeated\\s+)?(\\w+)\\s+\\w+\\s*=\\s*(\\d+);");
+    /** The schema clients generate their code from, checked here against what the codec actually writes. */
+    private static final String SCHEMA = readSchema();
+
+    @Test
+    void writeWeather_ShouldRoundTrip() throws Exception {
+        WeatherResponse weather = new WeatherResponse("São Paulo", "BR", NOON, new BigDecimal("-3.45"), 81,
+                new BigDecimal("4.10"), 270, 1009, WeatherCondition.DRIZZLE, "light drizzle", null, NOON.plusSeconds(3600));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        WeatherProtobufCodec.writeWeather(weather, out);
+
+        assertEquals(weather, WeatherProtobufCodec.readWeather(new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    @Test
+    void writeForecast_ShouldRoundTrip() throws Exception {
+        ForecastResponse forecast = new ForecastResponse("London", "GB", List.of(
+                item(NOON, "21.50", WeatherCondition.CLEAR, null),
+                item(NOON.plusSeconds(10800), "18.00", WeatherCondition.RAIN, "2.50")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        WeatherProtobufCodec.writeForecast(forecast, out);
+
+        assertEquals(forecast, WeatherProtobufCodec.readForecast(new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    @Test
+    void writeForecast_WithSlice_ShouldLeaveUnselectedFieldsUnset() throws Exception {
+        ForecastResponse forecast = new ForecastResponse("London", "GB", List.of(
+                item(NOON, "21.50", WeatherCondition.CLEAR, null)));
+        ForecastSlice slice = ForecastSlice.of(forecast, null, null, null,
+                Set.of(ForecastSlice.Field.DATE, ForecastSlice.Field.TEMPERATURE));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        WeatherProtobufCodec.writeForecast(slice, out);
+        ForecastResponse.ForecastItem read = WeatherProtobufCodec.readForecast(new ByteArrayInputStream(out.toByteArray()))
+                .forecasts().get(0);
+
+        assertEquals(NOON, read.date());
+        assertEquals(new BigDecimal("21.50"), read.temperature());
+        assertNull(read.humidity());
+        assertNull(read.conditions());
+    }
+
+    @Test
+    void conditionNumbers_ShouldMatchTheSchema() {
+        Map<String, Integer> schema = enumValues(block(SCHEMA, "enum Condition"));
+
+        for (WeatherCondition condition : WeatherCondition.values()) {
+            assertEquals(schema.get(condition.name()), WeatherProtobufCodec.conditionNumber(condition), condition.name());
+        }
+        schema.forEach((name, number) -> assertEquals(
+                number == 0 ? null : WeatherCondition.valueOf(name), WeatherProtobufCodec.condition(number), name));
+    }
+
+    @Test
+    void writeWeather_ShouldUseTheSchemaFieldNumbersAndTypes() throws Exception {
+        WeatherResponse weather = new WeatherResponse("London", "GB", NOON, new BigDecimal("21.50"), 60,
+                new BigDecimal("4.80"), 270, 1013, WeatherCondition.SMOKE, "smoke", NOON.minusSeconds(3600), NOON.plusSeconds(3600));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        WeatherProtobufCodec.writeWeather(weather, out);
+
+        assertEquals(wireTypes(block(SCHEMA, "message Weather")), writtenFields(CodedInputStream.newInstance(out.toByteArray())));
+    }
+
+    @Test
+    void writeForecast_ShouldUseTheSchemaFieldNumbersAndTypes() throws Exception {
+        ForecastResponse forecast = new ForecastResponse("London", "GB", List.of(item(NOON, "21.50", WeatherCondition.TORNADO, "2.50")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        WeatherProtobufCodec.writeForecast(forecast, out);
+        CodedInputStream input = CodedInputStream.newInstance(out.toByteArray());
+
+        String forecastFields = SCHEMA.substring(SCHEMA.indexOf("message Forecast"), SCHEMA.indexOf("message Item"));
+        Map<Integer, Integer> itemFields = new TreeMap<>();
+        Map<Integer, Integer> fields = new TreeMap<>();
+        for (int tag = input.readTag(); tag != 0; tag = input.readTag()) {
+            fields.put(WireFormat.getTagFieldNumber(tag), WireFormat.getTagWireType(tag));
+            if (WireFormat.getTagFieldNumber(tag) == 3) {
+                itemFields = writtenFields(CodedInputStream.newInstance(input.readByteArray()));
+            } else {
+                input.skipField(tag);
+            }
+        }
+        assertEquals(wireTypes(forecastFields), fields);
+        assertEquals(wireTypes(block(SCHEMA, "message Item")), itemFields);
+    }
+
+    private static String readSchema() {
+        try {
+            return Files.readString(Path.of("src/main/proto/weather.proto"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** The body of the first block with this header; the blocks read here contain no nested braces. */
+    private static String block(String schema, String header) {
+        int start = schema.indexOf('{', schema.indexOf(header)) + 1;
+        return schema.substring(start, schema.indexOf('}', start));
+    }
+
+    private static Map<String, Integer> enumValues(String block) {
+        Map<String, Integer> values = new LinkedHashMap<>();
+        Matcher matcher = ENUM_VALUE.matcher(block);
+        while (matcher.find()) {
+            values.put(matcher.group(1), Integer.parseInt(matcher.group(2)));
+        }
+        return values;
+    }
+
+    /** Field number to the wire type its declared type is encoded with. */
+    private static Map<Integer, Integer> wireTypes(String block) {
+        Map<Integer, Integer> wireTypes = new TreeMap<>();
+        Matcher matcher = FIELD.matcher(block);
+        while (matcher.find()) {
+            wireTypes.put(Integer.parseInt(matcher.group(2)), switch (matcher.group(1)) {
+                case "int32", "int64", "sint32", "sint64", "bool", "Condition" -> WireFormat.WIRETYPE_VARINT;
+                default -> WireFormat.WIRETYPE_LENGTH_DELIMITED;
+            });
+        }
+        return wireTypes;
+    }
+
+    private static Map<Integer, Integer> writtenFields(CodedInputStream input) throws IOException {
+        Map<Integer, Integer> fields = new TreeMap<>();
+        for (int tag = input.readTag(); tag != 0; tag = input.readTag()) {
+            fields.put(WireFormat.getTagFieldNumber(tag), WireFormat.getTagWireType(tag));
+            input.skipField(tag);
+        }
+        return fields;
+    }
+
+    private static ForecastResponse.ForecastItem item(Instant date, String temperature, WeatherCondition condition, String rain) {
+        return new ForecastResponse.ForecastItem(date, new BigDecimal(temperature), 60, new BigDecimal("4.80"), condition,
+                condition.getDisplayName().toLowerCase(), rain != null ? new BigDecimal(rain) : null, new BigDecimal("0.20"));
+    }
+}